@@ -4,10 +4,15 @@ import com.payroll.texas.dto.auth.LoginRequest;
 import com.payroll.texas.dto.auth.LoginResponse;
 import com.payroll.texas.dto.auth.SignupRequest;
 import com.payroll.texas.dto.auth.SignupResponse;
+import com.payroll.texas.security.AuthRateLimiter;
+import com.payroll.texas.security.AuthenticatedPrincipal;
 import com.payroll.texas.service.AuthService;
+import com.payroll.texas.service.PasswordHashingBusyException;
 import com.payroll.texas.service.SignupService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,32 +31,48 @@ public class AuthController {
     @Autowired
     private SignupService signupService;
 
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
     @Autowired
     private com.payroll.texas.repository.UserRepository userRepository;
 
+    // Login and signup are rate limited per IP and per email before any lookup or hashing. The services run
+    // on the request thread and hand only the BCrypt call to the password hashing pool; a saturated pool
+    // answers 429 with Retry-After.
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest,
+                                               HttpServletRequest request) {
+        long retryAfter = authRateLimiter.checkLogin(request.getRemoteAddr(), loginRequest.getEmail(),
+                request.getHeader(HttpHeaders.USER_AGENT));
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter, loginError("Too many login attempts, please retry later"));
+        }
         try {
             LoginResponse response = authService.login(loginRequest);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests(e.getRetryAfterSeconds(), loginError(e.getMessage()));
         } catch (RuntimeException e) {
-            // Create error response
-            LoginResponse errorResponse = new LoginResponse();
-            errorResponse.setMessage("Login failed: " + e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
+            return ResponseEntity.badRequest().body(loginError("Login failed: " + e.getMessage()));
         }
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<SignupResponse> signup(@Valid @RequestBody SignupRequest signupRequest) {
+    public ResponseEntity<SignupResponse> signup(@Valid @RequestBody SignupRequest signupRequest,
+                                                 HttpServletRequest request) {
+        long retryAfter = authRateLimiter.checkSignup(request.getRemoteAddr(), signupRequest.getEmail(),
+                request.getHeader(HttpHeaders.USER_AGENT));
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter, signupError("Too many signup attempts, please retry later"));
+        }
         try {
             SignupResponse response = signupService.signup(signupRequest);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests(e.getRetryAfterSeconds(), signupError(e.getMessage()));
         } catch (RuntimeException e) {
-            // Create error response
-            SignupResponse errorResponse = new SignupResponse();
-            errorResponse.setMessage("Signup failed: " + e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
+            return ResponseEntity.badRequest().body(signupError("Signup failed: " + e.getMessage()));
         }
     }
 
@@ -74,10 +95,11 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<Map<String, String>> logout(@RequestHeader("Authorization") String authHeader,
+                                                      @RequestBody(required = false) Map<String, String> body) {
         try {
             String token = authHeader.substring(7); // Remove "Bearer "
-            authService.logout(token);
+            authService.logout(token, body != null ? body.get("refreshToken") : null);
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Successfully logged out");
@@ -164,20 +186,9 @@ public class AuthController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUserProfile(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getCurrentUserProfile(AuthenticatedPrincipal principal) {
         try {
-            String token = authHeader.substring(7); // Remove "Bearer "
-            
-            // Validate token and get user info
-            Map<String, Object> validationResult = authService.validateTokenAndGetUser(token);
-            
-            if (!(Boolean) validationResult.get("valid")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(java.util.Map.of("error", "Invalid or expired token"));
-            }
-            
-            Map<String, Object> userInfo = (Map<String, Object>) validationResult.get("userInfo");
-            Long userId = (Long) userInfo.get("id");
+            Long userId = principal.getUserId();
             
             // Fetch the actual user from database
             com.payroll.texas.model.User user = userRepository.findById(userId)
@@ -210,20 +221,9 @@ public class AuthController {
     }
 
     @GetMapping("/user/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id, AuthenticatedPrincipal principal) {
         try {
-            String token = authHeader.substring(7); // Remove "Bearer "
-            
-            // Validate token and get user info
-            Map<String, Object> validationResult = authService.validateTokenAndGetUser(token);
-            
-            if (!(Boolean) validationResult.get("valid")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(java.util.Map.of("error", "Invalid or expired token"));
-            }
-            
-            Map<String, Object> userInfo = (Map<String, Object>) validationResult.get("userInfo");
-            Long authenticatedUserId = (Long) userInfo.get("id");
+            Long authenticatedUserId = principal.getUserId();
             
             // For security, only allow users to fetch their own data or company data
             // You can modify this logic based on your requirements
@@ -266,20 +266,9 @@ public class AuthController {
     private com.payroll.texas.repository.CompanyRepository companyRepository;
 
     @GetMapping("/company/{id}")
-    public ResponseEntity<?> getCompanyById(@PathVariable Long id, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getCompanyById(@PathVariable Long id, AuthenticatedPrincipal principal) {
         try {
-            String token = authHeader.substring(7); // Remove "Bearer "
-            
-            // Validate token and get user info
-            Map<String, Object> validationResult = authService.validateTokenAndGetUser(token);
-            
-            if (!(Boolean) validationResult.get("valid")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(java.util.Map.of("error", "Invalid or expired token"));
-            }
-            
-            Map<String, Object> userInfo = (Map<String, Object>) validationResult.get("userInfo");
-            Long userCompanyId = (Long) userInfo.get("companyId");
+            Long userCompanyId = principal.getCompanyId();
             
             // For security, only allow users to fetch their own company data
             if (!id.equals(userCompanyId)) {
@@ -311,4 +300,22 @@ public class AuthController {
                 .body(java.util.Map.of("error", "Failed to get company: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    private static LoginResponse loginError(String message) {
+        LoginResponse errorResponse = new LoginResponse();
+        errorResponse.setMessage(message);
+        return errorResponse;
+    }
+
+    private static SignupResponse signupError(String message) {
+        SignupResponse errorResponse = new SignupResponse();
+        errorResponse.setMessage(message);
+        return errorResponse;
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests(long retryAfterSeconds, T body) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(body);
+    }
+}
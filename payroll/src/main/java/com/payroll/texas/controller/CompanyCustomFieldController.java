@@ -0,0 +1,103 @@
+package com.payroll.texas.controller;
+
+import com.payroll.texas.dto.customfield.CustomFieldDefinitionRequest;
+import com.payroll.texas.model.CustomFieldDefinition;
+import com.payroll.texas.model.UserType;
+import com.payroll.texas.security.AuthenticatedPrincipal;
+import com.payroll.texas.service.CustomFieldSchemaService;
+import com.payroll.texas.service.SecurityAuditService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/company/custom-fields")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:5174"})
+public class CompanyCustomFieldController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompanyCustomFieldController.class);
+
+    @Autowired
+    private CustomFieldSchemaService customFieldSchemaService;
+
+    @Autowired
+    private SecurityAuditService securityAuditService;
+
+    /**
+     * The company's employee custom field definitions, including the build state of their indexes.
+     */
+    @GetMapping
+    public ResponseEntity<?> getDefinitions(AuthenticatedPrincipal principal) {
+        if (!principal.hasCompany()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User not associated with any company"));
+        }
+        List<CustomFieldDefinition> definitions = customFieldSchemaService.getDefinitions(principal.getCompanyId());
+        return ResponseEntity.ok(definitions);
+    }
+
+    /**
+     * Creates or replaces a field definition. Indexed fields report index status PENDING until their index is built.
+     */
+    @PutMapping("/{name}")
+    public ResponseEntity<?> define(AuthenticatedPrincipal principal, @PathVariable String name,
+                                    @RequestBody CustomFieldDefinitionRequest body, HttpServletRequest request) {
+        ResponseEntity<?> denied = checkAccess(principal);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            CustomFieldDefinition definition = customFieldSchemaService.define(principal.getCompanyId(), name, body);
+            securityAuditService.logConfigurationChange(principal.getEmail(), principal.getUserId(), "CUSTOM_FIELD_DEFINITION",
+                    null, name + ":" + body.getType() + (body.isRequired() ? ",required" : "") + (body.isIndexed() ? ",indexed" : ""),
+                    request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+            return ResponseEntity.ok(definition);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error defining custom field '{}' for company {}: {}", name, principal.getCompanyId(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to define custom field: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<?> delete(AuthenticatedPrincipal principal, @PathVariable String name, HttpServletRequest request) {
+        ResponseEntity<?> denied = checkAccess(principal);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            customFieldSchemaService.delete(principal.getCompanyId(), name);
+            securityAuditService.logConfigurationChange(principal.getEmail(), principal.getUserId(), "CUSTOM_FIELD_DEFINITION",
+                    name, null, request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+            return ResponseEntity.noContent().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error deleting custom field '{}' for company {}: {}", name, principal.getCompanyId(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to delete custom field: " + e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<?> checkAccess(AuthenticatedPrincipal principal) {
+        if (!principal.hasCompany()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User not associated with any company"));
+        }
+        String userType = principal.getUserType();
+        if (!UserType.BUSINESS_OWNER.name().equals(userType) && !UserType.BUSINESS_ADMIN.name().equals(userType)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only business owners and admins can change custom field definitions"));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.payroll.texas.controller;
+
+import com.payroll.texas.model.UserType;
+import com.payroll.texas.security.AuthenticatedPrincipal;
+import com.payroll.texas.service.DataKeyService;
+import com.payroll.texas.service.DataReencryptionService;
+import com.payroll.texas.service.SecurityAuditService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/company/encryption-key")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:5174"})
+public class CompanyEncryptionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompanyEncryptionController.class);
+
+    @Autowired
+    private DataKeyService dataKeyService;
+
+    @Autowired
+    private DataReencryptionService dataReencryptionService;
+
+    @Autowired
+    private SecurityAuditService securityAuditService;
+
+    /**
+     * Rotates the company's data key and queues re-encryption of its employees' and its own sensitive values.
+     */
+    @PostMapping("/rotate")
+    public ResponseEntity<?> rotate(AuthenticatedPrincipal principal, HttpServletRequest request) {
+        if (!principal.hasCompany()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User not associated with any company"));
+        }
+        if (!UserType.BUSINESS_OWNER.name().equals(principal.getUserType())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Only the business owner can rotate encryption keys"));
+        }
+        try {
+            Long companyId = principal.getCompanyId();
+            long keyId = dataKeyService.rotate(companyId);
+            securityAuditService.logConfigurationChange(principal.getEmail(), principal.getUserId(), "DATA_KEY_ROTATION",
+                    null, "key " + keyId, request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("keyId", keyId);
+            response.put("reencryption", dataReencryptionService.start(companyId));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            logger.error("Error rotating data key for company {}: {}", principal.getCompanyId(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to rotate encryption key: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Progress of the company's latest re-encryption run.
+     */
+    @GetMapping("/reencryption")
+    public ResponseEntity<?> reencryptionStatus(AuthenticatedPrincipal principal) {
+        if (!principal.hasCompany()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User not associated with any company"));
+        }
+        Map<String, Object> status = dataReencryptionService.getStatus(principal.getCompanyId());
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No re-encryption has been run"));
+        }
+        return ResponseEntity.ok(status);
+    }
+}
@@ -1,30 +1,64 @@
 package com.payroll.texas.controller;
 
+import com.payroll.texas.config.AsyncRequestTimeoutInterceptor;
+import com.payroll.texas.dto.employee.EmployeeImportResult;
+import com.payroll.texas.dto.employee.EmployeeLookupRequest;
+import com.payroll.texas.dto.employee.EmployeePage;
+import com.payroll.texas.dto.employee.EmployeeQueryRequest;
+import com.payroll.texas.dto.employee.EmployeeSearchHit;
+import com.payroll.texas.dto.employee.EmployeeSummary;
 import com.payroll.texas.model.Employee;
+import com.payroll.texas.model.UserType;
+import com.payroll.texas.security.AuthenticatedPrincipal;
+import com.payroll.texas.service.EmployeeExportService;
+import com.payroll.texas.service.EmployeeImportService;
+import com.payroll.texas.service.EmployeeSearchService;
 import com.payroll.texas.service.EmployeeService;
-import com.payroll.texas.service.AuthService;
+import com.payroll.texas.service.SeatLimitExceededException;
+import com.payroll.texas.service.SecurityAuditService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/employees")
-@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:5174"})
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:5174"}, exposedHeaders = "X-Next-Cursor")
 public class EmployeeController {
     
     private static final Logger logger = LoggerFactory.getLogger(EmployeeController.class);
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     
     @Autowired
     private EmployeeService employeeService;
     
     @Autowired
-    private AuthService authService;
+    private EmployeeExportService employeeExportService;
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    @Autowired
+    private EmployeeSearchService employeeSearchService;
+
+    @Autowired
+    private SecurityAuditService securityAuditService;
+
+    @Value("${app.employees.export-timeout:600000}")
+    private long exportTimeoutMs;
 
     // Constructor to verify controller is being instantiated
     public EmployeeController() {
@@ -57,6 +91,8 @@ public class EmployeeController {
             );
             
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (SeatLimitExceededException e) {
+            return seatLimitExceeded(e);
         } catch (Exception e) {
             logger.error("Error adding employee: {}", e.getMessage());
             return new ResponseEntity<>(java.util.Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
@@ -64,66 +100,216 @@ public class EmployeeController {
     }
 
     // Get all employees
+    // Without limit/after the roster is returned as a plain list (summary projection only), capped at
+    // EmployeeService.MAX_UNPAGINATED_ROWS; a truncated list carries X-Next-Cursor for continuing with after.
+    // With limit and/or after the response is a keyset-paginated EmployeePage.
     @GetMapping("/getallemployees")
     public ResponseEntity<?> getAllEmployees(
-            @RequestHeader("Authorization") String authHeader,
-            @RequestParam(value = "status", required = false) String statusParam
+            AuthenticatedPrincipal principal,
+            @RequestParam(value = "status", required = false) String statusParam,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "sort", required = false) String sort
     ) {
         logger.info("Received request to get all employees for logged-in user's company");
         try {
-            // Extract user info from JWT token
-            String token = authHeader.substring(7); // Remove "Bearer "
-            java.util.Map<String, Object> validationResult = authService.validateTokenAndGetUser(token);
+            if (!principal.hasCompany()) {
+                return ResponseEntity.badRequest().body(java.util.Map.of("error", "User not associated with any company"));
+            }
+            Long companyId = principal.getCompanyId();
 
-            if (!(Boolean) validationResult.get("valid")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(java.util.Map.of("error", "Invalid or expired token"));
+            com.payroll.texas.model.EmployeeStatus status = statusParam != null
+                    ? com.payroll.texas.model.EmployeeStatus.valueOf(statusParam.toUpperCase())
+                    : null;
+
+            if (limit != null || after != null) {
+                EmployeePage page = employeeService.getEmployeePage(companyId, status, limit, after, sort);
+                logger.info("Successfully retrieved page of {} employees for company {} (hasMore={})",
+                        page.getItems().size(), companyId, page.isHasMore());
+                return new ResponseEntity<>(page, HttpStatus.OK);
             }
 
-            java.util.Map<String, Object> userInfo = (java.util.Map<String, Object>) validationResult.get("userInfo");
-            Long userId = ((Number) userInfo.get("id")).longValue();
+            EmployeePage employees = employeeService.getEmployeeSummaries(companyId, status);
+            logger.info("Successfully retrieved {} employees for company {}{}", employees.getItems().size(), companyId, statusParam != null ? (" and status " + statusParam) : "");
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (employees.isHasMore()) {
+                response.header(NEXT_CURSOR_HEADER, employees.getNextCursor());
+            }
+            return response.body(employees.getItems());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid employee listing request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error retrieving employees: {}", e.getMessage());
+            return new ResponseEntity<>(java.util.Map.of("error", e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            // Get company from authenticated user context
-            com.payroll.texas.model.Company company = employeeService.getCompanyFromUserContext(userId);
-            if (company == null) {
+    // Type-ahead search over name, email, employee ID, job title and department
+    // Served from an in-memory per-company index; every word in q must match (prefix or close spelling).
+    @GetMapping("/search")
+    public ResponseEntity<?> searchEmployees(
+            AuthenticatedPrincipal principal,
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        try {
+            if (!principal.hasCompany()) {
                 return ResponseEntity.badRequest().body(java.util.Map.of("error", "User not associated with any company"));
             }
 
-            java.util.List<Employee> employees;
-            if (statusParam != null) {
-                com.payroll.texas.model.EmployeeStatus status = com.payroll.texas.model.EmployeeStatus.valueOf(statusParam.toUpperCase());
-                employees = employeeService.getEmployeesByCompanyIdAndStatus(company.getId(), status);
-            } else {
-                employees = employeeService.getEmployeesByCompanyId(company.getId());
+            List<EmployeeSearchHit> hits = employeeSearchService.search(principal.getCompanyId(), query, limit);
+            logger.debug("Employee search for company {} returned {} hits", principal.getCompanyId(), hits.size());
+            return new ResponseEntity<>(hits, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid employee search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error searching employees: {}", e.getMessage());
+            return new ResponseEntity<>(java.util.Map.of("error", e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Filter by custom-field predicates (EQ, EXISTS, RANGE; dotted paths for nested fields), evaluated in SQL
+    // against the custom_fields GIN index. Keyset-paginated by id like GET /employees/getallemployees.
+    @PostMapping("/query")
+    public ResponseEntity<?> queryEmployees(AuthenticatedPrincipal principal, @RequestBody EmployeeQueryRequest request) {
+        try {
+            if (!principal.hasCompany()) {
+                return ResponseEntity.badRequest().body(java.util.Map.of("error", "User not associated with any company"));
             }
-            logger.info("Successfully retrieved {} employees for company {}{}", employees.size(), company.getId(), statusParam != null ? (" and status " + statusParam) : "");
-
-            // Create simple response DTOs to avoid circular references
-            java.util.List<java.util.Map<String, Object>> employeeDtos = employees.stream()
-                    .map(emp -> {
-                        java.util.Map<String, Object> dto = new java.util.HashMap<>();
-                        dto.put("id", emp.getId());
-                        dto.put("firstName", emp.getFirstName());
-                        dto.put("lastName", emp.getLastName());
-                        dto.put("email", emp.getEmail());
-                        dto.put("phone", emp.getPhone());
-                        dto.put("jobTitle", emp.getJobTitle());
-                        dto.put("status", emp.getStatus());
-                        dto.put("employeeType", emp.getEmployeeType());
-                        dto.put("hireDate", emp.getHireDate());
-                        // Add companyId for debugging
-                        dto.put("companyId", emp.getCompany() != null ? emp.getCompany().getId() : null);
-                        return dto;
-                    })
-                    .toList();
-
-            return new ResponseEntity<>(employeeDtos, HttpStatus.OK);
+
+            EmployeePage page = employeeService.queryByCustomFields(principal.getCompanyId(), request);
+            logger.debug("Employee custom field query for company {} returned {} rows (hasMore={})",
+                    principal.getCompanyId(), page.getItems().size(), page.isHasMore());
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid employee query request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            logger.error("Error retrieving employees: {}", e.getMessage());
+            logger.error("Error querying employees: {}", e.getMessage());
+            return new ResponseEntity<>(java.util.Map.of("error", e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Bulk import from a CSV upload (text/csv, header row of property or column names) or a JSON array
+    // Valid rows are saved in batches; rows that fail validation or constraints are reported individually.
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> importEmployees(
+            AuthenticatedPrincipal principal,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request
+    ) {
+        logger.info("Received request to bulk import employees ({})", contentType);
+        try {
+            if (!principal.hasCompany()) {
+                return ResponseEntity.badRequest().body(java.util.Map.of("error", "User not associated with any company"));
+            }
+            com.payroll.texas.model.Company company = employeeService.getCompanyReference(principal.getCompanyId());
+
+            EmployeeImportResult result = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)
+                    ? employeeImportService.importJson(company, request.getInputStream())
+                    : employeeImportService.importCsv(company, request.getInputStream());
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid employee import request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing employees: {}", e.getMessage(), e);
+            return new ResponseEntity<>(java.util.Map.of("error", e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Exact match on SSN or bank account number through the blind index; no decryption involved
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupEmployees(
+            AuthenticatedPrincipal principal,
+            @RequestBody EmployeeLookupRequest lookup,
+            HttpServletRequest request
+    ) {
+        try {
+            if (!principal.hasCompany()) {
+                return ResponseEntity.badRequest().body(java.util.Map.of("error", "User not associated with any company"));
+            }
+            boolean bySsn = lookup.getSsn() != null && !lookup.getSsn().isBlank();
+            // Matching a guessed value confirms it, so lookup is limited to the same roles as reveal
+            String userType = principal.getUserType();
+            if (!UserType.BUSINESS_OWNER.name().equals(userType) && !UserType.BUSINESS_ADMIN.name().equals(userType)) {
+                securityAuditService.logSensitiveDataAccess(principal.getEmail(), principal.getUserId(),
+                        bySsn ? "SSN" : "BANK_ACCOUNT", "LOOKUP_DENIED",
+                        request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(java.util.Map.of("error", "Access denied"));
+            }
+            List<EmployeeSummary> matches = employeeService.findBySensitiveValue(
+                    principal.getCompanyId(), lookup.getSsn(), lookup.getBankAccountNumber());
+            securityAuditService.logSensitiveDataAccess(principal.getEmail(), principal.getUserId(),
+                    bySsn ? "SSN" : "BANK_ACCOUNT", "LOOKUP (" + matches.size() + " matches)",
+                    request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+            return ResponseEntity.ok(matches);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error looking up employees: {}", e.getMessage(), e);
             return new ResponseEntity<>(java.util.Map.of("error", e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Export the full roster as NDJSON (default) or CSV
+    // Rows are streamed from a database cursor straight to the response, so the roster is never held in memory.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            AuthenticatedPrincipal principal,
+            @RequestParam(value = "format", required = false) String formatParam,
+            @RequestParam(value = "status", required = false) String statusParam,
+            HttpServletRequest request
+    ) {
+        logger.info("Received request to export employees (format={})", formatParam);
+        try {
+            if (!principal.hasCompany()) {
+                return errorResponse(HttpStatus.BAD_REQUEST, "User not associated with any company");
+            }
+
+            EmployeeExportService.Format format = EmployeeExportService.Format.fromParam(formatParam);
+            com.payroll.texas.model.EmployeeStatus status = statusParam != null
+                    ? com.payroll.texas.model.EmployeeStatus.valueOf(statusParam.toUpperCase())
+                    : null;
+
+            Long companyId = principal.getCompanyId();
+            Long userId = principal.getUserId();
+            String email = principal.getEmail();
+            String ipAddress = request.getRemoteAddr();
+            String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+            // Only this request outlives the default async timeout
+            AsyncRequestTimeoutInterceptor.setTimeout(request, exportTimeoutMs);
+            StreamingResponseBody body = out -> {
+                int exported = employeeExportService.exportEmployees(companyId, status, format, out);
+                securityAuditService.logDataExport(email, userId, "EMPLOYEES_" + format.name(), exported, ipAddress, userAgent);
+            };
+
+            boolean csv = format == EmployeeExportService.Format.CSV;
+            return ResponseEntity.ok()
+                    .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"employees-" + companyId + (csv ? ".csv" : ".ndjson") + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid employee export request: {}", e.getMessage());
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error exporting employees: {}", e.getMessage());
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    // Streaming endpoints cannot return a Map body, so errors are written as a small JSON document instead
+    private ResponseEntity<StreamingResponseBody> errorResponse(HttpStatus status, String message) {
+        java.util.Map<String, String> error = java.util.Map.of("error", message != null ? message : status.getReasonPhrase());
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> new com.fasterxml.jackson.databind.ObjectMapper().writeValue(out, error));
+    }
+
     // Get employee by ID
     @GetMapping("/getemployee/{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable Long id) {
@@ -143,14 +329,57 @@ public class EmployeeController {
         }
     }
 
+    // Privileged reveal of the full SSN. Every other view only carries the masked value, so this and
+    // /reveal/bank-account are the only endpoints that decrypt; each call is audited.
+    @PostMapping("/{id}/reveal/ssn")
+    public ResponseEntity<?> revealSsn(@PathVariable Long id, AuthenticatedPrincipal principal, HttpServletRequest request) {
+        return reveal(id, principal, request, "SSN",
+                () -> java.util.Map.of("ssn", java.util.Objects.requireNonNullElse(
+                        employeeService.revealSsn(principal.getCompanyId(), id), "")));
+    }
+
+    @PostMapping("/{id}/reveal/bank-account")
+    public ResponseEntity<?> revealBankAccount(@PathVariable Long id, AuthenticatedPrincipal principal, HttpServletRequest request) {
+        return reveal(id, principal, request, "BANK_ACCOUNT",
+                () -> employeeService.revealBankDetails(principal.getCompanyId(), id));
+    }
+
+    private ResponseEntity<?> reveal(Long id, AuthenticatedPrincipal principal, HttpServletRequest request,
+                                     String dataType, java.util.function.Supplier<java.util.Map<String, String>> decrypt) {
+        if (!principal.hasCompany()) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", "User not associated with any company"));
+        }
+        String userType = principal.getUserType();
+        if (!UserType.BUSINESS_OWNER.name().equals(userType) && !UserType.BUSINESS_ADMIN.name().equals(userType)) {
+            securityAuditService.logSensitiveDataAccess(principal.getEmail(), principal.getUserId(), dataType,
+                    "REVEAL_DENIED employee " + id, request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(java.util.Map.of("error", "Access denied"));
+        }
+        try {
+            java.util.Map<String, String> values = decrypt.get();
+            securityAuditService.logSensitiveDataAccess(principal.getEmail(), principal.getUserId(), dataType,
+                    "REVEAL employee " + id, request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(values);
+        } catch (java.util.NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(java.util.Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.error("Could not reveal {} for employee {}: {}", dataType, id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(java.util.Map.of("error", "Failed to decrypt " + dataType));
+        }
+    }
+
     // Update employee
     @PutMapping("/updateemployee/{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @RequestBody Employee employee) {
+    public ResponseEntity<?> updateEmployee(@PathVariable Long id, @RequestBody Employee employee) {
         logger.info("Received request to update employee with ID: {}", id);
         try {
             Employee updatedEmployee = employeeService.updateEmployee(id, employee);
             logger.info("Successfully updated employee with ID: {}", id);
             return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
+        } catch (SeatLimitExceededException e) {
+            return seatLimitExceeded(e);
         } catch (Exception e) {
             logger.error("Error updating employee with ID {}: {}", id, e.getMessage());
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -173,26 +402,14 @@ public class EmployeeController {
 
     // Add new employee with company
     @PostMapping("/addemployee-with-company")
-    public ResponseEntity<?> addEmployeeWithCompany(@RequestBody java.util.Map<String, Object> payload, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> addEmployeeWithCompany(@RequestBody java.util.Map<String, Object> payload, AuthenticatedPrincipal principal) {
         logger.info("Received request to add employee with company. Payload keys: {}", payload.keySet());
         try {
-            // Extract user info from JWT token
-            String token = authHeader.substring(7); // Remove "Bearer "
-            java.util.Map<String, Object> validationResult = authService.validateTokenAndGetUser(token);
-            
-            if (!(Boolean) validationResult.get("valid")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(java.util.Map.of("error", "Invalid or expired token"));
-            }
-            
-            java.util.Map<String, Object> userInfo = (java.util.Map<String, Object>) validationResult.get("userInfo");
-            Long userId = (Long) userInfo.get("id");
-            
-            // Get company from authenticated user context
-            com.payroll.texas.model.Company company = employeeService.getCompanyFromUserContext(userId);
-            if (company == null) {
+            // Company comes from the authenticated principal
+            if (!principal.hasCompany()) {
                 return ResponseEntity.badRequest().body(java.util.Map.of("error", "User not associated with any company"));
             }
+            com.payroll.texas.model.Company company = employeeService.getCompanyReference(principal.getCompanyId());
             
             // Extract employee data from payload
             Object employeeObj = payload.get("employee");
@@ -220,9 +437,17 @@ public class EmployeeController {
             response.put("status", savedEmployee.getStatus());
             response.put("message", "Employee created successfully");
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (SeatLimitExceededException e) {
+            return seatLimitExceeded(e);
         } catch (Exception e) {
             logger.error("Error adding employee with company: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(java.util.Map.of("error", e.getMessage()));
         }
     }
+
+    private ResponseEntity<?> seatLimitExceeded(SeatLimitExceededException e) {
+        logger.info("Employee limit reached: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(java.util.Map.of("error", e.getMessage(), "maxEmployees", e.getMaxEmployees()));
+    }
 } 
\ No newline at end of file
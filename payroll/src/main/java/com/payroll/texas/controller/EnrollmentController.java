@@ -2,17 +2,18 @@ package com.payroll.texas.controller;
 
 import com.payroll.texas.dto.enrollment.EnrollmentRequest;
 import com.payroll.texas.dto.enrollment.EnrollmentResponse;
-import com.payroll.texas.model.EnrollmentData;
 import com.payroll.texas.model.EnrollmentStep;
+import com.payroll.texas.model.UserType;
+import com.payroll.texas.security.AuthenticatedPrincipal;
+import com.payroll.texas.service.EnrollmentFunnelService;
 import com.payroll.texas.service.EnrollmentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,6 +24,9 @@ public class EnrollmentController {
     @Autowired
     private EnrollmentService enrollmentService;
 
+    @Autowired
+    private EnrollmentFunnelService enrollmentFunnelService;
+
     @PostMapping("/begin")
     public ResponseEntity<EnrollmentResponse> beginEnrollment(@Valid @RequestBody EnrollmentRequest enrollmentRequest) {
         try {
@@ -144,27 +148,20 @@ public class EnrollmentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/funnel")
+    public ResponseEntity<?> getFunnel(AuthenticatedPrincipal principal) {
+        String userType = principal.getUserType();
+        if (!UserType.BUSINESS_OWNER.name().equals(userType) && !UserType.BUSINESS_ADMIN.name().equals(userType)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Access denied"));
+        }
+        return ResponseEntity.ok(enrollmentFunnelService.getFunnel());
+    }
+
     @GetMapping("/diagnostic")
     public ResponseEntity<Map<String, Object>> diagnostic() {
         Map<String, Object> response = new HashMap<>();
         try {
-            // Check if there are any existing enrollments with invalid data
-            List<EnrollmentData> allEnrollments = enrollmentService.getAllEnrollments();
-            response.put("totalEnrollments", allEnrollments.size());
-            
-            // Check for any enrollments with null or invalid enum values
-            List<Map<String, Object>> problematicEnrollments = new ArrayList<>();
-            for (EnrollmentData enrollment : allEnrollments) {
-                if (enrollment.getEnrollmentStep() == null) {
-                    Map<String, Object> problem = new HashMap<>();
-                    problem.put("id", enrollment.getId());
-                    problem.put("email", enrollment.getContactEmail());
-                    problem.put("issue", "null enrollment_step");
-                    problematicEnrollments.add(problem);
-                }
-            }
-            
-            response.put("problematicEnrollments", problematicEnrollments);
+            response.putAll(enrollmentFunnelService.getDiagnostic());
             response.put("message", "Diagnostic completed");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -173,4 +170,4 @@ public class EnrollmentController {
             return ResponseEntity.badRequest().body(response);
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.payroll.texas.controller;
 
+import com.payroll.texas.service.PasswordHashingExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -10,6 +12,9 @@ import java.util.Map;
 @RestController
 public class HealthController {
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     @GetMapping("/health")
     public Map<String, Object> healthCheck() {
         System.out.println("HealthController.healthCheck() called!");
@@ -27,4 +32,10 @@ public class HealthController {
         System.out.println("HealthController.ping() called!");
         return "pong";
     }
-} 
\ No newline at end of file
+
+    // Queue depth and wait times of the BCrypt pool used by login and signup
+    @GetMapping("/health/password-hashing")
+    public Map<String, Object> passwordHashing() {
+        return passwordHashingExecutor.getStats();
+    }
+}
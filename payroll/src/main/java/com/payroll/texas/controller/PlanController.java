@@ -7,12 +7,17 @@ import com.payroll.texas.model.Plan;
 import com.payroll.texas.repository.CompanyRepository;
 import com.payroll.texas.repository.CompanySubscriptionRepository;
 import com.payroll.texas.repository.PlanRepository;
+import com.payroll.texas.service.PlanCatalog;
 import com.payroll.texas.service.PlanService;
 import com.payroll.texas.service.SubscriptionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +43,9 @@ public class PlanController {
     @Autowired
     private PlanRepository planRepository;
     
+    @Value("${app.plans.cache-max-age:300}")
+    private long cacheMaxAgeSeconds;
+    
     @GetMapping("/test-subscription")
     public ResponseEntity<Map<String, Object>> testSubscription() {
         Map<String, Object> response = new HashMap<>();
@@ -56,7 +64,9 @@ public class PlanController {
     public ResponseEntity<Map<String, Object>> debugPlans() {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<PlanResponse> allPlans = planService.getAllActivePlans();
+            PlanCatalog catalog = planService.getCatalog();
+            List<PlanResponse> allPlans = catalog.getActivePlans();
+            response.put("catalogVersion", catalog.getVersion());
             response.put("availablePlans", allPlans);
             response.put("planCount", allPlans.size());
             response.put("planNames", allPlans.stream().map(PlanResponse::getName).collect(java.util.stream.Collectors.toList()));
@@ -80,8 +90,7 @@ public class PlanController {
     @GetMapping
     public ResponseEntity<?> getAllPlans() {
         try {
-            List<PlanResponse> plans = planService.getAllActivePlans();
-            return ResponseEntity.ok(plans);
+            return cached(planService.getAllActivePlans());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Internal server error");
@@ -92,8 +101,7 @@ public class PlanController {
     @GetMapping("/featured")
     public ResponseEntity<?> getFeaturedPlans() {
         try {
-            List<PlanResponse> plans = planService.getFeaturedPlans();
-            return ResponseEntity.ok(plans);
+            return cached(planService.getFeaturedPlans());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Internal server error");
@@ -104,8 +112,7 @@ public class PlanController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getPlanById(@PathVariable Long id) {
         try {
-            PlanResponse plan = planService.getPlanById(id);
-            return ResponseEntity.ok(plan);
+            return cached(planService.getPlanById(id));
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -120,8 +127,7 @@ public class PlanController {
     @GetMapping("/name/{name}")
     public ResponseEntity<?> getPlanByName(@PathVariable String name) {
         try {
-            PlanResponse plan = planService.getPlanByName(name);
-            return ResponseEntity.ok(plan);
+            return cached(planService.getPlanByName(name));
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -190,7 +196,7 @@ public class PlanController {
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice) {
         try {
-            List<PlanResponse> plans;
+            PlanCatalog.View plans;
             
             if (maxEmployees != null) {
                 plans = planService.getPlansByMaxEmployees(maxEmployees);
@@ -200,7 +206,7 @@ public class PlanController {
                 plans = planService.getAllActivePlans();
             }
             
-            return ResponseEntity.ok(plans);
+            return cached(plans);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Internal server error");
@@ -211,20 +217,7 @@ public class PlanController {
     @GetMapping("/compare")
     public ResponseEntity<?> comparePlans(@RequestParam List<String> planNames) {
         try {
-            Map<String, Object> comparison = new HashMap<>();
-            
-            for (String planName : planNames) {
-                try {
-                    PlanResponse plan = planService.getPlanByName(planName);
-                    comparison.put(planName, plan);
-                } catch (RuntimeException e) {
-                    Map<String, String> errorMap = new HashMap<>();
-                    errorMap.put("error", "Plan not found");
-                    comparison.put(planName, errorMap);
-                }
-            }
-            
-            return ResponseEntity.ok(comparison);
+            return cached(planService.comparePlans(planNames));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Internal server error");
@@ -237,7 +230,7 @@ public class PlanController {
             @RequestParam(required = false) Integer employeeCount,
             @RequestParam(required = false) Double budget) {
         try {
-            List<PlanResponse> recommendations;
+            PlanCatalog.View recommendations;
             
             if (employeeCount != null) {
                 recommendations = planService.getPlansByMaxEmployees(employeeCount);
@@ -247,7 +240,7 @@ public class PlanController {
                 recommendations = planService.getFeaturedPlans();
             }
             
-            return ResponseEntity.ok(recommendations);
+            return cached(recommendations);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Internal server error");
@@ -255,6 +248,18 @@ public class PlanController {
         }
     }
 
+    /**
+     * Writes a catalog response as its precomputed JSON. Spring answers a GET whose If-None-Match matches the
+     * ETag with 304 Not Modified and no body.
+     */
+    private ResponseEntity<?> cached(PlanCatalog.View view) {
+        return ResponseEntity.ok()
+                .eTag(view.getEtag())
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds)).cachePublic())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(view.getJson());
+    }
+
     @PostMapping("/initialize")
     public ResponseEntity<Map<String, Object>> initializePlans() {
         Map<String, Object> response = new HashMap<>();
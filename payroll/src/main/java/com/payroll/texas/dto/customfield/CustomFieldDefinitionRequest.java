@@ -0,0 +1,46 @@
+package com.payroll.texas.dto.customfield;
+
+import com.payroll.texas.model.CustomFieldType;
+
+/**
+ * Body of PUT /company/custom-fields/{name}. Only INTEGER and DECIMAL fields can be indexed.
+ */
+public class CustomFieldDefinitionRequest {
+
+    private CustomFieldType type;
+    private boolean required;
+    private boolean indexed;
+
+    public CustomFieldDefinitionRequest() {}
+
+    public CustomFieldDefinitionRequest(CustomFieldType type, boolean required, boolean indexed) {
+        this.type = type;
+        this.required = required;
+        this.indexed = indexed;
+    }
+
+    // Getters and Setters
+    public CustomFieldType getType() {
+        return type;
+    }
+
+    public void setType(CustomFieldType type) {
+        this.type = type;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    public void setRequired(boolean required) {
+        this.required = required;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+    }
+}
@@ -0,0 +1,88 @@
+package com.payroll.texas.dto.customfield;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+
+/**
+ * One predicate on a custom field. {@code path} is a field name or a dotted path into nested objects.
+ *
+ * EQ matches by JSON containment, so a scalar value matches the field exactly and an array value
+ * matches an array field holding (at least) those elements. EXISTS matches when the path is present.
+ * RANGE matches numeric fields within [min, max]; either bound may be omitted.
+ */
+public class CustomFieldFilter {
+
+    public enum Operator {
+        EQ, EXISTS, RANGE
+    }
+
+    private String path;
+    private Operator op;
+    private JsonNode value;
+    private BigDecimal min;
+    private BigDecimal max;
+
+    public CustomFieldFilter() {}
+
+    public CustomFieldFilter(String path, Operator op, JsonNode value, BigDecimal min, BigDecimal max) {
+        this.path = path;
+        this.op = op;
+        this.value = value;
+        this.min = min;
+        this.max = max;
+    }
+
+    public static CustomFieldFilter eq(String path, JsonNode value) {
+        return new CustomFieldFilter(path, Operator.EQ, value, null, null);
+    }
+
+    public static CustomFieldFilter exists(String path) {
+        return new CustomFieldFilter(path, Operator.EXISTS, null, null, null);
+    }
+
+    public static CustomFieldFilter range(String path, BigDecimal min, BigDecimal max) {
+        return new CustomFieldFilter(path, Operator.RANGE, null, min, max);
+    }
+
+    // Getters and Setters
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Operator getOp() {
+        return op;
+    }
+
+    public void setOp(Operator op) {
+        this.op = op;
+    }
+
+    public JsonNode getValue() {
+        return value;
+    }
+
+    public void setValue(JsonNode value) {
+        this.value = value;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+}
@@ -0,0 +1,36 @@
+package com.payroll.texas.dto.employee;
+
+/**
+ * A rejected row from a bulk employee import.
+ * Row numbers are 1-based data rows (the CSV header is not counted).
+ */
+public class EmployeeImportError {
+
+    private long row;
+    private String message;
+
+    // Constructors
+    public EmployeeImportError() {}
+
+    public EmployeeImportError(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,29 @@
+package com.payroll.texas.dto.employee;
+
+/**
+ * Body of POST /employees/lookup. Sensitive values travel in the body so they never appear in URLs or access logs.
+ */
+public class EmployeeLookupRequest {
+
+    private String ssn;
+    private String bankAccountNumber;
+
+    public EmployeeLookupRequest() {}
+
+    // Getters and Setters
+    public String getSsn() {
+        return ssn;
+    }
+
+    public void setSsn(String ssn) {
+        this.ssn = ssn;
+    }
+
+    public String getBankAccountNumber() {
+        return bankAccountNumber;
+    }
+
+    public void setBankAccountNumber(String bankAccountNumber) {
+        this.bankAccountNumber = bankAccountNumber;
+    }
+}
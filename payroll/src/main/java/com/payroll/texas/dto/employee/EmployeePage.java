@@ -0,0 +1,68 @@
+package com.payroll.texas.dto.employee;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated employee listing.
+ * Clients pass {@code nextCursor} back as the {@code after} parameter to fetch the following page.
+ */
+public class EmployeePage {
+
+    private List<EmployeeSummary> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+    private String sort;
+
+    // Constructors
+    public EmployeePage() {}
+
+    public EmployeePage(List<EmployeeSummary> items, String nextCursor, boolean hasMore, int limit, String sort) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.limit = limit;
+        this.sort = sort;
+    }
+
+    // Getters and Setters
+    public List<EmployeeSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<EmployeeSummary> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+}
@@ -0,0 +1,44 @@
+package com.payroll.texas.dto.employee;
+
+import com.payroll.texas.dto.customfield.CustomFieldFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of POST /employees/query. All filters must match. Results are keyset-paginated by id;
+ * pass {@code nextCursor} of the previous page as {@code after}.
+ */
+public class EmployeeQueryRequest {
+
+    private List<CustomFieldFilter> filters = new ArrayList<>();
+    private Integer limit;
+    private String after;
+
+    public EmployeeQueryRequest() {}
+
+    // Getters and Setters
+    public List<CustomFieldFilter> getFilters() {
+        return filters;
+    }
+
+    public void setFilters(List<CustomFieldFilter> filters) {
+        this.filters = filters;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+}
@@ -0,0 +1,56 @@
+package com.payroll.texas.dto.employee;
+
+/**
+ * Searchable employee fields, held by the in-memory company search index and returned by /employees/search.
+ * Instances are immutable once indexed; updates replace the whole hit.
+ */
+public class EmployeeSearchHit {
+
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String employeeId;
+    private final String jobTitle;
+    private final String department;
+
+    public EmployeeSearchHit(Long id, String firstName, String lastName, String email,
+                             String employeeId, String jobTitle, String department) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.employeeId = employeeId;
+        this.jobTitle = jobTitle;
+        this.department = department;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+}
@@ -0,0 +1,136 @@
+package com.payroll.texas.dto.employee;
+
+import com.payroll.texas.model.Employee;
+import com.payroll.texas.model.EmployeeStatus;
+import com.payroll.texas.model.EmployeeType;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight employee view used by list endpoints.
+ * Populated directly by JPQL constructor expressions so that list queries never
+ * hydrate full Employee entities (custom fields, encrypted columns, company proxy).
+ * The SSN is only ever present in masked form, built from the stored last four digits.
+ */
+public class EmployeeSummary {
+
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private String jobTitle;
+    private EmployeeStatus status;
+    private EmployeeType employeeType;
+    private LocalDate hireDate;
+    private Long companyId;
+    private String ssnMasked;
+
+    // Constructors
+    public EmployeeSummary() {}
+
+    public EmployeeSummary(Long id, String firstName, String lastName, String email, String phone,
+                           String jobTitle, EmployeeStatus status, EmployeeType employeeType,
+                           LocalDate hireDate, Long companyId, String ssnLast4) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+        this.jobTitle = jobTitle;
+        this.status = status;
+        this.employeeType = employeeType;
+        this.hireDate = hireDate;
+        this.companyId = companyId;
+        this.ssnMasked = Employee.maskSsn(ssnLast4);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    public void setJobTitle(String jobTitle) {
+        this.jobTitle = jobTitle;
+    }
+
+    public EmployeeStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EmployeeStatus status) {
+        this.status = status;
+    }
+
+    public EmployeeType getEmployeeType() {
+        return employeeType;
+    }
+
+    public void setEmployeeType(EmployeeType employeeType) {
+        this.employeeType = employeeType;
+    }
+
+    public LocalDate getHireDate() {
+        return hireDate;
+    }
+
+    public void setHireDate(LocalDate hireDate) {
+        this.hireDate = hireDate;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getSsnMasked() {
+        return ssnMasked;
+    }
+
+    public void setSsnMasked(String ssnMasked) {
+        this.ssnMasked = ssnMasked;
+    }
+}
@@ -0,0 +1,154 @@
+package com.payroll.texas.dto.enrollment;
+
+import com.payroll.texas.model.EnrollmentStep;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EnrollmentFunnel {
+
+    private List<Step> steps = new ArrayList<>();
+    private LocalDateTime generatedAt;
+
+    // Constructors
+    public EnrollmentFunnel() {}
+
+    public EnrollmentFunnel(List<Step> steps) {
+        this.steps = steps;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    // One funnel step: how many enrollments are at it now, how many ever reached it, and how long they stayed
+    public static class Step {
+        private EnrollmentStep step;
+        private long currentCount;
+        private long enteredCount;
+        // Share of the previous step's entries that reached this step; null for the first step
+        private Double conversionRate;
+        private long exitCount;
+        private Double averageSecondsInStep;
+        private List<DurationBucket> timeInStep = new ArrayList<>();
+
+        public Step() {}
+
+        public Step(EnrollmentStep step, long currentCount, long enteredCount) {
+            this.step = step;
+            this.currentCount = currentCount;
+            this.enteredCount = enteredCount;
+        }
+
+        public EnrollmentStep getStep() {
+            return step;
+        }
+
+        public void setStep(EnrollmentStep step) {
+            this.step = step;
+        }
+
+        public long getCurrentCount() {
+            return currentCount;
+        }
+
+        public void setCurrentCount(long currentCount) {
+            this.currentCount = currentCount;
+        }
+
+        public long getEnteredCount() {
+            return enteredCount;
+        }
+
+        public void setEnteredCount(long enteredCount) {
+            this.enteredCount = enteredCount;
+        }
+
+        public Double getConversionRate() {
+            return conversionRate;
+        }
+
+        public void setConversionRate(Double conversionRate) {
+            this.conversionRate = conversionRate;
+        }
+
+        public long getExitCount() {
+            return exitCount;
+        }
+
+        public void setExitCount(long exitCount) {
+            this.exitCount = exitCount;
+        }
+
+        public Double getAverageSecondsInStep() {
+            return averageSecondsInStep;
+        }
+
+        public void setAverageSecondsInStep(Double averageSecondsInStep) {
+            this.averageSecondsInStep = averageSecondsInStep;
+        }
+
+        public List<DurationBucket> getTimeInStep() {
+            return timeInStep;
+        }
+
+        public void setTimeInStep(List<DurationBucket> timeInStep) {
+            this.timeInStep = timeInStep;
+        }
+    }
+
+    // Enrollments that left a step after staying at least lowerBoundSeconds and less than upperBoundSeconds
+    public static class DurationBucket {
+        private long lowerBoundSeconds;
+        // Null for the open-ended last bucket
+        private Long upperBoundSeconds;
+        private long count;
+
+        public DurationBucket() {}
+
+        public DurationBucket(long lowerBoundSeconds, Long upperBoundSeconds, long count) {
+            this.lowerBoundSeconds = lowerBoundSeconds;
+            this.upperBoundSeconds = upperBoundSeconds;
+            this.count = count;
+        }
+
+        public long getLowerBoundSeconds() {
+            return lowerBoundSeconds;
+        }
+
+        public void setLowerBoundSeconds(long lowerBoundSeconds) {
+            this.lowerBoundSeconds = lowerBoundSeconds;
+        }
+
+        public Long getUpperBoundSeconds() {
+            return upperBoundSeconds;
+        }
+
+        public void setUpperBoundSeconds(Long upperBoundSeconds) {
+            this.upperBoundSeconds = upperBoundSeconds;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.payroll.texas.dto.enrollment;
 
+import com.payroll.texas.model.CustomFields;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
@@ -31,7 +32,7 @@ public class EnrollmentRequest {
     private Boolean planSelectedBeforeLogin = false;
     
     // Custom fields for additional data
-    private String customFields;
+    private CustomFields customFields;
     
     // Constructors
     public EnrollmentRequest() {}
@@ -140,11 +141,11 @@ public class EnrollmentRequest {
         this.planSelectedBeforeLogin = planSelectedBeforeLogin;
     }
     
-    public String getCustomFields() {
+    public CustomFields getCustomFields() {
         return customFields;
     }
     
-    public void setCustomFields(String customFields) {
+    public void setCustomFields(CustomFields customFields) {
         this.customFields = customFields;
     }
     
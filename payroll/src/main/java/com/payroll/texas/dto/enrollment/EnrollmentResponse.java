@@ -1,5 +1,6 @@
 package com.payroll.texas.dto.enrollment;
 
+import com.payroll.texas.model.CustomFields;
 import com.payroll.texas.model.EnrollmentStep;
 
 import java.time.LocalDateTime;
@@ -72,7 +73,7 @@ public class EnrollmentResponse {
         private String contactPhone;
         private String selectedPlan;
         private Boolean planSelectedBeforeLogin;
-        private String customFields;
+        private CustomFields customFields;
         
         // Constructors
         public EnrollmentData() {}
@@ -133,11 +134,11 @@ public class EnrollmentResponse {
             this.planSelectedBeforeLogin = planSelectedBeforeLogin;
         }
         
-        public String getCustomFields() {
+        public CustomFields getCustomFields() {
             return customFields;
         }
         
-        public void setCustomFields(String customFields) {
+        public void setCustomFields(CustomFields customFields) {
             this.customFields = customFields;
         }
     }
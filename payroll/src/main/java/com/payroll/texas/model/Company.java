@@ -1,9 +1,9 @@
 package com.payroll.texas.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.payroll.texas.security.AccountStatusListener;
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,6 +11,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "companies")
+@EntityListeners(AccountStatusListener.class)
 public class Company {
     
     @Id
@@ -55,6 +56,10 @@ public class Company {
     
     private LocalDateTime trialEndsAt;
     
+    // Maintained by HeadcountService with conditional SQL updates; never written through the entity
+    @Column(name = "active_employee_count", insertable = false, updatable = false)
+    private Integer activeEmployeeCount = 0;
+    
     @Column(columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime createdAt;
     
@@ -63,10 +68,15 @@ public class Company {
     
     private LocalDateTime deletedAt;
     
+    // Custom field keys set during signup and plan selection
+    public static final CustomFieldPath SELECTED_PLAN = CustomFieldPath.of("selected_plan");
+    public static final CustomFieldPath PLAN_SELECTED_AT = CustomFieldPath.of("plan_selected_at");
+    public static final CustomFieldPath PLAN_SELECTED_BEFORE_LOGIN = CustomFieldPath.of("plan_selected_before_login");
+    
     // Dynamic custom fields (JSONB)
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Type(CustomFieldsType.class)
     @Column(columnDefinition = "jsonb DEFAULT '{}'")
-    private String customFields = "{}";
+    private CustomFields customFields = new CustomFields();
     
     // Relationships
     @OneToMany(mappedBy = "company", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -219,6 +229,10 @@ public class Company {
         this.trialEndsAt = trialEndsAt;
     }
     
+    public Integer getActiveEmployeeCount() {
+        return activeEmployeeCount;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -243,11 +257,11 @@ public class Company {
         this.deletedAt = deletedAt;
     }
     
-    public String getCustomFields() {
+    public CustomFields getCustomFields() {
         return customFields;
     }
     
-    public void setCustomFields(String customFields) {
+    public void setCustomFields(CustomFields customFields) {
         this.customFields = customFields;
     }
     
@@ -0,0 +1,101 @@
+package com.payroll.texas.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "company_data_keys")
+public class CompanyDataKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "wrapped_key", nullable = false, columnDefinition = "TEXT")
+    private String wrappedKey;
+
+    @Column(name = "master_key_version", nullable = false)
+    private Integer masterKeyVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private DataKeyStatus status = DataKeyStatus.ACTIVE;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "retired_at")
+    private LocalDateTime retiredAt;
+
+    // Constructors
+    public CompanyDataKey() {}
+
+    public CompanyDataKey(Long companyId, String wrappedKey, Integer masterKeyVersion) {
+        this.companyId = companyId;
+        this.wrappedKey = wrappedKey;
+        this.masterKeyVersion = masterKeyVersion;
+        this.status = DataKeyStatus.ACTIVE;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getWrappedKey() {
+        return wrappedKey;
+    }
+
+    public void setWrappedKey(String wrappedKey) {
+        this.wrappedKey = wrappedKey;
+    }
+
+    public Integer getMasterKeyVersion() {
+        return masterKeyVersion;
+    }
+
+    public void setMasterKeyVersion(Integer masterKeyVersion) {
+        this.masterKeyVersion = masterKeyVersion;
+    }
+
+    public DataKeyStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DataKeyStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getRetiredAt() {
+        return retiredAt;
+    }
+
+    public void setRetiredAt(LocalDateTime retiredAt) {
+        this.retiredAt = retiredAt;
+    }
+}
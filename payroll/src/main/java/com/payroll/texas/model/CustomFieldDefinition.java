@@ -0,0 +1,137 @@
+package com.payroll.texas.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "custom_field_definitions")
+public class CustomFieldDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "name", nullable = false, length = 40)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "field_type", nullable = false, length = 20)
+    private CustomFieldType fieldType;
+
+    @Column(name = "required", nullable = false)
+    private boolean required;
+
+    @Column(name = "indexed", nullable = false)
+    private boolean indexed;
+
+    @Column(name = "index_name", length = 63)
+    private String indexName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "index_status", nullable = false, length = 20)
+    private CustomFieldIndexStatus indexStatus = CustomFieldIndexStatus.NONE;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public CustomFieldDefinition() {}
+
+    public CustomFieldDefinition(Long companyId, String name, CustomFieldType fieldType, boolean required, boolean indexed) {
+        this.companyId = companyId;
+        this.name = name;
+        this.fieldType = fieldType;
+        this.required = required;
+        this.indexed = indexed;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public CustomFieldType getFieldType() {
+        return fieldType;
+    }
+
+    public void setFieldType(CustomFieldType fieldType) {
+        this.fieldType = fieldType;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    public void setRequired(boolean required) {
+        this.required = required;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public CustomFieldIndexStatus getIndexStatus() {
+        return indexStatus;
+    }
+
+    public void setIndexStatus(CustomFieldIndexStatus indexStatus) {
+        this.indexStatus = indexStatus;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.payroll.texas.model;
+
+public enum CustomFieldIndexStatus {
+    NONE,
+    PENDING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,110 @@
+package com.payroll.texas.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.List;
+
+/**
+ * A dotted custom field path (e.g. "preferences.notifications.email"), split once when it is created.
+ * Callers keep paths in constants so reading or writing a field is a walk over the tree, not a
+ * string split per call.
+ */
+public final class CustomFieldPath {
+
+    private final String path;
+    private final String[] segments;
+
+    private CustomFieldPath(String path, String[] segments) {
+        this.path = path;
+        this.segments = segments;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the path is empty or has an empty segment
+     */
+    public static CustomFieldPath of(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Custom field path is required");
+        }
+        String[] segments = path.split("\\.", -1);
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Invalid custom field path: " + path);
+            }
+        }
+        return new CustomFieldPath(path, segments);
+    }
+
+    /**
+     * @return the path's keys, outermost first
+     */
+    public List<String> getSegments() {
+        return List.of(segments);
+    }
+
+    /**
+     * @return the node at this path, or null if any segment is missing
+     */
+    JsonNode find(ObjectNode root) {
+        JsonNode current = root;
+        for (String segment : segments) {
+            if (!current.isObject()) {
+                return null;
+            }
+            current = current.get(segment);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return the object holding the last segment, creating (or replacing non-object) intermediate nodes
+     */
+    ObjectNode parentForWrite(ObjectNode root) {
+        ObjectNode current = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            JsonNode child = current.get(segments[i]);
+            if (child == null || !child.isObject()) {
+                child = current.putObject(segments[i]);
+            }
+            current = (ObjectNode) child;
+        }
+        return current;
+    }
+
+    /**
+     * @return the object holding the last segment, or null if it does not exist
+     */
+    ObjectNode parent(ObjectNode root) {
+        JsonNode current = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            current = current.get(segments[i]);
+            if (current == null || !current.isObject()) {
+                return null;
+            }
+        }
+        return (ObjectNode) current;
+    }
+
+    String leaf() {
+        return segments[segments.length - 1];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof CustomFieldPath other && path.equals(other.path));
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,16 @@
+package com.payroll.texas.model;
+
+public enum CustomFieldType {
+    STRING,
+    INTEGER,
+    DECIMAL,
+    BOOLEAN,
+    DATE;
+
+    /**
+     * @return true if the field's values can back a numeric range index
+     */
+    public boolean isNumeric() {
+        return this == INTEGER || this == DECIMAL;
+    }
+}
@@ -0,0 +1,156 @@
+package com.payroll.texas.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Dynamic custom fields of an entity (the custom_fields JSONB column), held as a parsed JSON object.
+ *
+ * The document is parsed once when the row is loaded and serialized once when it is flushed; reads and
+ * writes in between work directly on the tree. {@link CustomFieldsType} keeps a snapshot of the loaded
+ * tree, so Hibernate only rewrites the column when the content actually changed.
+ *
+ * In JSON the fields are a plain object. The string-encoded form older clients send ("{\"a\":1}") is
+ * still accepted.
+ */
+public final class CustomFields {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectNode root;
+
+    public CustomFields() {
+        this(objectMapper.createObjectNode());
+    }
+
+    private CustomFields(ObjectNode root) {
+        this.root = root;
+    }
+
+    /**
+     * @param json JSON object text; null or blank gives empty fields
+     * @throws IllegalArgumentException if the text is not a JSON object
+     */
+    public static CustomFields parse(String json) {
+        if (json == null || json.isBlank()) {
+            return new CustomFields();
+        }
+        try {
+            return of(objectMapper.readTree(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Custom fields are not valid JSON", e);
+        }
+    }
+
+    /**
+     * @param node a JSON object, or a string holding one
+     * @throws IllegalArgumentException for any other kind of node
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static CustomFields of(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return new CustomFields();
+        }
+        if (node.isTextual()) {
+            return parse(node.asText());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Custom fields must be a JSON object");
+        }
+        return new CustomFields((ObjectNode) node);
+    }
+
+    public Optional<JsonNode> get(CustomFieldPath path) {
+        return Optional.ofNullable(path.find(root));
+    }
+
+    public Optional<String> getString(CustomFieldPath path) {
+        return get(path).filter(JsonNode::isTextual).map(JsonNode::asText);
+    }
+
+    public Optional<Integer> getInteger(CustomFieldPath path) {
+        return get(path).filter(JsonNode::isNumber).map(JsonNode::asInt);
+    }
+
+    public Optional<Boolean> getBoolean(CustomFieldPath path) {
+        return get(path).filter(JsonNode::isBoolean).map(JsonNode::asBoolean);
+    }
+
+    public boolean has(CustomFieldPath path) {
+        return path.find(root) != null;
+    }
+
+    /**
+     * Sets a field, creating intermediate objects for nested paths.
+     *
+     * @return this, so several fields can be set in a row
+     */
+    public CustomFields set(CustomFieldPath path, Object value) {
+        path.parentForWrite(root).set(path.leaf(), objectMapper.valueToTree(value));
+        return this;
+    }
+
+    /**
+     * @return this, so several fields can be changed in a row
+     */
+    public CustomFields remove(CustomFieldPath path) {
+        ObjectNode parent = path.parent(root);
+        if (parent != null) {
+            parent.remove(path.leaf());
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> toMap() {
+        return objectMapper.convertValue(root, Map.class);
+    }
+
+    /**
+     * @return an independent copy; changes to either do not affect the other
+     */
+    public CustomFields copy() {
+        return new CustomFields(root.deepCopy());
+    }
+
+    /**
+     * The underlying tree, used for serialization. Callers should change fields through {@link #set}.
+     */
+    @JsonValue
+    public ObjectNode toJsonNode() {
+        return root;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof CustomFields other && root.equals(other.root));
+    }
+
+    @Override
+    public int hashCode() {
+        return root.hashCode();
+    }
+
+    /**
+     * @return the fields as JSON object text
+     */
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+}
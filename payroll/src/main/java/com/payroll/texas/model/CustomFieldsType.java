@@ -0,0 +1,84 @@
+package com.payroll.texas.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Maps {@link CustomFields} to a JSONB column.
+ *
+ * The column is parsed once on load and written as text on flush. Dirty checking compares the tree with
+ * the deep copy taken at load time, so an entity whose fields were not changed does not rewrite the
+ * document. A NULL column loads as empty fields.
+ */
+public class CustomFieldsType implements UserType<CustomFields> {
+
+    @Override
+    public int getSqlType() {
+        return SqlTypes.JSON;
+    }
+
+    @Override
+    public Class<CustomFields> returnedClass() {
+        return CustomFields.class;
+    }
+
+    @Override
+    public boolean equals(CustomFields x, CustomFields y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(CustomFields x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public CustomFields nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner)
+            throws SQLException {
+        return CustomFields.parse(rs.getString(position));
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, CustomFields value, int index, SharedSessionContractImplementor session)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.OTHER);
+        } else {
+            // Sent untyped; PostgreSQL casts the text to the column's jsonb type
+            st.setObject(index, value.toString(), Types.OTHER);
+        }
+    }
+
+    @Override
+    public CustomFields deepCopy(CustomFields value) {
+        return value == null ? null : value.copy();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(CustomFields value) {
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public CustomFields assemble(Serializable cached, Object owner) {
+        return cached == null ? null : CustomFields.parse((String) cached);
+    }
+
+    @Override
+    public CustomFields replace(CustomFields detached, CustomFields managed, Object owner) {
+        return deepCopy(detached);
+    }
+}
@@ -0,0 +1,6 @@
+package com.payroll.texas.model;
+
+public enum DataKeyStatus {
+    ACTIVE,
+    RETIRED
+}
@@ -1,9 +1,9 @@
 package com.payroll.texas.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Type;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -13,8 +13,10 @@ import java.time.LocalDateTime;
 @Table(name = "employees")
 public class Employee {
     
+    // Pooled sequence ids (see V10) so Hibernate can batch inserts; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_id_seq")
+    @SequenceGenerator(name = "employees_id_seq", sequenceName = "employees_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,15 +33,25 @@ public class Employee {
     @Column(unique = true)
     private String employeeId;
     
-    @Column(unique = true)
-    private String ssn; // Encrypted
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String ssn; // Plaintext as submitted; moved into ssnEncrypted on save and never stored
     
+    @JsonIgnore
     @Column(name = "ssn_encrypted")
     private String ssnEncrypted; // Encrypted SSN data
     
+    @JsonIgnore
     @Column(name = "ssn_encrypted_iv")
     private String ssnEncryptedIv; // Initialization vector for SSN encryption
     
+    @JsonIgnore
+    @Column(name = "ssn_last4", length = 4)
+    private String ssnLast4; // Shown as ssnMasked
+    
+    @JsonIgnore
+    @Column(name = "ssn_blind_index", length = 64)
+    private String ssnBlindIndex; // Keyed HMAC of the SSN, for duplicate checks and lookups
+    
     private LocalDate dateOfBirth;
     
     private LocalDate hireDate;
@@ -81,18 +93,35 @@ public class Employee {
     private BigDecimal additionalStateWithholding = BigDecimal.ZERO;
     
     // Direct Deposit (Static - Payment Processing)
+    // Accepts the plaintext account number on input; only the masked form is ever returned
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "bank_account_number_encrypted")
     private String bankAccountNumberEncrypted;
     
+    @JsonIgnore
     @Column(name = "bank_account_number_encrypted_iv")
     private String bankAccountNumberEncryptedIv;
     
+    @JsonIgnore
+    @Column(name = "bank_account_last4", length = 4)
+    private String bankAccountLast4; // Shown as bankAccountNumberMasked
+    
+    @JsonIgnore
+    @Column(name = "bank_account_blind_index", length = 64)
+    private String bankAccountBlindIndex; // Keyed HMAC of the account number, for lookups
+    
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "bank_routing_number_encrypted")
     private String bankRoutingNumberEncrypted;
     
+    @JsonIgnore
     @Column(name = "bank_routing_number_encrypted_iv")
     private String bankRoutingNumberEncryptedIv;
     
+    @JsonIgnore
+    @Column(name = "bank_routing_last4", length = 4)
+    private String bankRoutingLast4; // Shown as bankRoutingNumberMasked
+    
     @Column(name = "bank_name")
     private String bankName;
     
@@ -143,9 +172,9 @@ public class Employee {
     private LocalDateTime deletedAt;
     
     // Dynamic custom fields (JSONB)
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Type(CustomFieldsType.class)
     @Column(columnDefinition = "jsonb DEFAULT '{}'")
-    private String customFields = "{}";
+    private CustomFields customFields = new CustomFields();
     
     // Constructors
     public Employee() {}
@@ -223,6 +252,27 @@ public class Employee {
         this.ssnEncryptedIv = ssnEncryptedIv;
     }
     
+    public String getSsnBlindIndex() {
+        return ssnBlindIndex;
+    }
+    
+    public void setSsnBlindIndex(String ssnBlindIndex) {
+        this.ssnBlindIndex = ssnBlindIndex;
+    }
+    
+    public String getSsnLast4() {
+        return ssnLast4;
+    }
+    
+    public void setSsnLast4(String ssnLast4) {
+        this.ssnLast4 = ssnLast4;
+    }
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getSsnMasked() {
+        return maskSsn(ssnLast4);
+    }
+    
     public LocalDate getDateOfBirth() {
         return dateOfBirth;
     }
@@ -351,6 +401,27 @@ public class Employee {
         this.bankRoutingNumberEncrypted = bankRoutingNumberEncrypted;
     }
     
+    public String getBankAccountBlindIndex() {
+        return bankAccountBlindIndex;
+    }
+    
+    public void setBankAccountBlindIndex(String bankAccountBlindIndex) {
+        this.bankAccountBlindIndex = bankAccountBlindIndex;
+    }
+    
+    public String getBankAccountLast4() {
+        return bankAccountLast4;
+    }
+    
+    public void setBankAccountLast4(String bankAccountLast4) {
+        this.bankAccountLast4 = bankAccountLast4;
+    }
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getBankAccountNumberMasked() {
+        return maskDigits(bankAccountLast4);
+    }
+    
     public String getBankRoutingNumberEncryptedIv() {
         return bankRoutingNumberEncryptedIv;
     }
@@ -359,6 +430,19 @@ public class Employee {
         this.bankRoutingNumberEncryptedIv = bankRoutingNumberEncryptedIv;
     }
     
+    public String getBankRoutingLast4() {
+        return bankRoutingLast4;
+    }
+    
+    public void setBankRoutingLast4(String bankRoutingLast4) {
+        this.bankRoutingLast4 = bankRoutingLast4;
+    }
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getBankRoutingNumberMasked() {
+        return maskDigits(bankRoutingLast4);
+    }
+    
     public String getBankName() {
         return bankName;
     }
@@ -503,11 +587,11 @@ public class Employee {
         this.deletedAt = deletedAt;
     }
     
-    public String getCustomFields() {
+    public CustomFields getCustomFields() {
         return customFields;
     }
     
-    public void setCustomFields(String customFields) {
+    public void setCustomFields(CustomFields customFields) {
         this.customFields = customFields;
     }
     
@@ -550,4 +634,19 @@ public class Employee {
                 ", employeeType=" + employeeType +
                 '}';
     }
-} 
\ No newline at end of file
+    
+    /**
+     * @return the last four digits kept for masked display, or null if the value is too short to mask
+     */
+    public static String lastFour(String digits) {
+        return digits == null || digits.length() <= 4 ? null : digits.substring(digits.length() - 4);
+    }
+    
+    public static String maskSsn(String last4) {
+        return last4 == null ? null : "***-**-" + last4;
+    }
+    
+    public static String maskDigits(String last4) {
+        return last4 == null ? null : "****" + last4;
+    }
+}
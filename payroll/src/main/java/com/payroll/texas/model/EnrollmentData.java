@@ -1,8 +1,7 @@
 package com.payroll.texas.model;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
 
@@ -55,9 +54,9 @@ public class EnrollmentData {
     private LocalDateTime updatedAt;
     
     // Dynamic custom fields (JSONB)
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Type(CustomFieldsType.class)
     @Column(columnDefinition = "jsonb DEFAULT '{}'")
-    private String customFields = "{}";
+    private CustomFields customFields = new CustomFields();
     
     // Constructors
     public EnrollmentData() {}
@@ -176,11 +175,11 @@ public class EnrollmentData {
         this.updatedAt = updatedAt;
     }
     
-    public String getCustomFields() {
+    public CustomFields getCustomFields() {
         return customFields;
     }
     
-    public void setCustomFields(String customFields) {
+    public void setCustomFields(CustomFields customFields) {
         this.customFields = customFields;
     }
     
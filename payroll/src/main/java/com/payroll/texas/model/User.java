@@ -1,13 +1,14 @@
 package com.payroll.texas.model;
 
+import com.payroll.texas.security.AccountStatusListener;
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(AccountStatusListener.class)
 public class User {
     
     @Id
@@ -58,10 +59,13 @@ public class User {
     
     private LocalDateTime deletedAt;
     
+    // Custom field key recording where the user signed up
+    public static final CustomFieldPath SIGNUP_SOURCE = CustomFieldPath.of("signup_source");
+    
     // Dynamic custom fields (JSONB)
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Type(CustomFieldsType.class)
     @Column(columnDefinition = "jsonb DEFAULT '{}'")
-    private String customFields = "{}";
+    private CustomFields customFields = new CustomFields();
     
     // Constructors
     public User() {}
@@ -205,11 +209,11 @@ public class User {
         this.deletedAt = deletedAt;
     }
     
-    public String getCustomFields() {
+    public CustomFields getCustomFields() {
         return customFields;
     }
     
-    public void setCustomFields(String customFields) {
+    public void setCustomFields(CustomFields customFields) {
         this.customFields = customFields;
     }
     
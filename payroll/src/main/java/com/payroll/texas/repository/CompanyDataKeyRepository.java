@@ -0,0 +1,26 @@
+package com.payroll.texas.repository;
+
+import com.payroll.texas.model.CompanyDataKey;
+import com.payroll.texas.model.DataKeyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CompanyDataKeyRepository extends JpaRepository<CompanyDataKey, Long> {
+
+    @Query("SELECT k FROM CompanyDataKey k WHERE k.companyId = :companyId AND k.status = :status")
+    Optional<CompanyDataKey> findByCompanyIdAndStatus(@Param("companyId") Long companyId,
+                                                      @Param("status") DataKeyStatus status);
+
+    @Modifying
+    @Query("UPDATE CompanyDataKey k SET k.status = :retired, k.retiredAt = :now " +
+           "WHERE k.companyId = :companyId AND k.status = :active")
+    int retireActive(@Param("companyId") Long companyId, @Param("active") DataKeyStatus active,
+                     @Param("retired") DataKeyStatus retired, @Param("now") LocalDateTime now);
+}
@@ -28,6 +28,9 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     @Query("SELECT c FROM Company c WHERE c.status = :status AND c.deletedAt IS NULL")
     List<Company> findByStatusAndNotDeleted(@Param("status") CompanyStatus status);
     
+    @Query("SELECT c.id FROM Company c WHERE c.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+    
     boolean existsByEmail(String email);
     
     boolean existsByEmailAndIdNot(String email, Long id);
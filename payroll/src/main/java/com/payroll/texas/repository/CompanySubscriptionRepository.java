@@ -2,6 +2,8 @@ package com.payroll.texas.repository;
 
 import com.payroll.texas.model.CompanySubscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +14,9 @@ public interface CompanySubscriptionRepository extends JpaRepository<CompanySubs
     
     Optional<CompanySubscription> findByCompanyId(Long companyId);
     
+    @Query("SELECT s FROM CompanySubscription s JOIN FETCH s.plan WHERE s.company.id = :companyId")
+    Optional<CompanySubscription> findWithPlanByCompanyId(@Param("companyId") Long companyId);
+    
     List<CompanySubscription> findByCompanyIdAndStatus(Long companyId, com.payroll.texas.model.SubscriptionStatus status);
     
     List<CompanySubscription> findByStatus(com.payroll.texas.model.SubscriptionStatus status);
@@ -0,0 +1,24 @@
+package com.payroll.texas.repository;
+
+import com.payroll.texas.model.CustomFieldDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomFieldDefinitionRepository extends JpaRepository<CustomFieldDefinition, Long> {
+
+    @Query("SELECT d FROM CustomFieldDefinition d WHERE d.companyId = :companyId ORDER BY d.name")
+    List<CustomFieldDefinition> findByCompanyId(@Param("companyId") Long companyId);
+
+    @Query("SELECT d FROM CustomFieldDefinition d WHERE d.companyId = :companyId AND d.name = :name")
+    Optional<CustomFieldDefinition> findByCompanyIdAndName(@Param("companyId") Long companyId,
+                                                           @Param("name") String name);
+
+    @Query("SELECT COUNT(d) FROM CustomFieldDefinition d WHERE d.companyId = :companyId")
+    long countByCompanyId(@Param("companyId") Long companyId);
+}
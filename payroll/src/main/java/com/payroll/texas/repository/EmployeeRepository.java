@@ -1,10 +1,18 @@
 package com.payroll.texas.repository;
 
+import com.payroll.texas.dto.employee.EmployeeSearchHit;
+import com.payroll.texas.dto.employee.EmployeeSummary;
 import com.payroll.texas.model.Employee;
+import com.payroll.texas.model.EmployeeStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
@@ -13,5 +21,75 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     List<Employee> findByCompanyId(Long companyId);
 
+    Optional<Employee> findByIdAndCompanyId(Long id, Long companyId);
+
     List<Employee> findByCompanyIdAndStatus(Long companyId, com.payroll.texas.model.EmployeeStatus status);
-} 
\ No newline at end of file
+
+    // Projection queries - list endpoints read summaries without hydrating Employee entities
+
+    String SUMMARY_SELECT = "SELECT new com.payroll.texas.dto.employee.EmployeeSummary(" +
+            "e.id, e.firstName, e.lastName, e.email, e.phone, e.jobTitle, e.status, e.employeeType, e.hireDate, e.company.id, " +
+            "e.ssnLast4) " +
+            "FROM Employee e ";
+
+    // Keyset pagination - backed by idx_employees_company_id / idx_employees_company_status_id /
+    // idx_employees_company_last_name_id (V9) / idx_employees_company_status_last_name_id (V23).
+    // Callers pass a page size of limit + 1 to detect more rows.
+
+    @Query(SUMMARY_SELECT + "WHERE e.company.id = :companyId AND e.id > :afterId ORDER BY e.id")
+    List<EmployeeSummary> findPageById(@Param("companyId") Long companyId,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE e.company.id = :companyId AND e.status = :status AND e.id > :afterId ORDER BY e.id")
+    List<EmployeeSummary> findPageByIdAndStatus(@Param("companyId") Long companyId,
+                                                @Param("status") EmployeeStatus status,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE e.company.id = :companyId AND (e.lastName, e.id) > (:afterLastName, :afterId) " +
+            "ORDER BY e.lastName, e.id")
+    List<EmployeeSummary> findPageByLastName(@Param("companyId") Long companyId,
+                                             @Param("afterLastName") String afterLastName,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE e.company.id = :companyId AND e.status = :status " +
+            "AND (e.lastName, e.id) > (:afterLastName, :afterId) ORDER BY e.lastName, e.id")
+    List<EmployeeSummary> findPageByLastNameAndStatus(@Param("companyId") Long companyId,
+                                                      @Param("status") EmployeeStatus status,
+                                                      @Param("afterLastName") String afterLastName,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+
+    // Source rows for the in-memory search index (EmployeeSearchService)
+    @Query("SELECT new com.payroll.texas.dto.employee.EmployeeSearchHit(" +
+            "e.id, e.firstName, e.lastName, e.email, e.employeeId, e.jobTitle, e.department) " +
+            "FROM Employee e WHERE e.company.id = :companyId")
+    List<EmployeeSearchHit> findSearchHitsByCompanyId(@Param("companyId") Long companyId);
+
+    // Rows for ids matched by CustomFieldQueryService, in id order
+    @Query(SUMMARY_SELECT + "WHERE e.company.id = :companyId AND e.id IN :ids ORDER BY e.id")
+    List<EmployeeSummary> findSummariesByCompanyIdAndIdIn(@Param("companyId") Long companyId,
+                                                          @Param("ids") Collection<Long> ids);
+
+    // Blind-index lookups (BlindIndexService) - backed by the partial indexes on (company_id, *_blind_index) (V13)
+
+    @Query(SUMMARY_SELECT + "WHERE e.company.id = :companyId AND e.ssnBlindIndex = :ssnBlindIndex ORDER BY e.id")
+    List<EmployeeSummary> findSummariesBySsnBlindIndex(@Param("companyId") Long companyId,
+                                                       @Param("ssnBlindIndex") String ssnBlindIndex);
+
+    @Query(SUMMARY_SELECT + "WHERE e.company.id = :companyId AND e.bankAccountBlindIndex = :bankAccountBlindIndex ORDER BY e.id")
+    List<EmployeeSummary> findSummariesByBankAccountBlindIndex(@Param("companyId") Long companyId,
+                                                               @Param("bankAccountBlindIndex") String bankAccountBlindIndex);
+
+    @Query("SELECT COUNT(e) > 0 FROM Employee e WHERE e.company.id = :companyId AND e.ssnBlindIndex = :ssnBlindIndex " +
+            "AND e.id <> :excludeId")
+    boolean existsBySsnBlindIndex(@Param("companyId") Long companyId,
+                                  @Param("ssnBlindIndex") String ssnBlindIndex,
+                                  @Param("excludeId") Long excludeId);
+
+    @Query("SELECT e.ssnBlindIndex FROM Employee e WHERE e.company.id = :companyId AND e.ssnBlindIndex IN :ssnBlindIndexes")
+    List<String> findExistingSsnBlindIndexes(@Param("companyId") Long companyId,
+                                             @Param("ssnBlindIndexes") Collection<String> ssnBlindIndexes);
+}
@@ -30,7 +30,4 @@ public interface EnrollmentDataRepository extends JpaRepository<EnrollmentData,
     List<EnrollmentData> findCompletedEnrollmentsByCompany(@Param("companyId") Long companyId);
     
     boolean existsByContactEmail(String contactEmail);
-    
-    @Query("SELECT COUNT(e) FROM EnrollmentData e WHERE e.enrollmentStep = :step")
-    Long countByEnrollmentStep(@Param("step") EnrollmentStep step);
 } 
\ No newline at end of file
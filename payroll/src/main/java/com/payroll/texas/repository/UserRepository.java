@@ -3,10 +3,13 @@ package com.payroll.texas.repository;
 import com.payroll.texas.model.User;
 import com.payroll.texas.model.UserStatus;
 import com.payroll.texas.model.UserType;
+import com.payroll.texas.security.AccountStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -33,4 +36,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     
     boolean existsByEmailAndIdNot(String email, Long id);
-} 
\ No newline at end of file
+
+    @Query("SELECT new com.payroll.texas.security.AccountStatus(u.id, u.status, c.id, c.status) " +
+           "FROM User u LEFT JOIN u.company c WHERE u.id = :userId AND u.deletedAt IS NULL")
+    Optional<AccountStatus> findAccountStatus(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = :userId")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("passwordHash") String passwordHash);
+}
@@ -0,0 +1,41 @@
+package com.payroll.texas.security;
+
+import com.payroll.texas.model.CompanyStatus;
+import com.payroll.texas.model.UserStatus;
+
+/**
+ * Current user and company status, as cached by {@link AccountStatusCache}.
+ * Populated by a JPQL constructor expression (UserRepository.findAccountStatus).
+ */
+public final class AccountStatus {
+
+    private final Long userId;
+    private final UserStatus userStatus;
+    private final Long companyId;
+    private final CompanyStatus companyStatus;
+
+    public AccountStatus(Long userId, UserStatus userStatus, Long companyId, CompanyStatus companyStatus) {
+        this.userId = userId;
+        this.userStatus = userStatus;
+        this.companyId = companyId;
+        this.companyStatus = companyStatus;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    /**
+     * A user may act when their own account is active and their company (if any) is neither
+     * suspended nor deactivated.
+     */
+    public boolean isAllowed() {
+        return userStatus == UserStatus.ACTIVE
+                && companyStatus != CompanyStatus.SUSPENDED
+                && companyStatus != CompanyStatus.INACTIVE;
+    }
+}
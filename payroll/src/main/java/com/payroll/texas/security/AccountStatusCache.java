@@ -0,0 +1,66 @@
+package com.payroll.texas.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.payroll.texas.repository.UserRepository;
+import com.payroll.texas.service.Transactions;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of user/company status so authenticated requests do not query the users table.
+ * Entries are dropped when the user or company is updated (see {@link AccountStatusListener});
+ * the TTL bounds staleness for changes made outside JPA.
+ */
+@Component
+public class AccountStatusCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountStatusCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${security.session.status-cache-ttl:30}")
+    private long ttlSeconds;
+
+    @Value("${security.session.status-cache-max-size:50000}")
+    private long maxSize;
+
+    private LoadingCache<Long, Optional<AccountStatus>> statuses;
+
+    @PostConstruct
+    void init() {
+        statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(userId -> userRepository.findAccountStatus(userId));
+    }
+
+    /**
+     * @return the user's current status, or empty if the user does not exist or is deleted
+     */
+    public Optional<AccountStatus> get(Long userId) {
+        return statuses.get(userId);
+    }
+
+    // Each eviction runs again once the change is visible, so a read racing the commit cannot re-cache the old value
+    public void invalidateUser(Long userId) {
+        statuses.invalidate(userId);
+        Transactions.afterCommit(() -> statuses.invalidate(userId));
+    }
+
+    public void invalidateCompany(Long companyId) {
+        Runnable evict = () -> statuses.asMap().values()
+                .removeIf(status -> status.isPresent() && companyId.equals(status.get().getCompanyId()));
+        evict.run();
+        Transactions.afterCommit(evict);
+        logger.debug("Invalidated cached account status for company {}", companyId);
+    }
+}
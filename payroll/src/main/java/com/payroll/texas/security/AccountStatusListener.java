@@ -0,0 +1,32 @@
+package com.payroll.texas.security;
+
+import com.payroll.texas.model.Company;
+import com.payroll.texas.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on User and Company that evicts cached account status whenever either entity changes.
+ * Instantiated through Spring's bean container so the cache can be injected.
+ */
+@Component
+public class AccountStatusListener {
+
+    // Lazy: listeners are created while the EntityManagerFactory (which the cache's repository needs) is starting
+    @Autowired
+    @Lazy
+    private AccountStatusCache accountStatusCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof User user && user.getId() != null) {
+            accountStatusCache.invalidateUser(user.getId());
+        } else if (entity instanceof Company company && company.getId() != null) {
+            accountStatusCache.invalidateCompany(company.getId());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.payroll.texas.security;
+
+import com.payroll.texas.service.SecurityAuditService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Rate limits for login and signup, applied per client IP and per email before any user lookup or
+ * BCrypt work. Each rejection is recorded as suspicious activity in the security audit log.
+ */
+@Component
+public class AuthRateLimiter {
+
+    @Autowired
+    private SecurityAuditService securityAuditService;
+
+    @Value("${security.rate-limit.login.per-ip.capacity:20}")
+    private int loginIpCapacity;
+
+    @Value("${security.rate-limit.login.per-ip.refill-per-minute:20}")
+    private int loginIpRefill;
+
+    @Value("${security.rate-limit.login.per-email.capacity:5}")
+    private int loginEmailCapacity;
+
+    @Value("${security.rate-limit.login.per-email.refill-per-minute:5}")
+    private int loginEmailRefill;
+
+    @Value("${security.rate-limit.signup.per-ip.capacity:5}")
+    private int signupIpCapacity;
+
+    @Value("${security.rate-limit.signup.per-ip.refill-per-minute:5}")
+    private int signupIpRefill;
+
+    @Value("${security.rate-limit.idle-expiry-minutes:10}")
+    private int idleExpiryMinutes;
+
+    @Value("${security.rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    private TokenBucketLimiter loginByIp;
+    private TokenBucketLimiter loginByEmail;
+    private TokenBucketLimiter signupByIp;
+    private TokenBucketLimiter signupByEmail;
+
+    @PostConstruct
+    void init() {
+        Duration idle = Duration.ofMinutes(idleExpiryMinutes);
+        loginByIp = new TokenBucketLimiter(loginIpCapacity, loginIpRefill, idle, maxKeys);
+        loginByEmail = new TokenBucketLimiter(loginEmailCapacity, loginEmailRefill, idle, maxKeys);
+        signupByIp = new TokenBucketLimiter(signupIpCapacity, signupIpRefill, idle, maxKeys);
+        // Repeated signups for one address are limited like logins
+        signupByEmail = new TokenBucketLimiter(loginEmailCapacity, loginEmailRefill, idle, maxKeys);
+    }
+
+    /**
+     * @return 0 if the login may proceed, otherwise the seconds the client should wait
+     */
+    public long checkLogin(String ipAddress, String email, String userAgent) {
+        return check("LOGIN", loginByIp, loginByEmail, ipAddress, email, userAgent);
+    }
+
+    /**
+     * @return 0 if the signup may proceed, otherwise the seconds the client should wait
+     */
+    public long checkSignup(String ipAddress, String email, String userAgent) {
+        return check("SIGNUP", signupByIp, signupByEmail, ipAddress, email, userAgent);
+    }
+
+    private long check(String action, TokenBucketLimiter byIp, TokenBucketLimiter byEmail,
+                       String ipAddress, String email, String userAgent) {
+        long waitMs = byIp.tryAcquire(ipAddress != null ? ipAddress : "unknown");
+        String limitedBy = "IP";
+        if (waitMs == 0 && email != null) {
+            waitMs = byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+            limitedBy = "EMAIL";
+        }
+        if (waitMs == 0) {
+            return 0;
+        }
+        securityAuditService.logSuspiciousActivity(email, null, action + "_RATE_LIMITED",
+                action.toLowerCase(Locale.ROOT) + " attempts exceeded the per-" + limitedBy.toLowerCase(Locale.ROOT) + " limit",
+                ipAddress, userAgent, "MEDIUM");
+        return Math.max(1, (waitMs + 999) / 1000);
+    }
+}
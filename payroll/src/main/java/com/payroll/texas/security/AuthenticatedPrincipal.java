@@ -0,0 +1,48 @@
+package com.payroll.texas.security;
+
+/**
+ * Immutable identity of the caller, built once per request by {@link JwtAuthenticationFilter}
+ * from the verified access token. Declare a parameter of this type on a controller method to receive it.
+ */
+public final class AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String email;
+    private final Long companyId;
+    private final String userType;
+
+    public AuthenticatedPrincipal(Long userId, String email, Long companyId, String userType) {
+        this.userId = userId;
+        this.email = email;
+        this.companyId = companyId;
+        this.userType = userType;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * @return the user's company, or {@code null} for users not attached to a company
+     */
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    public boolean hasCompany() {
+        return companyId != null;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedPrincipal{userId=" + userId + ", companyId=" + companyId + ", userType=" + userType + "}";
+    }
+}
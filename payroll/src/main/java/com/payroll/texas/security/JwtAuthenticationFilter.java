@@ -0,0 +1,85 @@
+package com.payroll.texas.security;
+
+import com.payroll.texas.service.JwtService;
+import com.payroll.texas.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Resolves the caller once per request: verifies the Bearer access token, rejects revoked tokens, checks
+ * the user's and company's status through {@link AccountStatusCache}, and stores an
+ * {@link AuthenticatedPrincipal} as a request attribute. Requests without a usable token pass through unauthenticated; endpoints that need a
+ * principal reject them via {@link AuthenticatedPrincipalArgumentResolver}.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    public static final String PRINCIPAL_ATTRIBUTE = AuthenticatedPrincipal.class.getName();
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private AccountStatusCache accountStatusCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            resolve(header.substring(BEARER_PREFIX.length()))
+                    .ifPresent(principal -> request.setAttribute(PRINCIPAL_ATTRIBUTE, principal));
+        }
+        chain.doFilter(request, response);
+    }
+
+    private Optional<AuthenticatedPrincipal> resolve(String token) {
+        Optional<Claims> verified = jwtService.verify(token);
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
+        Claims claims = verified.get();
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            return Optional.empty();
+        }
+        // Only access tokens carry userId; refresh tokens cannot authenticate API calls
+        Number userId = claims.get("userId", Number.class);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        Number companyClaim = claims.get("companyId", Number.class);
+        Long companyId = companyClaim != null ? companyClaim.longValue() : null;
+
+        Optional<AccountStatus> status = accountStatusCache.get(userId.longValue());
+        if (status.isEmpty() || !status.get().isAllowed()) {
+            logger.debug("Rejecting token for user {}: account missing or not active", userId);
+            return Optional.empty();
+        }
+        if (!Objects.equals(companyId, status.get().getCompanyId())) {
+            logger.debug("Rejecting token for user {}: company changed since the token was issued", userId);
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedPrincipal(userId.longValue(), claims.getSubject(), companyId,
+                claims.get("userType", String.class)));
+    }
+}
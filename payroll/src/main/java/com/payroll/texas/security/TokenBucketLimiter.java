@@ -0,0 +1,60 @@
+package com.payroll.texas.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key token bucket. Each bucket is a single {@link AtomicLong} holding the time at which it will be
+ * full again (the GCRA formulation of a token bucket), updated with compare-and-set, so checks never
+ * lock. Idle buckets are evicted, which bounds memory to the keys seen within the idle window.
+ */
+public class TokenBucketLimiter {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity        requests allowed in a burst
+     * @param refillPerMinute tokens added back per minute
+     * @param idleExpiry      how long an unused bucket is kept; should exceed the time to refill it
+     * @param maxKeys         upper bound on tracked keys
+     */
+    public TokenBucketLimiter(int capacity, int refillPerMinute, Duration idleExpiry, long maxKeys) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("Rate limit capacity and refill must be positive");
+        }
+        this.nanosPerToken = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.burstNanos = nanosPerToken * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleExpiry)
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 if the request is allowed, otherwise the milliseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            // An empty (or new) bucket behaves as if it became full at "now"
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + nanosPerToken;
+            if (next - now > burstNanos) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(next - now - burstNanos));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
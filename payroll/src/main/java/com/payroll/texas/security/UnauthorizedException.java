@@ -0,0 +1,16 @@
+package com.payroll.texas.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Raised when a controller requires an {@link AuthenticatedPrincipal} but the request carried no
+ * valid access token. Translated to 401 by {@link SecurityExceptionHandler}.
+ */
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class UnauthorizedException extends RuntimeException {
+
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
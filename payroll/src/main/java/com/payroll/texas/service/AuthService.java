@@ -5,14 +5,15 @@ import com.payroll.texas.dto.auth.LoginResponse;
 import com.payroll.texas.model.User;
 import com.payroll.texas.model.UserStatus;
 import com.payroll.texas.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class AuthService {
@@ -27,9 +28,19 @@ public class AuthService {
     
     @Autowired
     private PasswordService passwordService;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
     
     public LoginResponse login(LoginRequest loginRequest) {
         logger.info("Login attempt for email: {}", loginRequest.getEmail());
+        boolean rememberMe = Boolean.TRUE.equals(loginRequest.getRememberMe());
         
         // Find user by email
         User user = userRepository.findByEmailAndNotDeleted(loginRequest.getEmail())
@@ -46,32 +57,37 @@ public class AuthService {
             throw new RuntimeException("Account is not active");
         }
         
-        // Check if account is locked
-        if (user.isLocked()) {
+        // Check if account is locked (in-memory state is authoritative; the row may lag by a flush interval)
+        if (loginAttemptTracker.lockedUntil(user) != null) {
             logger.warn("Login failed - account locked for email: {}", loginRequest.getEmail());
             throw new RuntimeException("Account is temporarily locked. Please try again later.");
         }
         
-        // Validate password using BCrypt
-        if (!passwordService.validatePassword(loginRequest.getPassword(), user.getPasswordHash())) {
-            // Increment failed login attempts
-            user.incrementFailedLoginAttempts();
-            userRepository.save(user);
+        // Validate password using BCrypt on the hashing pool; the lookups above and writes below stay on this thread
+        boolean passwordMatches = passwordHashingExecutor.call(
+                () -> passwordService.validatePassword(loginRequest.getPassword(), user.getPasswordHash()));
+        if (!passwordMatches) {
+            // Counted in memory and written with the next batched flush
+            if (loginAttemptTracker.recordFailure(user)) {
+                logger.warn("Login failed - invalid password, account now locked for email: {}", loginRequest.getEmail());
+                throw new RuntimeException("Account is temporarily locked. Please try again later.");
+            }
             
             logger.warn("Login failed - invalid password for email: {}", loginRequest.getEmail());
             throw new RuntimeException("Invalid email or password");
         }
         
-        // Reset failed login attempts on successful login
-        user.resetFailedLoginAttempts();
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Upgrade (or downgrade) the stored hash when the configured BCrypt cost has changed
+        if (passwordService.needsRehash(user.getPasswordHash())) {
+            String rehashed = passwordHashingExecutor.call(() -> passwordService.encryptPassword(loginRequest.getPassword()));
+            userRepository.updatePasswordHash(user.getId(), rehashed);
+            logger.info("Rehashed password for user {} with BCrypt strength {}", user.getId(), passwordService.getBCryptStrength());
+        }
         
-        logger.info("Login successful for user: {} (ID: {})", user.getEmail(), user.getId());
+        // Reset failed login attempts and record the login; persisted by the next batched flush
+        loginAttemptTracker.recordSuccess(user, rememberMe);
         
-        // Update remember me status
-        user.setRememberMe(loginRequest.getRememberMe());
-        userRepository.save(user);
+        logger.info("Login successful for user: {} (ID: {})", user.getEmail(), user.getId());
         
         // Generate tokens with different expiration based on remember me
         Map<String, Object> claims = new HashMap<>();
@@ -80,8 +96,8 @@ public class AuthService {
         claims.put("companyId", user.getCompany() != null ? user.getCompany().getId() : null);
         
         // Token expiration: 24 hours for normal login, 30 days for remember me
-        long accessTokenExpiration = loginRequest.getRememberMe() ? 2592000000L : 86400000L; // 30 days vs 24 hours
-        long refreshTokenExpiration = loginRequest.getRememberMe() ? 2592000000L : 604800000L; // 30 days vs 7 days
+        long accessTokenExpiration = rememberMe ? 2592000000L : 86400000L; // 30 days vs 24 hours
+        long refreshTokenExpiration = rememberMe ? 2592000000L : 604800000L; // 30 days vs 7 days
         
         String accessToken = jwtService.generateToken(claims, user.getEmail(), accessTokenExpiration);
         String refreshToken = jwtService.generateToken(new HashMap<>(), user.getEmail(), refreshTokenExpiration);
@@ -98,15 +114,16 @@ public class AuthService {
         );
         
         // Return expiration time in seconds
-        long expirationInSeconds = loginRequest.getRememberMe() ? 2592000L : 86400L; // 30 days vs 24 hours
+        long expirationInSeconds = rememberMe ? 2592000L : 86400L; // 30 days vs 24 hours
         return new LoginResponse(accessToken, refreshToken, expirationInSeconds, userInfo);
     }
     
     public String refreshToken(String refreshToken) {
         logger.debug("Token refresh attempt");
         
-        if (jwtService.validateToken(refreshToken)) {
-            String email = jwtService.extractUsername(refreshToken);
+        Optional<Claims> verified = verifyNotRevoked(refreshToken);
+        if (verified.isPresent()) {
+            String email = verified.get().getSubject();
             User user = userRepository.findByEmailAndNotDeleted(email)
                     .orElseThrow(() -> {
                         logger.warn("Token refresh failed - user not found for email: {}", email);
@@ -126,21 +143,35 @@ public class AuthService {
         throw new RuntimeException("Invalid refresh token");
     }
     
-    public void logout(String token) {
+    /**
+     * Revokes the access token and, when supplied, the matching refresh token, so neither can be used again.
+     */
+    public void logout(String token, String refreshToken) {
         logger.debug("Logout attempt");
         
-        // In a real application, you might want to blacklist the token
-        // For now, we'll just validate that the token exists
-        if (!jwtService.validateToken(token)) {
+        Claims claims = jwtService.verify(token).orElse(null);
+        if (claims == null) {
             logger.warn("Logout failed - invalid token");
             throw new RuntimeException("Invalid token");
         }
         
+        Number userId = claims.get("userId", Number.class);
+        Long revokedFor = userId != null ? userId.longValue() : null;
+        tokenRevocationService.revoke(claims.getId(), revokedFor, claims.getExpiration());
+        
+        if (refreshToken != null && !refreshToken.isEmpty()) {
+            // Only revoke a refresh token that belongs to the same account
+            jwtService.verify(refreshToken)
+                    .filter(refreshClaims -> claims.getSubject().equals(refreshClaims.getSubject()))
+                    .ifPresent(refreshClaims -> tokenRevocationService.revoke(
+                            refreshClaims.getId(), revokedFor, refreshClaims.getExpiration()));
+        }
+        
         logger.info("User logged out successfully");
     }
     
     public boolean validateToken(String token) {
-        boolean isValid = jwtService.validateToken(token);
+        boolean isValid = verifyNotRevoked(token).isPresent();
         if (!isValid) {
             logger.debug("Token validation failed");
         }
@@ -150,14 +181,15 @@ public class AuthService {
     public Map<String, Object> validateTokenAndGetUser(String token) {
         Map<String, Object> response = new HashMap<>();
         
-        if (!jwtService.validateToken(token)) {
+        Optional<Claims> verified = verifyNotRevoked(token);
+        if (verified.isEmpty()) {
             logger.debug("Token validation failed");
             response.put("valid", false);
             return response;
         }
         
         try {
-            String email = jwtService.extractUsername(token);
+            String email = verified.get().getSubject();
             User user = userRepository.findByEmailAndNotDeleted(email)
                     .orElse(null);
             
@@ -197,4 +229,9 @@ public class AuthService {
             return response;
         }
     }
-} 
\ No newline at end of file
+    
+    private Optional<Claims> verifyNotRevoked(String token) {
+        return jwtService.verify(token)
+                .filter(claims -> !tokenRevocationService.isRevoked(claims.getId()));
+    }
+}
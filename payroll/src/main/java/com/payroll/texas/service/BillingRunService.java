@@ -0,0 +1,371 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.model.BillingCycle;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bills active subscriptions whose next billing date has arrived.
+ *
+ * Workers claim due subscriptions a chunk at a time with FOR UPDATE SKIP LOCKED, so any number of workers on
+ * any number of instances share a run without claiming the same row twice or waiting on each other. Each
+ * chunk is one transaction: the claimed rows are invoiced with one JDBC batch and their next billing dates
+ * advanced with one set-based update, so a chunk is either fully billed or, after a crash, still due. Invoices
+ * are unique per subscription and period, which makes a re-run harmless. A subscription several periods behind
+ * stays due after each chunk and is claimed again, one period at a time, until it is current.
+ *
+ * A chunk that fails rolls back and is retried one subscription at a time, each in its own transaction. A
+ * subscription that still fails is recorded and left out of every later claim in the run, so one bad row
+ * neither stops the workers nor holds up the subscriptions due after it; it stays due for the next run.
+ */
+@Service
+public class BillingRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillingRunService.class);
+
+    private static final BigDecimal MONTHS_PER_YEAR = new BigDecimal("12");
+
+    // Matches Plan.getYearlyPriceWithDiscount for plans without a yearly price
+    private static final BigDecimal YEARLY_DISCOUNT = new BigDecimal("0.9");
+
+    // Locks only the subscription rows; the plan join is read-only
+    private static final String CLAIM_DUE =
+            "SELECT s.id, s.company_id, s.plan_id, s.billing_cycle, s.monthly_price, s.start_date, s.next_billing_date, " +
+            "p.yearly_price FROM company_subscriptions s JOIN plans p ON p.id = s.plan_id " +
+            "WHERE s.status = 'ACTIVE' AND s.next_billing_date <= ? " +
+            "AND (s.end_date IS NULL OR s.end_date >= s.next_billing_date) " +
+            "AND s.id <> ALL(?::bigint[]) " +
+            "ORDER BY s.next_billing_date, s.id LIMIT ? FOR UPDATE OF s SKIP LOCKED";
+
+    private static final String CLAIM_ONE =
+            "SELECT s.id, s.company_id, s.plan_id, s.billing_cycle, s.monthly_price, s.start_date, s.next_billing_date, " +
+            "p.yearly_price FROM company_subscriptions s JOIN plans p ON p.id = s.plan_id " +
+            "WHERE s.id = ? AND s.status = 'ACTIVE' AND s.next_billing_date <= ? " +
+            "AND (s.end_date IS NULL OR s.end_date >= s.next_billing_date) " +
+            "FOR UPDATE OF s SKIP LOCKED";
+
+    private static final String INSERT_INVOICE =
+            "INSERT INTO subscription_invoices (subscription_id, company_id, plan_id, billing_cycle, period_start, period_end, amount) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (subscription_id, period_start) DO NOTHING";
+
+    private static final String ADVANCE_BILLING_DATES =
+            "UPDATE company_subscriptions s SET next_billing_date = v.next_billing_date, updated_at = CURRENT_TIMESTAMP " +
+            "FROM (SELECT unnest(?::bigint[]) AS id, unnest(?::date[]) AS next_billing_date) v WHERE s.id = v.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.billing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.billing.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.billing.workers:4}")
+    private int workers;
+
+    private TransactionTemplate chunkTransaction;
+
+    private ExecutorService executor;
+
+    private volatile Progress latest;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "billing-run-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // An interrupted chunk rolls back; its subscriptions stay due for the next run
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${app.billing.cron:0 0 2 * * *}")
+    public void startScheduled() {
+        if (enabled) {
+            start(LocalDate.now());
+        }
+    }
+
+    /**
+     * Starts billing every active subscription due on or before the date and returns without waiting for it.
+     * Only one run executes per instance at a time; a call while one is in progress returns that run's progress.
+     */
+    public Map<String, Object> start(LocalDate billingDate) {
+        Progress progress;
+        synchronized (this) {
+            if (latest != null && latest.finishedAt == null) {
+                return latest.toMap();
+            }
+            progress = new Progress(billingDate, workers);
+            latest = progress;
+        }
+        logger.info("Billing run for {} started with {} workers", billingDate, workers);
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                try {
+                    work(progress);
+                } finally {
+                    if (progress.runningWorkers.decrementAndGet() == 0) {
+                        finish(progress);
+                    }
+                }
+            });
+        }
+        return progress.toMap();
+    }
+
+    /**
+     * @return progress of the latest run on this instance, or null if none has run
+     */
+    public Map<String, Object> getStatus() {
+        Progress progress = latest;
+        return progress != null ? progress.toMap() : null;
+    }
+
+    private void finish(Progress progress) {
+        progress.state = progress.interrupted ? "INTERRUPTED"
+                : progress.failedChunks.get() > 0 || !progress.failedIds.isEmpty() ? "FAILED" : "COMPLETED";
+        progress.finishedAt = LocalDateTime.now();
+        logger.info("Billing run for {} {}: {} subscriptions billed, {} invoices written, {} periods already invoiced, "
+                        + "{} failed chunks, {} failed subscriptions in {}ms", progress.billingDate, progress.state,
+                progress.billed.get(), progress.invoiced.get(), progress.alreadyInvoiced.get(),
+                progress.failedChunks.get(), progress.failedIds.size(),
+                Duration.between(progress.startedAt, progress.finishedAt).toMillis());
+    }
+
+    // Claims and bills chunks until nothing due is left unlocked
+    private void work(Progress progress) {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> claimed = new ArrayList<>();
+            Integer billed;
+            try {
+                billed = chunkTransaction.execute(status -> billChunk(progress, claimed));
+            } catch (RuntimeException e) {
+                progress.failedChunks.incrementAndGet();
+                logger.error("Billing chunk for {} failed: {}", progress.billingDate, e.getMessage(), e);
+                if (claimed.isEmpty()) {
+                    // Nothing was claimed, so there is no row to isolate; the claim itself is failing
+                    return;
+                }
+                billOneByOne(progress, claimed);
+                continue;
+            }
+            if (billed == null || billed == 0) {
+                return;
+            }
+        }
+        progress.interrupted = true;
+    }
+
+    // Retries a rolled-back chunk row by row so that only the rows that fail again are left out of the run
+    private void billOneByOne(Progress progress, List<Long> ids) {
+        for (Long id : ids) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                chunkTransaction.execute(status -> {
+                    List<DueSubscription> due = jdbcTemplate.query(CLAIM_ONE, dueMapper(null), id,
+                            Date.valueOf(progress.billingDate));
+                    // Empty when another worker holds the row or has already billed it
+                    return due.isEmpty() ? 0 : bill(progress, due);
+                });
+            } catch (RuntimeException e) {
+                progress.failedIds.add(id);
+                logger.error("Billing subscription {} for {} failed and is skipped for this run: {}",
+                        id, progress.billingDate, e.getMessage());
+            }
+        }
+    }
+
+    private int billChunk(Progress progress, List<Long> claimed) {
+        Long[] excluded = progress.failedIds.toArray(new Long[0]);
+        List<DueSubscription> due = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(CLAIM_DUE);
+            ps.setArray(1, connection.createArrayOf("bigint", excluded));
+            ps.setDate(2, Date.valueOf(progress.billingDate));
+            ps.setInt(3, chunkSize);
+            return ps;
+        }, dueMapper(claimed));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        return bill(progress, due);
+    }
+
+    // Records each claimed id before mapping the row, so a row that cannot be mapped can still be isolated
+    private static RowMapper<DueSubscription> dueMapper(List<Long> claimed) {
+        return (rs, i) -> {
+            long id = rs.getLong("id");
+            if (claimed != null) {
+                claimed.add(id);
+            }
+            return new DueSubscription(
+                    id, rs.getLong("company_id"), rs.getLong("plan_id"),
+                    BillingCycle.valueOf(rs.getString("billing_cycle")), rs.getBigDecimal("monthly_price"),
+                    rs.getObject("start_date", LocalDate.class), rs.getObject("next_billing_date", LocalDate.class),
+                    rs.getBigDecimal("yearly_price"));
+        };
+    }
+
+    private int bill(Progress progress, List<DueSubscription> due) {
+
+        List<Object[]> invoices = new ArrayList<>(due.size());
+        Long[] ids = new Long[due.size()];
+        Date[] nextDates = new Date[due.size()];
+        for (int i = 0; i < due.size(); i++) {
+            DueSubscription subscription = due.get(i);
+            LocalDate periodEnd = nextBillingDate(subscription.startDate, subscription.nextBillingDate, subscription.cycle);
+            invoices.add(new Object[] {subscription.id, subscription.companyId, subscription.planId,
+                    subscription.cycle.name(), Date.valueOf(subscription.nextBillingDate), Date.valueOf(periodEnd),
+                    charge(subscription.cycle, subscription.monthlyPrice, subscription.yearlyPrice)});
+            ids[i] = subscription.id;
+            nextDates[i] = Date.valueOf(periodEnd);
+        }
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_INVOICE, invoices);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ADVANCE_BILLING_DATES);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setArray(2, connection.createArrayOf("date", nextDates));
+            return ps;
+        });
+
+        for (int count : inserted) {
+            // Rewritten batches report SUCCESS_NO_INFO rather than a count; only an explicit 0 is a known duplicate
+            if (count == 0) {
+                progress.alreadyInvoiced.incrementAndGet();
+            } else {
+                progress.invoiced.incrementAndGet();
+            }
+        }
+        progress.billed.addAndGet(due.size());
+        return due.size();
+    }
+
+    /**
+     * The amount invoiced for one period: the subscription's monthly price, or for yearly billing the plan's
+     * yearly price, falling back to twelve discounted months when the plan has none.
+     */
+    static BigDecimal charge(BillingCycle cycle, BigDecimal monthlyPrice, BigDecimal yearlyPrice) {
+        if (cycle == BillingCycle.YEARLY) {
+            BigDecimal yearly = yearlyPrice != null ? yearlyPrice : monthlyPrice.multiply(MONTHS_PER_YEAR).multiply(YEARLY_DISCOUNT);
+            return yearly.setScale(2, RoundingMode.HALF_UP);
+        }
+        return monthlyPrice.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * The billing date one cycle after the current one, kept on the start date's day of month so that a
+     * subscription started on the 31st bills on the last day of shorter months and returns to the 31st after.
+     */
+    static LocalDate nextBillingDate(LocalDate startDate, LocalDate current, BillingCycle cycle) {
+        LocalDate next = current.plusMonths(cycle == BillingCycle.YEARLY ? 12 : 1);
+        int anchorDay = (startDate != null ? startDate : current).getDayOfMonth();
+        return next.withDayOfMonth(Math.min(anchorDay, next.lengthOfMonth()));
+    }
+
+    private static final class DueSubscription {
+
+        final long id;
+        final long companyId;
+        final long planId;
+        final BillingCycle cycle;
+        final BigDecimal monthlyPrice;
+        final LocalDate startDate;
+        final LocalDate nextBillingDate;
+        final BigDecimal yearlyPrice;
+
+        DueSubscription(long id, long companyId, long planId, BillingCycle cycle, BigDecimal monthlyPrice,
+                        LocalDate startDate, LocalDate nextBillingDate, BigDecimal yearlyPrice) {
+            this.id = id;
+            this.companyId = companyId;
+            this.planId = planId;
+            this.cycle = cycle;
+            this.monthlyPrice = monthlyPrice;
+            this.startDate = startDate;
+            this.nextBillingDate = nextBillingDate;
+            this.yearlyPrice = yearlyPrice;
+        }
+    }
+
+    /**
+     * Counters for one run, updated by the worker threads and read by status requests.
+     */
+    private static final class Progress {
+
+        final LocalDate billingDate;
+        final AtomicLong billed = new AtomicLong();
+        final AtomicLong invoiced = new AtomicLong();
+        final AtomicLong alreadyInvoiced = new AtomicLong();
+        final AtomicLong failedChunks = new AtomicLong();
+        // Subscriptions that failed on their own; excluded from every later claim in this run
+        final Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+        final AtomicInteger runningWorkers;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile boolean interrupted;
+        volatile String state = "RUNNING";
+        volatile LocalDateTime finishedAt;
+
+        Progress(LocalDate billingDate, int workers) {
+            this.billingDate = billingDate;
+            this.runningWorkers = new AtomicInteger(workers);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("billingDate", billingDate);
+            map.put("state", state);
+            map.put("subscriptionsBilled", billed.get());
+            map.put("invoicesWritten", invoiced.get());
+            map.put("periodsAlreadyInvoiced", alreadyInvoiced.get());
+            map.put("failedChunks", failedChunks.get());
+            map.put("failedSubscriptionIds", new TreeSet<>(failedIds));
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            return map;
+        }
+    }
+}
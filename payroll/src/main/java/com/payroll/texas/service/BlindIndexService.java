@@ -0,0 +1,82 @@
+package com.payroll.texas.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Deterministic keyed hashes (HMAC-SHA256) of sensitive values, stored next to their ciphertext so equality
+ * lookups and uniqueness checks can use an index instead of decrypting every row.
+ *
+ * The hash input is "field:companyId:normalizedValue", so the same SSN gives different indexes in different
+ * companies and an SSN never matches an identical-looking account number. Without the key an index
+ * reveals nothing beyond equality; the key is separate from the encryption keys.
+ */
+@Service
+public class BlindIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlindIndexService.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${app.encryption.blind-index-key}")
+    private String blindIndexKey;
+
+    // Mac is not thread-safe; each thread keeps its own, initialised once with the key
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Base64.getDecoder().decode(blindIndexKey);
+        if (keyBytes.length < 32) {
+            logger.error("app.encryption.blind-index-key decodes to {} bytes; at least 32 are required.", keyBytes.length);
+        }
+        SecretKeySpec key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC " + HMAC_ALGORITHM + " not available", e);
+            }
+        });
+    }
+
+    /**
+     * @param ssn SSN with or without separators
+     * @return blind index of the SSN, or null for a null or empty SSN
+     * @throws IllegalArgumentException if the SSN does not have 9 digits
+     */
+    public String ssnIndex(Long companyId, String ssn) {
+        String digits = EncryptionService.normalizeSSN(ssn);
+        return digits == null ? null : compute("ssn", companyId, digits);
+    }
+
+    /**
+     * @param accountNumber account number with or without separators
+     * @return blind index of the account number, or null for a null or empty value
+     */
+    public String bankAccountIndex(Long companyId, String accountNumber) {
+        String digits = EncryptionService.normalizeBankAccount(accountNumber);
+        return digits == null || digits.isEmpty() ? null : compute("bank-account", companyId, digits);
+    }
+
+    private String compute(String field, Long companyId, String value) {
+        if (companyId == null) {
+            throw new IllegalArgumentException("Company is required for a blind index");
+        }
+        Mac mac = macs.get();
+        // doFinal resets the Mac, so it is ready for the next value on this thread
+        byte[] hash = mac.doFinal((field + ':' + companyId + ':' + value).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,485 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.dto.employee.EmployeeSearchHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory type-ahead index over one company's employees.
+ *
+ * Field values are split into lower-case alphanumeric tokens. A character trie maps each token to the
+ * employees containing it (exact and prefix matches); a trigram index over the token vocabulary supplies
+ * typo-tolerant matches. Multi-word queries match employees that satisfy every word.
+ *
+ * Reads share a read lock; updates take the write lock. The index is filled once by {@link #loadIfNeeded}
+ * and kept current with {@link #upsert} / {@link #remove}; updates arriving before the first load are
+ * dropped because the load reads the already committed state.
+ */
+class CompanySearchIndex {
+
+    static final double EXACT_SCORE = 3.0;
+    static final double PREFIX_SCORE = 2.0;
+    // Minimum trigram similarity (shared / union), the pg_trgm default
+    static final double FUZZY_THRESHOLD = 0.3;
+    static final int MIN_FUZZY_LENGTH = 3;
+    // Bounds the work done for very short, unselective prefixes
+    static final int MAX_CANDIDATES = 2_000;
+
+    private static final long[] NO_POSTINGS = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TrieNode root = new TrieNode();
+    private final Map<String, Set<String>> trigramPostings = new HashMap<>();
+    // Distinct trigram count per indexed token, for the similarity denominator
+    private final Map<String, Integer> tokenTrigramCounts = new HashMap<>();
+    private volatile boolean loaded;
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fills the index on first use. The write lock is held while {@code loader} runs so that
+     * concurrent updates are applied after, not before, the snapshot.
+     */
+    void loadIfNeeded(Supplier<? extends Collection<EmployeeSearchHit>> loader) {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                for (EmployeeSearchHit hit : loader.get()) {
+                    upsertLocked(hit);
+                }
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void upsert(EmployeeSearchHit hit) {
+        upsertAll(List.of(hit));
+    }
+
+    void upsertAll(Collection<EmployeeSearchHit> hits) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (EmployeeSearchHit hit : hits) {
+                upsertLocked(hit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long employeeId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Entry existing = entries.remove(employeeId);
+            if (existing != null) {
+                unindex(existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<EmployeeSearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Double>> perTerm = new ArrayList<>(terms.size());
+            List<String> termList = new ArrayList<>(terms);
+            for (String term : termList) {
+                perTerm.add(candidates(term));
+            }
+            // Start from the most selective term; the others only filter and add to its scores
+            int base = 0;
+            for (int t = 1; t < perTerm.size(); t++) {
+                if (perTerm.get(t).size() < perTerm.get(base).size()) {
+                    base = t;
+                }
+            }
+            Map<Long, Double> scores = perTerm.get(base);
+            for (int t = 0; t < perTerm.size() && !scores.isEmpty(); t++) {
+                if (t == base) {
+                    continue;
+                }
+                Map<Long, Double> candidates = perTerm.get(t);
+                boolean truncated = candidates.size() >= MAX_CANDIDATES;
+                Map<Long, Double> merged = new HashMap<>();
+                for (Map.Entry<Long, Double> e : scores.entrySet()) {
+                    // A truncated candidate list may miss matches, so check the entry's tokens directly
+                    Double score = truncated
+                            ? Double.valueOf(prefixScore(entries.get(e.getKey()), termList.get(t)))
+                            : candidates.get(e.getKey());
+                    if (score != null && score > 0) {
+                        merged.put(e.getKey(), e.getValue() + score);
+                    }
+                }
+                scores = merged;
+            }
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<EmployeeSearchHit> topHits(Map<Long, Double> scores, int limit) {
+        Comparator<Scored> best = Comparator.<Scored>comparingDouble(s -> s.score).reversed()
+                .thenComparing(s -> s.entry.sortKey)
+                .thenComparing(s -> s.entry.hit.getId());
+        // Min-heap of the current top results, worst at the head
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, best.reversed());
+        for (Map.Entry<Long, Double> e : scores.entrySet()) {
+            Entry entry = entries.get(e.getKey());
+            if (entry == null) {
+                continue;
+            }
+            top.add(new Scored(entry, e.getValue()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Scored> sorted = new ArrayList<>(top);
+        sorted.sort(best);
+        List<EmployeeSearchHit> hits = new ArrayList<>(sorted.size());
+        for (Scored s : sorted) {
+            hits.add(s.entry.hit);
+        }
+        return hits;
+    }
+
+    private Map<Long, Double> candidates(String term) {
+        Map<Long, Double> scores = new HashMap<>();
+        TrieNode node = find(term);
+        if (node != null) {
+            addPostings(scores, node, EXACT_SCORE);
+            collectPrefixMatches(scores, node);
+        }
+        // Typo tolerance is for words; near-miss numbers (EMP-001 vs EMP-002) are different employees
+        if (term.length() >= MIN_FUZZY_LENGTH && !containsDigit(term) && scores.size() < MAX_CANDIDATES) {
+            collectFuzzyMatches(scores, term);
+        }
+        return scores;
+    }
+
+    private void collectPrefixMatches(Map<Long, Double> scores, TrieNode start) {
+        List<TrieNode> stack = new ArrayList<>();
+        for (int i = 0; i < start.size; i++) {
+            stack.add(start.children[i]);
+        }
+        while (!stack.isEmpty() && scores.size() < MAX_CANDIDATES) {
+            TrieNode node = stack.remove(stack.size() - 1);
+            addPostings(scores, node, PREFIX_SCORE);
+            for (int i = 0; i < node.size; i++) {
+                stack.add(node.children[i]);
+            }
+        }
+    }
+
+    private void collectFuzzyMatches(Map<Long, Double> scores, String term) {
+        Set<String> queryTrigrams = trigrams(term);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<String> tokens = trigramPostings.get(trigram);
+            if (tokens != null) {
+                for (String token : tokens) {
+                    shared.merge(token, 1, Integer::sum);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> e : shared.entrySet()) {
+            String token = e.getKey();
+            if (token.startsWith(term)) {
+                continue; // already scored as an exact or prefix match
+            }
+            int union = queryTrigrams.size() + tokenTrigramCounts.get(token) - e.getValue();
+            double similarity = (double) e.getValue() / union;
+            if (similarity >= FUZZY_THRESHOLD) {
+                TrieNode node = find(token);
+                if (node != null) {
+                    for (int i = 0; i < node.postingCount; i++) {
+                        scores.merge(node.postings[i], similarity, Math::max);
+                    }
+                }
+            }
+            if (scores.size() >= MAX_CANDIDATES) {
+                return;
+            }
+        }
+    }
+
+    private static boolean containsDigit(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (Character.isDigit(term.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double prefixScore(Entry entry, String term) {
+        double score = 0;
+        if (entry != null) {
+            for (String token : entry.tokens) {
+                if (token.equals(term)) {
+                    return EXACT_SCORE;
+                }
+                if (token.startsWith(term)) {
+                    score = PREFIX_SCORE;
+                }
+            }
+        }
+        return score;
+    }
+
+    private static void addPostings(Map<Long, Double> scores, TrieNode node, double score) {
+        for (int i = 0; i < node.postingCount && scores.size() < MAX_CANDIDATES; i++) {
+            scores.merge(node.postings[i], score, Math::max);
+        }
+    }
+
+    // Index maintenance (write lock held)
+
+    private void upsertLocked(EmployeeSearchHit hit) {
+        Entry existing = entries.get(hit.getId());
+        if (existing != null) {
+            unindex(existing);
+        }
+        Entry entry = new Entry(hit);
+        entries.put(hit.getId(), entry);
+        long id = hit.getId();
+        for (String token : entry.tokens) {
+            TrieNode node = root;
+            for (int i = 0; i < token.length(); i++) {
+                node = node.childOrCreate(token.charAt(i));
+            }
+            if (node.addPosting(id) && node.postingCount == 1) {
+                Set<String> tokenTrigrams = trigrams(token);
+                for (String trigram : tokenTrigrams) {
+                    trigramPostings.computeIfAbsent(trigram, k -> new HashSet<>()).add(token);
+                }
+                tokenTrigramCounts.put(token, tokenTrigrams.size());
+            }
+        }
+    }
+
+    private void unindex(Entry entry) {
+        long id = entry.hit.getId();
+        for (String token : entry.tokens) {
+            if (removePosting(root, token, 0, id)) {
+                tokenTrigramCounts.remove(token);
+                for (String trigram : trigrams(token)) {
+                    Set<String> tokens = trigramPostings.get(trigram);
+                    if (tokens != null && tokens.remove(token) && tokens.isEmpty()) {
+                        trigramPostings.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes {@code id} from the token's postings and prunes emptied nodes.
+     *
+     * @return true if the token no longer has any postings
+     */
+    private static boolean removePosting(TrieNode node, String token, int depth, long id) {
+        if (depth == token.length()) {
+            node.removePosting(id);
+            return node.postingCount == 0;
+        }
+        TrieNode child = node.child(token.charAt(depth));
+        if (child == null) {
+            return false;
+        }
+        boolean vanished = removePosting(child, token, depth + 1, id);
+        if (child.postingCount == 0 && child.size == 0) {
+            node.removeChild(token.charAt(depth));
+        }
+        return vanished;
+    }
+
+    private TrieNode find(String token) {
+        TrieNode node = root;
+        for (int i = 0; i < token.length() && node != null; i++) {
+            node = node.child(token.charAt(i));
+        }
+        return node;
+    }
+
+    // Tokenization
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean alphanumeric = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (alphanumeric && start < 0) {
+                start = i;
+            } else if (!alphanumeric && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Padded like pg_trgm so short tokens and word starts still produce trigrams
+    static Set<String> trigrams(String token) {
+        String padded = "  " + token + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static final class Entry {
+        final EmployeeSearchHit hit;
+        final String[] tokens;
+        final String sortKey;
+
+        Entry(EmployeeSearchHit hit) {
+            this.hit = hit;
+            Set<String> tokens = new LinkedHashSet<>();
+            for (String field : new String[]{hit.getFirstName(), hit.getLastName(), hit.getEmail(),
+                    hit.getEmployeeId(), hit.getJobTitle(), hit.getDepartment()}) {
+                tokens.addAll(tokenize(field));
+            }
+            this.tokens = tokens.toArray(new String[0]);
+            this.sortKey = (nullToEmpty(hit.getLastName()) + " " + nullToEmpty(hit.getFirstName())).toLowerCase(Locale.ROOT);
+        }
+
+        private static String nullToEmpty(String value) {
+            return value != null ? value : "";
+        }
+    }
+
+    private static final class Scored {
+        final Entry entry;
+        final double score;
+
+        Scored(Entry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Trie node with sorted parallel child arrays and a sorted array of employee ids whose
+     * fields contain the token ending at this node.
+     */
+    private static final class TrieNode {
+        private static final char[] NO_KEYS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        char[] keys = NO_KEYS;
+        TrieNode[] children = NO_CHILDREN;
+        int size;
+        long[] postings = NO_POSTINGS;
+        int postingCount;
+
+        TrieNode child(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        TrieNode childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int insertAt = -i - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            TrieNode node = new TrieNode();
+            keys[insertAt] = c;
+            children[insertAt] = node;
+            size++;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(children, i + 1, children, i, size - i - 1);
+            size--;
+            children[size] = null;
+        }
+
+        boolean addPosting(long id) {
+            int i = Arrays.binarySearch(postings, 0, postingCount, id);
+            if (i >= 0) {
+                return false;
+            }
+            int insertAt = -i - 1;
+            if (postingCount == postings.length) {
+                postings = Arrays.copyOf(postings, Math.max(2, postingCount * 2));
+            }
+            System.arraycopy(postings, insertAt, postings, insertAt + 1, postingCount - insertAt);
+            postings[insertAt] = id;
+            postingCount++;
+            return true;
+        }
+
+        void removePosting(long id) {
+            int i = Arrays.binarySearch(postings, 0, postingCount, id);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(postings, i + 1, postings, i, postingCount - i - 1);
+            postingCount--;
+            if (postingCount == 0) {
+                postings = NO_POSTINGS;
+            }
+        }
+    }
+}
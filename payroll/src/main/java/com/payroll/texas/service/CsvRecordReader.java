@@ -0,0 +1,110 @@
+package com.payroll.texas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, double-quote escaping, quoted fields may span lines.
+ * Reads one record at a time, and a record longer than maxRecordLength characters is rejected as soon as the
+ * limit is passed, so memory stays bounded by one record however large the upload or malformed its quoting.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private int pending = -2; // -2 = nothing buffered
+    private long line = 1;
+
+    CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * @return the next record's fields, or {@code null} at end of input
+     * @throws IllegalArgumentException if the record is malformed or longer than maxRecordLength, naming the
+     *         line it starts on
+     */
+    List<String> next() throws IOException {
+        long startLine = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        boolean fieldWasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field in CSV record at line " + startLine);
+                }
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        length = append(field, '"', length, startLine);
+                    } else {
+                        quoted = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    length = append(field, (char) c, length, startLine);
+                }
+            } else if (c == '"' && field.length() == 0 && !fieldWasQuoted) {
+                quoted = true;
+                fieldWasQuoted = true;
+            } else if (c == ',') {
+                length = checkLength(length + 1, startLine);
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldWasQuoted = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') {
+                        pending = n;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                length = append(field, (char) c, length, startLine);
+            }
+            c = read();
+        }
+    }
+
+    private int append(StringBuilder field, char c, int length, long startLine) {
+        field.append(c);
+        // Line breaks inside quoted fields still count towards the line numbers of later records
+        if (c == '\n') {
+            line++;
+        }
+        return checkLength(length + 1, startLine);
+    }
+
+    private int checkLength(int length, long startLine) {
+        if (length > maxRecordLength) {
+            throw new IllegalArgumentException("CSV record at line " + startLine + " is longer than "
+                    + maxRecordLength + " characters");
+        }
+        return length;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
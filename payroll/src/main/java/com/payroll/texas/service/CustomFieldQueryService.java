@@ -0,0 +1,202 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.payroll.texas.dto.customfield.CustomFieldFilter;
+import com.payroll.texas.model.CustomFieldPath;
+import com.payroll.texas.model.CustomFields;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Filters employees, users and companies by custom-field predicates in SQL.
+ *
+ * Filters compile to PostgreSQL jsonb operators on custom_fields: EQ to containment ({@code @>}) and
+ * EXISTS to key existence ({@code ?}, or {@code @?} with a JSON path for nested fields), both served by
+ * the tables' GIN indexes; RANGE to a numeric comparison of the extracted value. Only matching ids come
+ * back, so no entity is loaded to inspect its fields.
+ *
+ * Range filters on a company's indexed numeric employee fields (CustomFieldSchemaService) are written with
+ * the exact expression of that company's partial index, so they are index range scans.
+ */
+@Service
+public class CustomFieldQueryService {
+
+    public static final int MAX_FILTERS = 10;
+
+    private static final String COLUMN = "custom_fields";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomFieldSchemaService customFieldSchemaService;
+
+    /**
+     * @return ids of the company's matching employees after {@code afterId}, in id order, at most {@code limit}
+     */
+    public List<Long> findEmployeeIds(Long companyId, List<CustomFieldFilter> filters, long afterId, int limit) {
+        Predicate predicate = compile(filters, customFieldSchemaService.schema(companyId));
+        List<Object> args = new ArrayList<>();
+        String companyCondition;
+        if (predicate.usesCompanyIndex()) {
+            // A partial index (WHERE company_id = N) is only considered when the plan can see N, which a
+            // generic plan for a bound parameter cannot; the id is a Long, so inlining it is safe
+            companyCondition = "company_id = " + companyId;
+        } else {
+            companyCondition = "company_id = ?";
+            args.add(companyId);
+        }
+        args.add(afterId);
+        args.addAll(predicate.args());
+        args.add(limit);
+        return jdbcTemplate.queryForList("SELECT id FROM employees WHERE " + companyCondition + " AND id > ?"
+                + predicate.sql() + " ORDER BY id LIMIT ?", Long.class, args.toArray());
+    }
+
+    /**
+     * @return ids of the company's matching users after {@code afterId}, in id order, at most {@code limit}
+     */
+    public List<Long> findUserIds(Long companyId, List<CustomFieldFilter> filters, long afterId, int limit) {
+        Predicate predicate = compile(filters);
+        List<Object> args = new ArrayList<>();
+        args.add(companyId);
+        args.add(afterId);
+        args.addAll(predicate.args());
+        args.add(limit);
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE company_id = ? AND id > ?"
+                + predicate.sql() + " ORDER BY id LIMIT ?", Long.class, args.toArray());
+    }
+
+    /**
+     * @return ids of matching companies after {@code afterId}, in id order, at most {@code limit}
+     */
+    public List<Long> findCompanyIds(List<CustomFieldFilter> filters, long afterId, int limit) {
+        Predicate predicate = compile(filters);
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        args.addAll(predicate.args());
+        args.add(limit);
+        return jdbcTemplate.queryForList("SELECT id FROM companies WHERE id > ?"
+                + predicate.sql() + " ORDER BY id LIMIT ?", Long.class, args.toArray());
+    }
+
+    /**
+     * Compiles the filters to " AND ..." conditions on custom_fields with positional parameters.
+     *
+     * @throws IllegalArgumentException if a filter is incomplete or there are more than MAX_FILTERS
+     */
+    static Predicate compile(List<CustomFieldFilter> filters) {
+        return compile(filters, CustomFieldSchema.EMPTY);
+    }
+
+    /**
+     * As {@link #compile(List)}, using the company's indexed expression for range filters on its indexed fields.
+     */
+    static Predicate compile(List<CustomFieldFilter> filters, CustomFieldSchema schema) {
+        if (filters == null || filters.isEmpty()) {
+            return new Predicate("", Collections.emptyList(), false);
+        }
+        if (filters.size() > MAX_FILTERS) {
+            throw new IllegalArgumentException("At most " + MAX_FILTERS + " custom field filters are allowed");
+        }
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        boolean usesCompanyIndex = false;
+        for (CustomFieldFilter filter : filters) {
+            if (filter == null || filter.getOp() == null) {
+                throw new IllegalArgumentException("Custom field filter operator is required");
+            }
+            CustomFieldPath path = CustomFieldPath.of(filter.getPath());
+            List<String> segments = path.getSegments();
+            switch (filter.getOp()) {
+                case EQ -> {
+                    if (filter.getValue() == null) {
+                        throw new IllegalArgumentException("Custom field filter on " + path + " needs a value");
+                    }
+                    // {"a":{"b":value}} - containment on the whole document is what the GIN index serves
+                    sql.append(" AND ").append(COLUMN).append(" @> ?::jsonb");
+                    args.add(new CustomFields().set(path, filter.getValue()).toString());
+                }
+                case EXISTS -> {
+                    // "??" is the JDBC escape for PostgreSQL's ? operator
+                    if (segments.size() == 1) {
+                        sql.append(" AND ").append(COLUMN).append(" ?? ?");
+                        args.add(segments.get(0));
+                    } else {
+                        sql.append(" AND ").append(COLUMN).append(" @?? ?::jsonpath");
+                        args.add(jsonPath(segments));
+                    }
+                }
+                case RANGE -> {
+                    if (filter.getMin() == null && filter.getMax() == null) {
+                        throw new IllegalArgumentException("Custom field range on " + path + " needs a min or max");
+                    }
+                    // Values that are not JSON numbers never match (CASE keeps the cast from seeing them)
+                    String numeric;
+                    List<String> keyArgs;
+                    if (segments.size() == 1 && schema.isIndexedNumeric(segments.get(0))) {
+                        numeric = CustomFieldSchema.numericExpression(segments.get(0));
+                        keyArgs = Collections.emptyList();
+                        usesCompanyIndex = true;
+                    } else {
+                        String node = COLUMN + " -> ?".repeat(segments.size());
+                        String text = COLUMN + " -> ?".repeat(segments.size() - 1) + " ->> ?";
+                        numeric = "(CASE WHEN jsonb_typeof(" + node + ") = 'number' THEN (" + text + ")::numeric END)";
+                        keyArgs = new ArrayList<>(segments);
+                        keyArgs.addAll(segments);
+                    }
+                    if (filter.getMin() != null) {
+                        sql.append(" AND ").append(numeric).append(" >= ?");
+                        args.addAll(keyArgs);
+                        args.add(filter.getMin());
+                    }
+                    if (filter.getMax() != null) {
+                        sql.append(" AND ").append(numeric).append(" <= ?");
+                        args.addAll(keyArgs);
+                        args.add(filter.getMax());
+                    }
+                }
+            }
+        }
+        return new Predicate(sql.toString(), args, usesCompanyIndex);
+    }
+
+    // $."a"."b" with each key as a quoted JSON string, so any key text is safe
+    private static String jsonPath(List<String> segments) {
+        StringBuilder path = new StringBuilder("$");
+        for (String segment : segments) {
+            path.append('.').append(JsonNodeFactory.instance.textNode(segment));
+        }
+        return path.toString();
+    }
+
+    static final class Predicate {
+
+        private final String sql;
+        private final List<Object> args;
+        private final boolean usesCompanyIndex;
+
+        Predicate(String sql, List<Object> args, boolean usesCompanyIndex) {
+            this.sql = sql;
+            this.args = args;
+            this.usesCompanyIndex = usesCompanyIndex;
+        }
+
+        String sql() {
+            return sql;
+        }
+
+        List<Object> args() {
+            return args;
+        }
+
+        boolean usesCompanyIndex() {
+            return usesCompanyIndex;
+        }
+    }
+}
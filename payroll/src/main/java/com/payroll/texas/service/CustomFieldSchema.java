@@ -0,0 +1,148 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.payroll.texas.model.CustomFieldDefinition;
+import com.payroll.texas.model.CustomFieldIndexStatus;
+import com.payroll.texas.model.CustomFieldPath;
+import com.payroll.texas.model.CustomFieldType;
+import com.payroll.texas.model.CustomFields;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A company's custom field definitions compiled into checks. Built once per schema change by
+ * CustomFieldSchemaService and shared read-only by every write that validates against it.
+ *
+ * Fields without a definition are not checked; a company's custom fields stay open-ended.
+ */
+public final class CustomFieldSchema {
+
+    static final CustomFieldSchema EMPTY = new CustomFieldSchema(Collections.emptyMap());
+
+    // Definition names are embedded as literals in index DDL and the matching query expression
+    static final Pattern NAME_PATTERN = Pattern.compile("[a-z][a-z0-9_]{0,39}");
+
+    private final Map<String, CompiledField> fields;
+
+    private CustomFieldSchema(Map<String, CompiledField> fields) {
+        this.fields = fields;
+    }
+
+    static CustomFieldSchema compile(List<CustomFieldDefinition> definitions) {
+        if (definitions.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, CompiledField> fields = new LinkedHashMap<>();
+        for (CustomFieldDefinition definition : definitions) {
+            fields.put(definition.getName(), new CompiledField(definition));
+        }
+        return new CustomFieldSchema(Collections.unmodifiableMap(fields));
+    }
+
+    /**
+     * @return one message per missing required field or value of the wrong type; empty if valid
+     */
+    public List<String> validate(CustomFields values) {
+        if (fields.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> errors = new ArrayList<>();
+        for (CompiledField field : fields.values()) {
+            JsonNode value = values == null ? null : values.get(field.path).orElse(null);
+            if (value == null || value.isNull()) {
+                if (field.required) {
+                    errors.add("Custom field '" + field.name + "' is required");
+                }
+            } else if (!field.check.test(value)) {
+                errors.add("Custom field '" + field.name + "' must be " + field.typeDescription);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @return true if the field is defined as an indexed numeric field whose index is built (READY), so range
+     *         filters on it can use its index
+     */
+    public boolean isIndexedNumeric(String name) {
+        CompiledField field = fields.get(name);
+        return field != null && field.indexedNumeric;
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * The numeric value of a top-level field as SQL, or NULL when it is absent or not a JSON number.
+     * Per-company indexes are built on exactly this expression, so queries must use it verbatim to hit them.
+     */
+    static String numericExpression(String name) {
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid custom field name: " + name);
+        }
+        return "(CASE WHEN jsonb_typeof(custom_fields -> '" + name + "') = 'number' "
+                + "THEN (custom_fields ->> '" + name + "')::numeric END)";
+    }
+
+    private static final class CompiledField {
+
+        private final String name;
+        private final CustomFieldPath path;
+        private final boolean required;
+        private final boolean indexedNumeric;
+        private final Predicate<JsonNode> check;
+        private final String typeDescription;
+
+        CompiledField(CustomFieldDefinition definition) {
+            this.name = definition.getName();
+            this.path = CustomFieldPath.of(definition.getName());
+            this.required = definition.isRequired();
+            // A PENDING or FAILED index does not exist (or is not valid) yet, so queries must not rely on it
+            this.indexedNumeric = definition.isIndexed() && definition.getFieldType().isNumeric()
+                    && definition.getIndexStatus() == CustomFieldIndexStatus.READY;
+            this.check = checkFor(definition.getFieldType());
+            this.typeDescription = describe(definition.getFieldType());
+        }
+
+        private static Predicate<JsonNode> checkFor(CustomFieldType type) {
+            return switch (type) {
+                case STRING -> JsonNode::isTextual;
+                case INTEGER -> node -> node.isIntegralNumber() && node.canConvertToLong();
+                case DECIMAL -> JsonNode::isNumber;
+                case BOOLEAN -> JsonNode::isBoolean;
+                case DATE -> CompiledField::isIsoDate;
+            };
+        }
+
+        private static String describe(CustomFieldType type) {
+            return switch (type) {
+                case STRING -> "a string";
+                case INTEGER -> "an integer";
+                case DECIMAL -> "a number";
+                case BOOLEAN -> "true or false";
+                case DATE -> "a date (YYYY-MM-DD)";
+            };
+        }
+
+        private static boolean isIsoDate(JsonNode node) {
+            if (!node.isTextual()) {
+                return false;
+            }
+            try {
+                LocalDate.parse(node.asText());
+                return true;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.payroll.texas.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.payroll.texas.dto.customfield.CustomFieldDefinitionRequest;
+import com.payroll.texas.model.CustomFieldDefinition;
+import com.payroll.texas.model.CustomFieldIndexStatus;
+import com.payroll.texas.model.CustomFields;
+import com.payroll.texas.repository.CustomFieldDefinitionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-company registry of employee custom field definitions.
+ *
+ * A company's definitions are compiled into a {@link CustomFieldSchema} once and cached, so validating a
+ * write is a walk over precompiled checks rather than a repository read. A change invalidates the local
+ * cache entry after commit; other instances pick it up when their entry expires.
+ *
+ * Indexed numeric fields get a partial B-tree index on employees for that company only, on the same
+ * expression CustomFieldQueryService uses for range filters. Indexes are built and dropped CONCURRENTLY on a
+ * background thread, so defining a field never blocks writes to employees.
+ */
+@Service
+public class CustomFieldSchemaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomFieldSchemaService.class);
+
+    @Autowired
+    private CustomFieldDefinitionRepository definitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Bounds how long another instance validates against a schema this one has changed
+    @Value("${app.custom-fields.schema-cache-ttl:60}")
+    private long schemaCacheTtlSeconds;
+
+    @Value("${app.custom-fields.max-definitions:100}")
+    private int maxDefinitions;
+
+    private LoadingCache<Long, CustomFieldSchema> schemas;
+
+    // Index builds run one at a time; each can take a while on a large employees table
+    private ExecutorService indexExecutor;
+
+    @PostConstruct
+    void init() {
+        schemas = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(schemaCacheTtlSeconds))
+                .build(companyId -> CustomFieldSchema.compile(definitionRepository.findByCompanyId(companyId)));
+        indexExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "custom-field-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // An interrupted build leaves the definition PENDING; defining the field again restarts it
+        indexExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the company's compiled schema; empty if it has no definitions
+     */
+    public CustomFieldSchema schema(Long companyId) {
+        return companyId == null ? CustomFieldSchema.EMPTY : schemas.get(companyId);
+    }
+
+    /**
+     * @throws IllegalArgumentException listing every violation if the values do not match the company's definitions
+     */
+    public void validate(Long companyId, CustomFields values) {
+        List<String> errors = schema(companyId).validate(values);
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+    }
+
+    public List<CustomFieldDefinition> getDefinitions(Long companyId) {
+        return definitionRepository.findByCompanyId(companyId);
+    }
+
+    /**
+     * Creates or replaces the definition of a field. Existing employees are not re-validated; the definition
+     * applies to writes from now on.
+     *
+     * @throws IllegalArgumentException for an invalid name or type, or an indexed non-numeric field
+     */
+    @Transactional
+    public CustomFieldDefinition define(Long companyId, String name, CustomFieldDefinitionRequest request) {
+        if (name == null || !CustomFieldSchema.NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Custom field names must start with a lowercase letter and contain only "
+                    + "lowercase letters, digits and underscores (at most 40 characters)");
+        }
+        if (request.getType() == null) {
+            throw new IllegalArgumentException("Custom field type is required");
+        }
+        if (request.isIndexed() && !request.getType().isNumeric()) {
+            throw new IllegalArgumentException("Only INTEGER and DECIMAL custom fields can be indexed");
+        }
+
+        CustomFieldDefinition definition = definitionRepository.findByCompanyIdAndName(companyId, name).orElse(null);
+        boolean wasIndexed = definition != null && definition.isIndexed();
+        if (definition == null) {
+            if (definitionRepository.countByCompanyId(companyId) >= maxDefinitions) {
+                throw new IllegalArgumentException("A company can define at most " + maxDefinitions + " custom fields");
+            }
+            definition = new CustomFieldDefinition(companyId, name, request.getType(), request.isRequired(), request.isIndexed());
+        } else {
+            definition.setFieldType(request.getType());
+            definition.setRequired(request.isRequired());
+            definition.setIndexed(request.isIndexed());
+            definition.setUpdatedAt(LocalDateTime.now());
+        }
+        definition = definitionRepository.save(definition);
+
+        if (request.isIndexed() && (!wasIndexed || definition.getIndexStatus() != CustomFieldIndexStatus.READY)) {
+            definition.setIndexName("idx_employees_cf_" + definition.getId());
+            definition.setIndexStatus(CustomFieldIndexStatus.PENDING);
+            long definitionId = definition.getId();
+            String indexName = definition.getIndexName();
+            Transactions.afterCommit(() -> indexExecutor.execute(() -> buildIndex(definitionId, companyId, name, indexName)));
+        } else if (!request.isIndexed() && definition.getIndexName() != null) {
+            String indexName = definition.getIndexName();
+            definition.setIndexName(null);
+            definition.setIndexStatus(CustomFieldIndexStatus.NONE);
+            Transactions.afterCommit(() -> indexExecutor.execute(() -> dropIndex(indexName)));
+        }
+
+        Transactions.afterCommit(() -> schemas.invalidate(companyId));
+        logger.info("Defined custom field '{}' for company {} as {} (required={}, indexed={})",
+                name, companyId, request.getType(), request.isRequired(), request.isIndexed());
+        return definition;
+    }
+
+    /**
+     * Removes a field's definition (and its index); stored values are left as they are.
+     *
+     * @throws NoSuchElementException if the company has no such field
+     */
+    @Transactional
+    public void delete(Long companyId, String name) {
+        CustomFieldDefinition definition = definitionRepository.findByCompanyIdAndName(companyId, name)
+                .orElseThrow(() -> new NoSuchElementException("Custom field not found: " + name));
+        definitionRepository.delete(definition);
+        if (definition.getIndexName() != null) {
+            String indexName = definition.getIndexName();
+            Transactions.afterCommit(() -> indexExecutor.execute(() -> dropIndex(indexName)));
+        }
+        Transactions.afterCommit(() -> schemas.invalidate(companyId));
+        logger.info("Deleted custom field '{}' for company {}", name, companyId);
+    }
+
+    // CONCURRENTLY cannot run inside a transaction; these statements run on their own autocommit connection
+    private void buildIndex(long definitionId, Long companyId, String name, String indexName) {
+        long started = System.currentTimeMillis();
+        try {
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + indexName + " ON employees ("
+                    + CustomFieldSchema.numericExpression(name) + ", id) WHERE company_id = " + companyId);
+            updateIndexStatus(definitionId, companyId, indexName, CustomFieldIndexStatus.READY);
+            logger.info("Built index {} on custom field '{}' for company {} in {}ms",
+                    indexName, name, companyId, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Failed to build index {} on custom field '{}' for company {}: {}",
+                    indexName, name, companyId, e.getMessage(), e);
+            // A failed concurrent build leaves an invalid index behind
+            dropIndex(indexName);
+            updateIndexStatus(definitionId, companyId, indexName, CustomFieldIndexStatus.FAILED);
+        }
+    }
+
+    private void dropIndex(String indexName) {
+        try {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indexName);
+        } catch (Exception e) {
+            logger.error("Failed to drop index {}: {}", indexName, e.getMessage(), e);
+        }
+    }
+
+    // Guarded by the index name so a build finishing after the field was redefined does not overwrite newer state.
+    // The compiled schema is dropped so range queries start (or stop) using the index; other instances follow
+    // within the schema cache TTL.
+    private void updateIndexStatus(long definitionId, Long companyId, String indexName, CustomFieldIndexStatus status) {
+        jdbcTemplate.update("UPDATE custom_field_definitions SET index_status = ? WHERE id = ? AND index_name = ?",
+                status.name(), definitionId, indexName);
+        schemas.invalidate(companyId);
+    }
+}
@@ -0,0 +1,252 @@
+package com.payroll.texas.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.payroll.texas.model.CompanyDataKey;
+import com.payroll.texas.model.DataKeyStatus;
+import com.payroll.texas.repository.CompanyDataKeyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Per-company AES data keys for envelope encryption.
+ *
+ * Each company gets its own 256-bit data key, stored in company_data_keys wrapped (AES-GCM) by the
+ * application master key, with the company id as associated data so a wrapped key cannot be moved to
+ * another company. Unwrapped keys are held in a bounded cache by key id, so decrypting a value costs a
+ * map lookup rather than a database read and an unwrap. Rotation retires the active key but keeps it
+ * for decrypting values that have not been re-encrypted yet.
+ */
+@Service
+public class DataKeyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataKeyService.class);
+
+    private static final String WRAP_ALGORITHM = "AES/GCM/NoPadding";
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 16;
+    private static final int DATA_KEY_BITS = 256;
+
+    @Autowired
+    private CompanyDataKeyRepository companyDataKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.encryption.master-key}")
+    private String masterKeyBase64;
+
+    @Value("${app.encryption.master-key-version:1}")
+    private int masterKeyVersion;
+
+    @Value("${app.encryption.data-key-cache-size:10000}")
+    private long dataKeyCacheSize;
+
+    // How long a company -> active key id mapping is trusted; bounds how long another instance keeps
+    // encrypting with a key this one has rotated away from (such values remain decryptable)
+    @Value("${app.encryption.active-key-ttl:60}")
+    private long activeKeyTtlSeconds;
+
+    private SecretKey masterKey;
+
+    private final SecureRandom random = new SecureRandom();
+
+    // Key rows are written in their own short transaction so a caller's transaction never holds the active-key index
+    private TransactionTemplate keyTransaction;
+
+    // key id -> unwrapped data key
+    private LoadingCache<Long, DataKey> unwrappedKeys;
+
+    // company id -> active key id
+    private Cache<Long, Long> activeKeyIds;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Base64.getDecoder().decode(masterKeyBase64);
+        if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
+            logger.error("app.encryption.master-key decodes to {} bytes; AES needs 16, 24 or 32. Data keys cannot be wrapped.", keyBytes.length);
+        }
+        masterKey = new SecretKeySpec(keyBytes, "AES");
+
+        keyTransaction = new TransactionTemplate(transactionManager);
+        keyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        unwrappedKeys = Caffeine.newBuilder()
+                .maximumSize(dataKeyCacheSize)
+                .build(this::loadKey);
+        activeKeyIds = Caffeine.newBuilder()
+                .maximumSize(dataKeyCacheSize)
+                .expireAfterWrite(Duration.ofSeconds(activeKeyTtlSeconds))
+                .build();
+    }
+
+    /**
+     * @return the key new values for this company are encrypted with, created on first use
+     */
+    public DataKey activeKey(Long companyId) {
+        if (companyId == null) {
+            throw new IllegalArgumentException("Company is required for encryption");
+        }
+        return key(activeKeyIds.get(companyId, this::loadOrCreateActiveKeyId));
+    }
+
+    /**
+     * @return the data key with this id, active or retired
+     */
+    public DataKey key(long keyId) {
+        return unwrappedKeys.get(keyId);
+    }
+
+    /**
+     * Retires the company's active key and creates a new one. Values under the retired key stay readable
+     * until the re-encryption job moves them to the new key.
+     *
+     * @return the new active key id
+     */
+    public long rotate(Long companyId) {
+        DataKey created = keyTransaction.execute(status -> {
+            companyDataKeyRepository.retireActive(companyId, DataKeyStatus.ACTIVE, DataKeyStatus.RETIRED, LocalDateTime.now());
+            return createKey(companyId);
+        });
+        activeKeyIds.put(companyId, created.getId());
+        logger.info("Rotated data key for company {}; new key id {}", companyId, created.getId());
+        return created.getId();
+    }
+
+    /**
+     * @return true if the value was encrypted under the company's current key
+     */
+    public boolean isActiveKey(Long companyId, long keyId) {
+        return activeKey(companyId).getId() == keyId;
+    }
+
+    private Long loadOrCreateActiveKeyId(Long companyId) {
+        CompanyDataKey existing = companyDataKeyRepository.findByCompanyIdAndStatus(companyId, DataKeyStatus.ACTIVE).orElse(null);
+        if (existing != null) {
+            return existing.getId();
+        }
+        try {
+            return keyTransaction.execute(status -> createKey(companyId)).getId();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the company's first key at the same time; use theirs
+            return companyDataKeyRepository.findByCompanyIdAndStatus(companyId, DataKeyStatus.ACTIVE)
+                    .orElseThrow(() -> new IllegalStateException("No active data key for company " + companyId, e))
+                    .getId();
+        }
+    }
+
+    private DataKey createKey(Long companyId) {
+        SecretKey dataKey = generateDataKey();
+        CompanyDataKey row = companyDataKeyRepository.save(
+                new CompanyDataKey(companyId, wrap(companyId, dataKey), masterKeyVersion));
+        DataKey created = new DataKey(row.getId(), companyId, dataKey);
+        unwrappedKeys.put(created.getId(), created);
+        logger.info("Created data key {} for company {}", created.getId(), companyId);
+        return created;
+    }
+
+    private DataKey loadKey(Long keyId) {
+        CompanyDataKey row = companyDataKeyRepository.findById(keyId)
+                .orElseThrow(() -> new IllegalStateException("Unknown data key " + keyId));
+        if (row.getMasterKeyVersion() != masterKeyVersion) {
+            throw new IllegalStateException("Data key " + keyId + " is wrapped with master key version "
+                    + row.getMasterKeyVersion() + " but version " + masterKeyVersion + " is configured");
+        }
+        return new DataKey(row.getId(), row.getCompanyId(), unwrap(row.getCompanyId(), row.getWrappedKey()));
+    }
+
+    private SecretKey generateDataKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(DATA_KEY_BITS, random);
+            return generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES key generation not available", e);
+        }
+    }
+
+    // Wrapped layout: IV || encrypted key+tag, Base64 encoded; the company id is bound as associated data
+    String wrap(Long companyId, SecretKey dataKey) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(WRAP_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+            cipher.updateAAD(associatedData(companyId));
+            byte[] wrapped = cipher.doFinal(dataKey.getEncoded());
+
+            byte[] combined = Arrays.copyOf(iv, GCM_IV_LENGTH + wrapped.length);
+            System.arraycopy(wrapped, 0, combined, GCM_IV_LENGTH, wrapped.length);
+            return Base64.getEncoder().encodeToString(combined);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to wrap data key", e);
+        }
+    }
+
+    SecretKey unwrap(Long companyId, String wrappedKey) {
+        try {
+            byte[] combined = Base64.getDecoder().decode(wrappedKey);
+            Cipher cipher = Cipher.getInstance(WRAP_ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, combined, 0, GCM_IV_LENGTH));
+            cipher.updateAAD(associatedData(companyId));
+            byte[] keyBytes = cipher.doFinal(combined, GCM_IV_LENGTH, combined.length - GCM_IV_LENGTH);
+            return new SecretKeySpec(keyBytes, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to unwrap data key for company " + companyId, e);
+        }
+    }
+
+    private static byte[] associatedData(Long companyId) {
+        return ("company:" + companyId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An unwrapped data key and the company it belongs to.
+     */
+    public static final class DataKey {
+
+        private final long id;
+        private final long companyId;
+        private final SecretKey secretKey;
+
+        DataKey(long id, long companyId, SecretKey secretKey) {
+            this.id = id;
+            this.companyId = companyId;
+            this.secretKey = secretKey;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getCompanyId() {
+            return companyId;
+        }
+
+        SecretKey getSecretKey() {
+            return secretKey;
+        }
+    }
+}
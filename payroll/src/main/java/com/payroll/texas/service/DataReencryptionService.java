@@ -0,0 +1,433 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.model.Employee;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Moves SSN, bank and EIN values onto each company's active data key in the background.
+ *
+ * Rows are walked in id order in small chunks (keyset pagination, so every chunk is an index range scan
+ * no matter how far the run has got). Each chunk is read and written outside any transaction: updates
+ * autocommit row by row and only apply if the row still holds the values that were read, so a concurrent
+ * edit wins and no lock is held across the chunk. Between chunks the job sleeps at least as long as the
+ * chunk took, keeping it to half of one connection at most. Plaintext left in the encrypted columns (and
+ * the legacy plaintext ssn column) is encrypted on the way, and missing blind indexes and last-four
+ * display columns are backfilled.
+ */
+@Service
+public class DataReencryptionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataReencryptionService.class);
+
+    private static final String ALL_COMPANIES = "all";
+
+    private static final String SELECT_EMPLOYEES =
+            "SELECT id, company_id, ssn, ssn_encrypted, bank_account_number_encrypted, bank_routing_number_encrypted, " +
+            "ssn_blind_index, bank_account_blind_index, ssn_last4, bank_account_last4, bank_routing_last4 " +
+            "FROM employees WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_COMPANY_EMPLOYEES =
+            "SELECT id, company_id, ssn, ssn_encrypted, bank_account_number_encrypted, bank_routing_number_encrypted, " +
+            "ssn_blind_index, bank_account_blind_index, ssn_last4, bank_account_last4, bank_routing_last4 " +
+            "FROM employees WHERE company_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String UPDATE_EMPLOYEE =
+            "UPDATE employees SET ssn = ?, ssn_encrypted = ?, bank_account_number_encrypted = ?, bank_routing_number_encrypted = ?, " +
+            "ssn_blind_index = ?, bank_account_blind_index = ?, ssn_last4 = ?, bank_account_last4 = ?, bank_routing_last4 = ? " +
+            "WHERE id = ? AND ssn IS NOT DISTINCT FROM ? AND ssn_encrypted IS NOT DISTINCT FROM ? " +
+            "AND bank_account_number_encrypted IS NOT DISTINCT FROM ? AND bank_routing_number_encrypted IS NOT DISTINCT FROM ?";
+
+    private static final String SELECT_COMPANIES =
+            "SELECT id, ein FROM companies WHERE id > ? AND ein IS NOT NULL ORDER BY id LIMIT ?";
+
+    private static final String SELECT_COMPANY =
+            "SELECT id, ein FROM companies WHERE id = ? AND id > ? AND ein IS NOT NULL ORDER BY id LIMIT ?";
+
+    private static final String UPDATE_COMPANY =
+            "UPDATE companies SET ein = ?, ein_encrypted = TRUE WHERE id = ? AND ein IS NOT DISTINCT FROM ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private DataKeyService dataKeyService;
+
+    @Autowired
+    private BlindIndexService blindIndexService;
+
+    @Value("${app.encryption.reencrypt.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.encryption.reencrypt.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${app.encryption.reencrypt.on-startup:false}")
+    private boolean runOnStartup;
+
+    // One job at a time; later requests queue behind it
+    private ExecutorService executor;
+
+    // "all" or company id -> latest run for that scope
+    private final Map<String, Progress> runs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-reencryption");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupts the pause between chunks; a stopped run is simply started again later
+        executor.shutdownNow();
+    }
+
+    /**
+     * Migrates existing plaintext and global-key values for every company once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnStartup() {
+        if (runOnStartup) {
+            start(null);
+        }
+    }
+
+    /**
+     * Queues a re-encryption run for one company, or for all companies when companyId is null.
+     * A run already queued or in progress for the same scope is returned instead of starting another.
+     */
+    public Map<String, Object> start(Long companyId) {
+        String scope = scope(companyId);
+        Progress progress = runs.compute(scope, (key, existing) ->
+                existing != null && !existing.isFinished() ? existing : new Progress(companyId));
+        if (progress.submitted.compareAndSet(false, true)) {
+            executor.execute(() -> run(progress));
+        }
+        return progress.toMap();
+    }
+
+    /**
+     * @return progress of the latest run for the scope, or null if none has been started
+     */
+    public Map<String, Object> getStatus(Long companyId) {
+        Progress progress = runs.get(scope(companyId));
+        return progress != null ? progress.toMap() : null;
+    }
+
+    private void run(Progress progress) {
+        progress.startedAt = LocalDateTime.now();
+        progress.state = "RUNNING";
+        logger.info("Re-encryption started for {}", scope(progress.companyId));
+        try {
+            long lastId = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                long chunkStarted = System.nanoTime();
+                RowMapper<EmployeeRow> mapper = (rs, i) -> new EmployeeRow(
+                        rs.getLong("id"), rs.getLong("company_id"), rs.getString("ssn"), rs.getString("ssn_encrypted"),
+                        rs.getString("bank_account_number_encrypted"), rs.getString("bank_routing_number_encrypted"),
+                        rs.getString("ssn_blind_index"), rs.getString("bank_account_blind_index"),
+                        rs.getString("ssn_last4"), rs.getString("bank_account_last4"), rs.getString("bank_routing_last4"));
+                List<EmployeeRow> rows = progress.companyId == null
+                        ? jdbcTemplate.query(SELECT_EMPLOYEES, mapper, lastId, chunkSize)
+                        : jdbcTemplate.query(SELECT_COMPANY_EMPLOYEES, mapper, progress.companyId, lastId, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                reencryptEmployees(rows, progress);
+                lastId = rows.get(rows.size() - 1).id;
+                pause(chunkStarted);
+            }
+
+            lastId = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                long chunkStarted = System.nanoTime();
+                RowMapper<CompanyRow> mapper = (rs, i) -> new CompanyRow(rs.getLong("id"), rs.getString("ein"));
+                List<CompanyRow> rows = progress.companyId == null
+                        ? jdbcTemplate.query(SELECT_COMPANIES, mapper, lastId, chunkSize)
+                        : jdbcTemplate.query(SELECT_COMPANY, mapper, progress.companyId, lastId, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                reencryptCompanies(rows, progress);
+                lastId = rows.get(rows.size() - 1).id;
+                pause(chunkStarted);
+            }
+
+            progress.state = Thread.currentThread().isInterrupted() ? "INTERRUPTED" : "COMPLETED";
+        } catch (RuntimeException e) {
+            progress.state = "FAILED";
+            logger.error("Re-encryption for {} failed: {}", scope(progress.companyId), e.getMessage(), e);
+        }
+        progress.finishedAt = LocalDateTime.now();
+        logger.info("Re-encryption {} for {}: {} rows scanned, {} updated, {} skipped after concurrent changes, {} failed",
+                progress.state, scope(progress.companyId), progress.scanned.get(), progress.updated.get(),
+                progress.conflicts.get(), progress.failed.get());
+    }
+
+    private void reencryptEmployees(List<EmployeeRow> rows, Progress progress) {
+        List<Object[]> updates = new ArrayList<>();
+        for (EmployeeRow row : rows) {
+            progress.scanned.incrementAndGet();
+            try {
+                long companyId = row.companyId;
+                String ssnEncrypted = row.ssnEncrypted == null && row.ssn != null
+                        ? encryptionService.encrypt(companyId, row.ssn)
+                        : current(companyId, row.ssnEncrypted);
+                // The plaintext column is only cleared once an encrypted copy exists
+                String ssn = ssnEncrypted != null ? null : row.ssn;
+                String account = current(companyId, row.bankAccount);
+                String routing = current(companyId, row.bankRouting);
+
+                // Derived columns are only rebuilt when missing, which is the only time plaintext is needed
+                String ssnPlain = ssnEncrypted == null || (row.ssnBlindIndex != null && row.ssnLast4 != null) ? null
+                        : row.ssnEncrypted == null ? row.ssn : plaintext(companyId, row.ssnEncrypted);
+                String accountPlain = account == null || (row.accountBlindIndex != null && row.accountLast4 != null) ? null
+                        : plaintext(companyId, row.bankAccount);
+                String routingPlain = routing == null || row.routingLast4 != null ? null : plaintext(companyId, row.bankRouting);
+
+                Object[] values = {ssn, ssnEncrypted, account, routing,
+                        row.ssnBlindIndex != null || ssnPlain == null ? row.ssnBlindIndex
+                                : blindIndex(row, () -> blindIndexService.ssnIndex(companyId, ssnPlain)),
+                        row.accountBlindIndex != null || accountPlain == null ? row.accountBlindIndex
+                                : blindIndex(row, () -> blindIndexService.bankAccountIndex(companyId, accountPlain)),
+                        row.ssnLast4 != null || ssnPlain == null ? row.ssnLast4 : lastFour(ssnPlain),
+                        row.accountLast4 != null || accountPlain == null ? row.accountLast4 : lastFour(accountPlain),
+                        row.routingLast4 != null || routingPlain == null ? row.routingLast4 : lastFour(routingPlain)};
+                Object[] stored = {row.ssn, row.ssnEncrypted, row.bankAccount, row.bankRouting, row.ssnBlindIndex,
+                        row.accountBlindIndex, row.ssnLast4, row.accountLast4, row.routingLast4};
+                if (Arrays.equals(values, stored)) {
+                    continue;
+                }
+                Object[] update = Arrays.copyOf(values, values.length + 5);
+                update[values.length] = row.id;
+                System.arraycopy(stored, 0, update, values.length + 1, 4); // compare-and-set on the stored values
+                updates.add(update);
+            } catch (RuntimeException e) {
+                progress.failed.incrementAndGet();
+                logger.warn("Could not re-encrypt employee {}: {}", row.id, e.getMessage());
+            }
+        }
+        apply(UPDATE_EMPLOYEE, updates, progress);
+    }
+
+    private void reencryptCompanies(List<CompanyRow> rows, Progress progress) {
+        List<Object[]> updates = new ArrayList<>();
+        for (CompanyRow row : rows) {
+            progress.scanned.incrementAndGet();
+            try {
+                String ein = current(row.id, row.ein);
+                if (!Objects.equals(ein, row.ein)) {
+                    updates.add(new Object[] {ein, row.id, row.ein});
+                }
+            } catch (RuntimeException e) {
+                progress.failed.incrementAndGet();
+                logger.warn("Could not re-encrypt EIN for company {}: {}", row.id, e.getMessage());
+            }
+        }
+        apply(UPDATE_COMPANY, updates, progress);
+    }
+
+    /**
+     * @return the value encrypted under the company's active key; unchanged if it already is
+     */
+    private String current(long companyId, String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        if (!EncryptionService.isEncrypted(value)) {
+            return encryptionService.encrypt(companyId, value);
+        }
+        Long keyId = EncryptionService.keyIdOf(value);
+        if (keyId != null && dataKeyService.isActiveKey(companyId, keyId)) {
+            return value;
+        }
+        return encryptionService.encrypt(companyId, encryptionService.decrypt(companyId, value));
+    }
+
+    // Plaintext of a stored value that may or may not be encrypted yet
+    private String plaintext(long companyId, String value) {
+        return EncryptionService.isEncrypted(value) ? encryptionService.decrypt(companyId, value) : value;
+    }
+
+    private static String lastFour(String plaintext) {
+        return Employee.lastFour(EncryptionService.normalizeBankAccount(plaintext));
+    }
+
+    // A value that cannot be indexed (e.g. a legacy SSN without 9 digits) is still re-encrypted, just left unindexed
+    private String blindIndex(EmployeeRow row, Supplier<String> index) {
+        try {
+            return index.get();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Could not build blind index for employee {}: {}", row.id, e.getMessage());
+            return null;
+        }
+    }
+
+    private void apply(String sql, List<Object[]> updates, Progress progress) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        int[][] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(sql, updates, updates.size(), this::bind);
+        } catch (DataIntegrityViolationException e) {
+            // e.g. two employees with the same SSN in one company: only those rows fail, not the whole chunk
+            counts = new int[1][updates.size()];
+            for (int i = 0; i < updates.size(); i++) {
+                Object[] values = updates.get(i);
+                try {
+                    counts[0][i] = jdbcTemplate.update(sql, ps -> bind(ps, values));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    counts[0][i] = -1;
+                    logger.warn("Re-encryption update rejected: {}", rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count < 0) {
+                    progress.failed.incrementAndGet();
+                } else if (count == 0) {
+                    progress.conflicts.incrementAndGet(); // changed since it was read; picked up by the next run
+                } else {
+                    progress.updated.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof Long id) {
+                ps.setLong(i + 1, id);
+            } else {
+                ps.setString(i + 1, (String) values[i]); // typed null, so IS NOT DISTINCT FROM can infer the type
+            }
+        }
+    }
+
+    // Sleeps at least as long as the chunk took, so the job never uses more than half of its connection's time
+    private void pause(long chunkStartedNanos) {
+        long chunkMillis = (System.nanoTime() - chunkStartedNanos) / 1_000_000L;
+        try {
+            Thread.sleep(Math.max(pauseMillis, chunkMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String scope(Long companyId) {
+        return companyId != null ? companyId.toString() : ALL_COMPANIES;
+    }
+
+    private static final class EmployeeRow {
+
+        final long id;
+        final long companyId;
+        final String ssn;
+        final String ssnEncrypted;
+        final String bankAccount;
+        final String bankRouting;
+        final String ssnBlindIndex;
+        final String accountBlindIndex;
+        final String ssnLast4;
+        final String accountLast4;
+        final String routingLast4;
+
+        EmployeeRow(long id, long companyId, String ssn, String ssnEncrypted, String bankAccount, String bankRouting,
+                    String ssnBlindIndex, String accountBlindIndex, String ssnLast4, String accountLast4, String routingLast4) {
+            this.id = id;
+            this.companyId = companyId;
+            this.ssn = ssn;
+            this.ssnEncrypted = ssnEncrypted;
+            this.bankAccount = bankAccount;
+            this.bankRouting = bankRouting;
+            this.ssnBlindIndex = ssnBlindIndex;
+            this.accountBlindIndex = accountBlindIndex;
+            this.ssnLast4 = ssnLast4;
+            this.accountLast4 = accountLast4;
+            this.routingLast4 = routingLast4;
+        }
+    }
+
+    private static final class CompanyRow {
+
+        final long id;
+        final String ein;
+
+        CompanyRow(long id, String ein) {
+            this.id = id;
+            this.ein = ein;
+        }
+    }
+
+    /**
+     * Counters for one run, updated by the job thread and read by status requests.
+     */
+    private static final class Progress {
+
+        final Long companyId;
+        final AtomicBoolean submitted = new AtomicBoolean();
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong updated = new AtomicLong();
+        final AtomicLong conflicts = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile String state = "QUEUED";
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        Progress(Long companyId) {
+            this.companyId = companyId;
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("scope", scope(companyId));
+            map.put("state", state);
+            map.put("rowsScanned", scanned.get());
+            map.put("rowsUpdated", updated.get());
+            map.put("rowsSkipped", conflicts.get());
+            map.put("rowsFailed", failed.get());
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            return map;
+        }
+    }
+}
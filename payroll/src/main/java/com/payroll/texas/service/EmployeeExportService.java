@@ -0,0 +1,216 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.payroll.texas.model.EmployeeStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Streams a company's employee roster straight from a server-side JDBC cursor to an output stream.
+ * Rows are written as they are fetched, so memory use is bounded by the fetch size rather than the roster size.
+ * Only non-sensitive columns are exported; SSN, bank and compensation data never leave the database here.
+ */
+@Service
+public class EmployeeExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeExportService.class);
+
+    // Rows pulled from PostgreSQL per round trip. The driver only honours this inside a transaction
+    // (autocommit off); otherwise it buffers the whole result set.
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    static final String[] COLUMNS = {
+            "id", "employee_id", "first_name", "last_name", "email", "phone", "job_title", "department",
+            "employee_type", "status", "compensation_type", "pay_frequency", "hire_date", "termination_date",
+            "city", "state"
+    };
+
+    private static final String EXPORT_SELECT = "SELECT " + String.join(", ", COLUMNS) + " FROM employees ";
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format fromParam(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private JdbcTemplate exportJdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        exportJdbcTemplate = new JdbcTemplate(dataSource);
+        exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Writes every employee of the company (optionally filtered by status) to {@code out}.
+     *
+     * @return the number of rows written
+     */
+    public int exportEmployees(Long companyId, EmployeeStatus status, Format format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        String sql = EXPORT_SELECT + "WHERE company_id = ?" + (status != null ? " AND status = ?" : "") + " ORDER BY id";
+        Object[] args = status != null ? new Object[]{companyId, status.name()} : new Object[]{companyId};
+
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(jsonFactory, out);
+        int[] count = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(tx ->
+                    exportJdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                        try {
+                            writer.write(rs);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        count[0]++;
+                    }, args));
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            // Typically the client disconnected mid-download; the cursor is closed with the rolled back transaction
+            throw e.getCause();
+        }
+
+        logger.info("Exported {} employees for company {} as {} in {}ms",
+                count[0], companyId, format, System.currentTimeMillis() - started);
+        return count[0];
+    }
+
+    interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    static class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+            generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            // Rows are newline-terminated below, so no separator between root values
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong(1));
+            for (int i = 1; i < COLUMNS.length; i++) {
+                generator.writeFieldName(COLUMNS[i]);
+                String value = columnValue(rs, i + 1);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(value);
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            for (int i = 1; i < COLUMNS.length; i++) {
+                writer.write(',');
+                String value = columnValue(rs, i + 1);
+                if (value != null) {
+                    writeCsvField(value);
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeCsvField(String value) throws IOException {
+            // A leading =, +, -, @, tab or CR makes spreadsheets evaluate the cell as a formula
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static String columnValue(ResultSet rs, int index) throws SQLException {
+        Object value = rs.getObject(index);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate().toString();
+        }
+        return value.toString();
+    }
+}
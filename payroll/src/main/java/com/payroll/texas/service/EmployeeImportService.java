@@ -0,0 +1,412 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.payroll.texas.dto.employee.EmployeeImportResult;
+import com.payroll.texas.model.Company;
+import com.payroll.texas.model.Employee;
+import com.payroll.texas.model.EmployeeStatus;
+import com.payroll.texas.repository.EmployeeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk employee import from CSV or a JSON array.
+ * Input is parsed as a stream and validated row by row with {@link EmployeeService#validateEmployee};
+ * valid rows are persisted in chunked transactions so Hibernate can send JDBC batches
+ * (pooled sequence ids + hibernate.jdbc.batch_size). A chunk that fails in the database is
+ * replayed row by row so only the offending rows are reported. Rows whose SSN matches an existing
+ * employee or an earlier row of the same import are reported as duplicates, using the SSN blind index.
+ * Once a row is refused for the plan's seat limit, the remaining active rows are reported as over the
+ * limit without another attempt.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    // Rows per transaction; a multiple of hibernate.jdbc.batch_size
+    static final int IMPORT_CHUNK_SIZE = 1000;
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 200;
+
+    // Far beyond any real employee row; stops a stray quote from buffering the rest of the upload
+    static final int MAX_CSV_RECORD_LENGTH = 64 * 1024;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeSearchService employeeSearchService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private HeadcountService headcountService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public EmployeeImportResult importCsv(Company company, InputStream in) throws IOException {
+        long started = System.currentTimeMillis();
+        EmployeeImportResult result = new EmployeeImportResult();
+        ChunkWriter writer = new ChunkWriter(result);
+
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), MAX_CSV_RECORD_LENGTH);
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        List<String> properties = new ArrayList<>(header.size());
+        for (String column : header) {
+            properties.add(toPropertyName(column));
+        }
+
+        long row = 0;
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue; // blank line
+            }
+            row++;
+            if (record.size() != properties.size()) {
+                result.addError(row, "Expected " + properties.size() + " columns but found " + record.size());
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < record.size(); i++) {
+                String value = record.get(i).trim();
+                if (!value.isEmpty()) {
+                    values.put(properties.get(i), value);
+                }
+            }
+            try {
+                writer.add(row, prepare(objectMapper.convertValue(values, Employee.class), company));
+            } catch (RuntimeException e) {
+                result.addError(row, errorMessage(e));
+            }
+        }
+        writer.flush();
+
+        return finish(result, row, started, company, "CSV");
+    }
+
+    public EmployeeImportResult importJson(Company company, InputStream in) throws IOException {
+        long started = System.currentTimeMillis();
+        EmployeeImportResult result = new EmployeeImportResult();
+        ChunkWriter writer = new ChunkWriter(result);
+
+        long row = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON input must be an array of employees");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                row++;
+                // Read each element as a tree first so a bad row cannot leave the parser mid-object
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    writer.add(row, prepare(objectMapper.treeToValue(node, Employee.class), company));
+                } catch (IOException | RuntimeException e) {
+                    result.addError(row, errorMessage(e));
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("Unexpected " + parser.currentToken() + " at row " + (row + 1));
+            }
+        }
+        writer.flush();
+
+        return finish(result, row, started, company, "JSON");
+    }
+
+    private Employee prepare(Employee employee, Company company) {
+        employee.setId(null);
+        employee.setCompany(company);
+        employeeService.validateEmployee(employee);
+        // Format errors are reported against the row here; the chunk is encrypted in one pass on flush
+        EncryptionService.normalizeSSN(employee.getSsn());
+        if (!EncryptionService.isEncrypted(employee.getBankRoutingNumberEncrypted())) {
+            EncryptionService.normalizeRoutingNumber(employee.getBankRoutingNumberEncrypted());
+        }
+        return employee;
+    }
+
+    private EmployeeImportResult finish(EmployeeImportResult result, long rows, long started, Company company, String format) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        result.setTotalRows(rows);
+        result.setElapsedMillis(elapsed);
+        result.setRowsPerSecond(Math.round(result.getImportedRows() * 10000.0 / elapsed) / 10.0);
+        logger.info("Imported {} of {} employees ({} failed) for company {} from {} in {}ms ({} rows/sec)",
+                result.getImportedRows(), rows, result.getFailedRows(), company.getId(), format, elapsed,
+                result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * Buffers validated rows and writes them one chunk per transaction.
+     */
+    private class ChunkWriter {
+
+        private final EmployeeImportResult result;
+        private final List<Employee> employees = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        private final List<Long> rows = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        // Later rows of the chunk repeating an SSN; written or rejected once the first one has landed or failed
+        private final List<Employee> repeatedSsnEmployees = new ArrayList<>();
+        private final List<Long> repeatedSsnRows = new ArrayList<>();
+        // SSN blind indexes of rows this import has committed
+        private final Set<String> importedSsnIndexes = new HashSet<>();
+        // Set once a row is refused for the seat limit; later active rows are rejected without another attempt
+        private SeatLimitExceededException seatLimitReached;
+
+        ChunkWriter(EmployeeImportResult result) {
+            this.result = result;
+        }
+
+        void add(long row, Employee employee) {
+            employees.add(employee);
+            rows.add(row);
+            if (employees.size() >= IMPORT_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (seatLimitReached != null) {
+                rejectActiveRows();
+            }
+            if (employees.isEmpty()) {
+                return;
+            }
+            try {
+                employeeService.encryptSensitiveFields(employees, employees.get(0).getCompany().getId());
+            } catch (RuntimeException e) {
+                // Never fall back to writing plaintext; the whole chunk fails
+                for (Long row : rows) {
+                    result.addError(row, errorMessage(e));
+                }
+                employees.clear();
+                rows.clear();
+                return;
+            }
+            removeDuplicateSsns();
+            if (employees.isEmpty()) {
+                return;
+            }
+            try {
+                chunkTransaction.executeWithoutResult(tx -> {
+                    // A chunk that would go over the plan's seat limit is replayed so the rows that fit still land
+                    headcountService.reserve(employees.get(0).getCompany().getId(), countActive(employees));
+                    for (Employee employee : employees) {
+                        entityManager.persist(employee);
+                    }
+                    employeeSearchService.indexAfterCommit(employees);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                result.setImportedRows(result.getImportedRows() + employees.size());
+                for (Employee employee : employees) {
+                    if (employee.getSsnBlindIndex() != null) {
+                        importedSsnIndexes.add(employee.getSsnBlindIndex());
+                    }
+                }
+            } catch (RuntimeException chunkFailure) {
+                logger.warn("Import chunk of {} rows failed ({}); retrying row by row",
+                        employees.size(), errorMessage(chunkFailure));
+                for (int i = 0; i < employees.size(); i++) {
+                    writeRow(rows.get(i), employees.get(i));
+                }
+            }
+            for (int i = 0; i < repeatedSsnEmployees.size(); i++) {
+                writeRow(repeatedSsnRows.get(i), repeatedSsnEmployees.get(i));
+            }
+            employees.clear();
+            rows.clear();
+            repeatedSsnEmployees.clear();
+            repeatedSsnRows.clear();
+        }
+
+        // One indexed IN query per chunk instead of a lookup per row
+        private void removeDuplicateSsns() {
+            Long companyId = employees.get(0).getCompany().getId();
+            List<String> indexes = new ArrayList<>(employees.size());
+            for (Employee employee : employees) {
+                if (employee.getSsnBlindIndex() != null) {
+                    indexes.add(employee.getSsnBlindIndex());
+                }
+            }
+            if (indexes.isEmpty()) {
+                return;
+            }
+            Set<String> existing = new HashSet<>(employeeRepository.findExistingSsnBlindIndexes(companyId, indexes));
+
+            // Compact in place; the first occurrence of an SSN within the chunk is the one written with it
+            Set<String> inChunk = new HashSet<>();
+            int kept = 0;
+            for (int i = 0; i < employees.size(); i++) {
+                String ssnIndex = employees.get(i).getSsnBlindIndex();
+                if (ssnIndex != null && existing.contains(ssnIndex)) {
+                    result.addError(rows.get(i), "SSN matches an existing employee");
+                } else if (ssnIndex != null && importedSsnIndexes.contains(ssnIndex)) {
+                    result.addError(rows.get(i), "SSN appears earlier in this import");
+                } else if (ssnIndex != null && !inChunk.add(ssnIndex)) {
+                    repeatedSsnEmployees.add(employees.get(i));
+                    repeatedSsnRows.add(rows.get(i));
+                } else {
+                    employees.set(kept, employees.get(i));
+                    rows.set(kept, rows.get(i));
+                    kept++;
+                }
+            }
+            employees.subList(kept, employees.size()).clear();
+            rows.subList(kept, rows.size()).clear();
+        }
+
+        // The plan is full, so active rows cannot fit; inactive rows do not take a seat and are still imported
+        private void rejectActiveRows() {
+            int kept = 0;
+            for (int i = 0; i < employees.size(); i++) {
+                if (employees.get(i).getStatus() == EmployeeStatus.ACTIVE) {
+                    result.addError(rows.get(i), errorMessage(seatLimitReached));
+                } else {
+                    employees.set(kept, employees.get(i));
+                    rows.set(kept, rows.get(i));
+                    kept++;
+                }
+            }
+            employees.subList(kept, employees.size()).clear();
+            rows.subList(kept, rows.size()).clear();
+        }
+
+        // Writes one row in its own transaction, after a failed chunk or for a repeated SSN
+        private void writeRow(long row, Employee employee) {
+            if (seatLimitReached != null && employee.getStatus() == EmployeeStatus.ACTIVE) {
+                result.addError(row, errorMessage(seatLimitReached));
+                return;
+            }
+            String ssnIndex = employee.getSsnBlindIndex();
+            if (ssnIndex != null && importedSsnIndexes.contains(ssnIndex)) {
+                result.addError(row, "SSN appears earlier in this import");
+                return;
+            }
+            // Ids assigned during the rolled back attempt would make persist() treat the row as detached
+            employee.setId(null);
+            try {
+                chunkTransaction.executeWithoutResult(tx -> {
+                    headcountService.reserve(employee.getCompany().getId(), countActive(List.of(employee)));
+                    entityManager.persist(employee);
+                    employeeSearchService.indexAfterCommit(employee);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                result.setImportedRows(result.getImportedRows() + 1);
+                if (ssnIndex != null) {
+                    importedSsnIndexes.add(ssnIndex);
+                }
+            } catch (SeatLimitExceededException e) {
+                seatLimitReached = e;
+                result.addError(row, errorMessage(e));
+            } catch (RuntimeException e) {
+                result.addError(row, errorMessage(e));
+            }
+        }
+    }
+
+    private static int countActive(List<Employee> employees) {
+        int active = 0;
+        for (Employee employee : employees) {
+            if (employee.getStatus() == EmployeeStatus.ACTIVE) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    // Accepts camelCase property names as well as snake_case database column names
+    private static String toPropertyName(String column) {
+        String name = column.trim();
+        if (name.indexOf('_') < 0) {
+            return name;
+        }
+        StringBuilder property = new StringBuilder(name.length());
+        boolean upper = false;
+        for (char c : name.toLowerCase().toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                property.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return property.toString();
+    }
+
+    private static String errorMessage(Exception e) {
+        // Constraint details can echo the offending value (e.g. an SSN), so only the constraint name is reported
+        ConstraintViolationException violation = findCause(e, ConstraintViolationException.class);
+        if (violation != null) {
+            return "Violates constraint " + violation.getConstraintName();
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) {
+            return e.getClass().getSimpleName();
+        }
+        // Jackson messages carry source locations and property listings on later lines / in long tails
+        int newline = message.indexOf('\n');
+        if (newline > 0) {
+            message = message.substring(0, newline);
+        }
+        return message.length() > MAX_ERROR_MESSAGE_LENGTH
+                ? message.substring(0, MAX_ERROR_MESSAGE_LENGTH) + "..."
+                : message;
+    }
+
+    private static <T extends Throwable> T findCause(Throwable e, Class<T> type) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return type.cast(t);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,120 @@
+package com.payroll.texas.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.payroll.texas.dto.employee.EmployeeSearchHit;
+import com.payroll.texas.model.Employee;
+import com.payroll.texas.repository.EmployeeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Type-ahead employee search served from per-company in-memory indexes.
+ * An index is built from the database on a company's first search and then maintained from
+ * employee writes, applied only once the writing transaction has committed. At most index-max-companies
+ * indexes are kept, and one not searched or written for index-idle-minutes is dropped; the company's next
+ * search rebuilds it. Writes made on other instances are not seen here, so every index is also rebuilt
+ * index-max-age-minutes after it was built, however often it is searched; that bounds how long an employee
+ * added, renamed or deleted elsewhere is reported stale on this instance.
+ */
+@Service
+public class EmployeeSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSearchService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Value("${app.search.index-max-companies:1000}")
+    private long maxIndexedCompanies;
+
+    @Value("${app.search.index-idle-minutes:30}")
+    private long indexIdleMinutes;
+
+    @Value("${app.search.index-max-age-minutes:10}")
+    private long indexMaxAgeMinutes;
+
+    private Cache<Long, CompanySearchIndex> indexes;
+
+    @PostConstruct
+    void init() {
+        indexes = Caffeine.newBuilder()
+                .maximumSize(maxIndexedCompanies)
+                .expireAfterAccess(Duration.ofMinutes(indexIdleMinutes))
+                .expireAfterWrite(Duration.ofMinutes(indexMaxAgeMinutes))
+                .build();
+    }
+
+    public List<EmployeeSearchHit> search(Long companyId, String query, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return index(companyId).search(query, pageSize);
+    }
+
+    /**
+     * Adds or refreshes the employee in its company's index once the current transaction commits.
+     */
+    public void indexAfterCommit(Employee employee) {
+        indexAfterCommit(List.of(employee));
+    }
+
+    public void indexAfterCommit(Collection<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        Long companyId = employees.iterator().next().getCompany().getId();
+        List<EmployeeSearchHit> hits = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            hits.add(toSearchHit(employee));
+        }
+        Transactions.afterCommit(() -> {
+            CompanySearchIndex index = indexes.getIfPresent(companyId);
+            if (index != null) {
+                index.upsertAll(hits);
+            }
+        });
+    }
+
+    public void removeAfterCommit(Long companyId, Long employeeId) {
+        Transactions.afterCommit(() -> {
+            CompanySearchIndex index = indexes.getIfPresent(companyId);
+            if (index != null) {
+                index.remove(employeeId);
+            }
+        });
+    }
+
+    private CompanySearchIndex index(Long companyId) {
+        // Only the empty index is created inside the cache's compute; the load below runs outside it
+        CompanySearchIndex index = indexes.get(companyId, id -> new CompanySearchIndex());
+        if (!index.isLoaded()) {
+            index.loadIfNeeded(() -> {
+                long started = System.currentTimeMillis();
+                List<EmployeeSearchHit> hits = employeeRepository.findSearchHitsByCompanyId(companyId);
+                logger.info("Built search index for company {} with {} employees in {}ms",
+                        companyId, hits.size(), System.currentTimeMillis() - started);
+                return hits;
+            });
+        }
+        return index;
+    }
+
+    private static EmployeeSearchHit toSearchHit(Employee employee) {
+        return new EmployeeSearchHit(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getEmployeeId(), employee.getJobTitle(), employee.getDepartment());
+    }
+}
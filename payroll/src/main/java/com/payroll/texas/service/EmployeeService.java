@@ -1,7 +1,11 @@
 package com.payroll.texas.service;
 
+import com.payroll.texas.dto.employee.EmployeePage;
+import com.payroll.texas.dto.employee.EmployeeQueryRequest;
+import com.payroll.texas.dto.employee.EmployeeSummary;
 import com.payroll.texas.model.Company;
 import com.payroll.texas.model.Employee;
+import com.payroll.texas.model.EmployeeStatus;
 import com.payroll.texas.model.User;
 import com.payroll.texas.repository.CompanyRepository;
 import com.payroll.texas.repository.EmployeeRepository;
@@ -9,11 +13,19 @@ import com.payroll.texas.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Service
@@ -22,6 +34,13 @@ public class EmployeeService {
     
     private static final Logger logger = LoggerFactory.getLogger(EmployeeService.class);
     
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    // Ceiling for the listing without limit/after; larger rosters continue with keyset pages
+    public static final int MAX_UNPAGINATED_ROWS = 5000;
+    public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_LAST_NAME = "lastName";
+    
     @Autowired
     private EmployeeRepository employeeRepository;
     
@@ -31,9 +50,47 @@ public class EmployeeService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EmployeeSearchService employeeSearchService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private BlindIndexService blindIndexService;
+    
+    @Autowired
+    private CustomFieldQueryService customFieldQueryService;
+    
+    @Autowired
+    private CustomFieldSchemaService customFieldSchemaService;
+
+    @Autowired
+    private HeadcountService headcountService;
+
     public Employee saveEmployee(Employee employee) {
         logger.info("Saving employee: {}", employee.getEmail());
         
+        validateEmployee(employee);
+        
+        encryptSensitiveFields(List.of(employee), employee.getCompany().getId());
+        checkDuplicateSsn(employee);
+        if (employee.getStatus() == EmployeeStatus.ACTIVE) {
+            headcountService.reserve(employee.getCompany().getId(), 1);
+        }
+
+        Employee savedEmployee = employeeRepository.save(employee);
+        employeeSearchService.indexAfterCommit(savedEmployee);
+        logger.info("Employee saved successfully with ID: {}", savedEmployee.getId());
+        return savedEmployee;
+    }
+
+    /**
+     * Validates a new employee and fills in defaults. Shared by single saves and bulk import;
+     * runs without opening a transaction so the import can validate rows while parsing.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void validateEmployee(Employee employee) {
         // Validate required fields
         if (employee.getFirstName() == null || employee.getFirstName().trim().isEmpty()) {
             throw new RuntimeException("First name is required");
@@ -53,6 +110,9 @@ public class EmployeeService {
             throw new RuntimeException("Company is required for employee creation");
         }
         
+        // Checked against the company's compiled custom field definitions (cached, no query per row)
+        customFieldSchemaService.validate(employee.getCompany().getId(), employee.getCustomFields());
+        
         // Set default values
         if (employee.getStatus() == null) {
             employee.setStatus(com.payroll.texas.model.EmployeeStatus.ACTIVE);
@@ -63,31 +123,104 @@ public class EmployeeService {
         }
         
         employee.setUpdatedAt(LocalDateTime.now());
-        
-        // TODO: Temporarily disable encryption for testing - re-enable later
-        // Handle SSN encryption if provided
-        if (employee.getSsn() != null && !employee.getSsn().isEmpty()) {
-            // String encryptedSsn = encryptionService.encryptSSN(employee.getSsn());
-            // employee.setSsnEncrypted(encryptedSsn);
-            logger.info("SSN encryption temporarily disabled for testing");
+    }
+
+    /**
+     * Encrypts SSN and bank details still held as plaintext with the company's data key, one batch per field,
+     * and sets their blind indexes and last-four display columns. The plaintext ssn column is cleared; values
+     * that are already encrypted are left as they are.
+     * Shared by single saves and bulk import, and does not need a transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void encryptSensitiveFields(List<Employee> employees, Long companyId) {
+        List<String> ssns = new ArrayList<>(employees.size());
+        List<String> accounts = new ArrayList<>(employees.size());
+        List<String> routings = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            ssns.add(EncryptionService.normalizeSSN(employee.getSsn()));
+            accounts.add(EncryptionService.isEncrypted(employee.getBankAccountNumberEncrypted())
+                    ? null : EncryptionService.normalizeBankAccount(employee.getBankAccountNumberEncrypted()));
+            routings.add(EncryptionService.isEncrypted(employee.getBankRoutingNumberEncrypted())
+                    ? null : EncryptionService.normalizeRoutingNumber(employee.getBankRoutingNumberEncrypted()));
         }
 
-        // Handle bank account encryption if provided
-        if (employee.getBankAccountNumberEncrypted() != null && !employee.getBankAccountNumberEncrypted().isEmpty()) {
-            // String encryptedAccountNumber = encryptionService.encryptBankAccount(employee.getBankAccountNumberEncrypted());
-            // employee.setBankAccountNumberEncrypted(encryptedAccountNumber);
-            logger.info("Bank account encryption temporarily disabled for testing");
+        List<String> encryptedSsns = encryptionService.encryptAll(companyId, ssns);
+        List<String> encryptedAccounts = encryptionService.encryptAll(companyId, accounts);
+        List<String> encryptedRoutings = encryptionService.encryptAll(companyId, routings);
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (encryptedSsns.get(i) != null) {
+                employee.setSsnEncrypted(encryptedSsns.get(i));
+                employee.setSsnBlindIndex(blindIndexService.ssnIndex(companyId, ssns.get(i)));
+                employee.setSsnLast4(Employee.lastFour(ssns.get(i)));
+                employee.setSsn(null);
+            }
+            if (encryptedAccounts.get(i) != null) {
+                employee.setBankAccountNumberEncrypted(encryptedAccounts.get(i));
+                employee.setBankAccountBlindIndex(blindIndexService.bankAccountIndex(companyId, accounts.get(i)));
+                employee.setBankAccountLast4(Employee.lastFour(accounts.get(i)));
+            }
+            if (encryptedRoutings.get(i) != null) {
+                employee.setBankRoutingNumberEncrypted(encryptedRoutings.get(i));
+                employee.setBankRoutingLast4(Employee.lastFour(routings.get(i)));
+            }
         }
+    }
 
-        if (employee.getBankRoutingNumberEncrypted() != null && !employee.getBankRoutingNumberEncrypted().isEmpty()) {
-            // String encryptedRoutingNumber = encryptionService.encryptRoutingNumber(employee.getBankRoutingNumberEncrypted());
-            // employee.setBankRoutingNumberEncrypted(encryptedRoutingNumber);
-            logger.info("Bank routing encryption temporarily disabled for testing");
+    /**
+     * Finds employees in the company by SSN or bank account number with one indexed lookup on the blind index.
+     * Exactly one of the two values is expected; employees saved before blind indexes existed are only found
+     * once the re-encryption job has backfilled them.
+     */
+    @Transactional(readOnly = true)
+    public List<EmployeeSummary> findBySensitiveValue(Long companyId, String ssn, String bankAccountNumber) {
+        if (ssn != null && !ssn.isBlank()) {
+            return employeeRepository.findSummariesBySsnBlindIndex(companyId, blindIndexService.ssnIndex(companyId, ssn));
         }
+        String accountIndex = blindIndexService.bankAccountIndex(companyId, bankAccountNumber);
+        if (accountIndex == null) {
+            throw new IllegalArgumentException("Either ssn or bankAccountNumber is required");
+        }
+        return employeeRepository.findSummariesByBankAccountBlindIndex(companyId, accountIndex);
+    }
 
-        Employee savedEmployee = employeeRepository.save(employee);
-        logger.info("Employee saved successfully with ID: {}", savedEmployee.getId());
-        return savedEmployee;
+    /**
+     * Decrypts an employee's SSN. This and {@link #revealBankDetails} are the only read paths that decrypt;
+     * callers must check the caller's privileges and audit the access.
+     */
+    @Transactional(readOnly = true)
+    public String revealSsn(Long companyId, Long employeeId) {
+        Employee employee = getCompanyEmployee(companyId, employeeId);
+        return employee.getSsnEncrypted() != null
+                ? encryptionService.decryptSSN(companyId, employee.getSsnEncrypted())
+                : employee.getSsn(); // a legacy row the re-encryption job has not reached yet
+    }
+
+    /**
+     * Decrypts an employee's bank account and routing number.
+     * @return accountNumber and routingNumber, either of which may be null
+     */
+    @Transactional(readOnly = true)
+    public Map<String, String> revealBankDetails(Long companyId, Long employeeId) {
+        Employee employee = getCompanyEmployee(companyId, employeeId);
+        Map<String, String> details = new HashMap<>();
+        details.put("accountNumber", encryptionService.decryptBankAccount(companyId, employee.getBankAccountNumberEncrypted()));
+        details.put("routingNumber", encryptionService.decryptRoutingNumber(companyId, employee.getBankRoutingNumberEncrypted()));
+        return details;
+    }
+
+    private Employee getCompanyEmployee(Long companyId, Long employeeId) {
+        return employeeRepository.findByIdAndCompanyId(employeeId, companyId)
+                .orElseThrow(() -> new NoSuchElementException("Employee not found with ID: " + employeeId));
+    }
+
+    // Gives a readable error; the unique index on (company_id, ssn_blind_index) still guards concurrent saves
+    private void checkDuplicateSsn(Employee employee) {
+        if (employee.getSsnBlindIndex() != null && employee.getCompany() != null
+                && employeeRepository.existsBySsnBlindIndex(employee.getCompany().getId(), employee.getSsnBlindIndex(),
+                        employee.getId() != null ? employee.getId() : 0L)) {
+            throw new RuntimeException("An employee with this SSN already exists in the company");
+        }
     }
 
     public List<Employee> getAllEmployees() {
@@ -150,7 +283,13 @@ public class EmployeeService {
         if (employeeDetails.getTerminationDate() != null) {
             employee.setTerminationDate(employeeDetails.getTerminationDate());
         }
-        if (employeeDetails.getStatus() != null) {
+        if (employeeDetails.getStatus() != null && employeeDetails.getStatus() != employee.getStatus()) {
+            Long companyId = employee.getCompany() != null ? employee.getCompany().getId() : null;
+            if (employeeDetails.getStatus() == EmployeeStatus.ACTIVE) {
+                headcountService.reserve(companyId, 1);
+            } else if (employee.getStatus() == EmployeeStatus.ACTIVE) {
+                headcountService.release(companyId, 1);
+            }
             employee.setStatus(employeeDetails.getStatus());
         }
         if (employeeDetails.getEmployeeType() != null) {
@@ -199,28 +338,26 @@ public class EmployeeService {
             employee.setIsExempt(employeeDetails.getIsExempt());
         }
         if (employeeDetails.getCustomFields() != null) {
+            customFieldSchemaService.validate(employee.getCompany() != null ? employee.getCompany().getId() : null,
+                    employeeDetails.getCustomFields());
             employee.setCustomFields(employeeDetails.getCustomFields());
         }
 
-        // TODO: Temporarily disable encryption for testing - re-enable later
-        // Handle SSN encryption if provided
+        // Only new plaintext is accepted; ciphertext echoed back by a client keeps the stored value
         if (employeeDetails.getSsn() != null && !employeeDetails.getSsn().isEmpty()) {
-            // String encryptedSsn = encryptionService.encryptSSN(employeeDetails.getSsn());
-            // employee.setSsnEncrypted(encryptedSsn);
-            logger.info("SSN encryption temporarily disabled for testing");
+            employee.setSsn(employeeDetails.getSsn());
         }
-
-        // Handle bank account encryption if provided
-        if (employeeDetails.getBankAccountNumberEncrypted() != null && !employeeDetails.getBankAccountNumberEncrypted().isEmpty()) {
-            // String encryptedAccountNumber = encryptionService.encryptBankAccount(employeeDetails.getBankAccountNumberEncrypted());
-            // employee.setBankAccountNumberEncrypted(encryptedAccountNumber);
-            logger.info("Bank account encryption temporarily disabled for testing");
+        if (employeeDetails.getBankAccountNumberEncrypted() != null
+                && !EncryptionService.isEncrypted(employeeDetails.getBankAccountNumberEncrypted())) {
+            employee.setBankAccountNumberEncrypted(employeeDetails.getBankAccountNumberEncrypted());
         }
-
-        if (employeeDetails.getBankRoutingNumberEncrypted() != null && !employeeDetails.getBankRoutingNumberEncrypted().isEmpty()) {
-            // String encryptedRoutingNumber = encryptionService.encryptRoutingNumber(employeeDetails.getBankRoutingNumberEncrypted());
-            // employee.setBankRoutingNumberEncrypted(encryptedRoutingNumber);
-            logger.info("Bank routing encryption temporarily disabled for testing");
+        if (employeeDetails.getBankRoutingNumberEncrypted() != null
+                && !EncryptionService.isEncrypted(employeeDetails.getBankRoutingNumberEncrypted())) {
+            employee.setBankRoutingNumberEncrypted(employeeDetails.getBankRoutingNumberEncrypted());
+        }
+        encryptSensitiveFields(List.of(employee), employee.getCompany() != null ? employee.getCompany().getId() : null);
+        if (employeeDetails.getSsn() != null && !employeeDetails.getSsn().isEmpty()) {
+            checkDuplicateSsn(employee);
         }
 
         if (employeeDetails.getBankName() != null) {
@@ -233,6 +370,9 @@ public class EmployeeService {
         employee.setUpdatedAt(LocalDateTime.now());
 
         Employee updatedEmployee = employeeRepository.save(employee);
+        if (updatedEmployee.getCompany() != null) {
+            employeeSearchService.indexAfterCommit(updatedEmployee);
+        }
         logger.info("Employee updated successfully: {}", updatedEmployee.getEmail());
         return updatedEmployee;
     }
@@ -242,6 +382,12 @@ public class EmployeeService {
         Employee employee = employeeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Employee not found with id: " + id));
         employeeRepository.delete(employee);
+        if (employee.getCompany() != null) {
+            if (employee.getStatus() == EmployeeStatus.ACTIVE) {
+                headcountService.release(employee.getCompany().getId(), 1);
+            }
+            employeeSearchService.removeAfterCommit(employee.getCompany().getId(), id);
+        }
         logger.info("Employee deleted successfully");
     }
 
@@ -255,6 +401,14 @@ public class EmployeeService {
         }
         return company;
     }
+
+    /**
+     * Reference to the caller's company for associating new rows, without loading it.
+     * The principal's company id has already been checked against the database by the auth filter.
+     */
+    public Company getCompanyReference(Long companyId) {
+        return companyRepository.getReferenceById(companyId);
+    }
     
     /**
      * Get company from authenticated user context
@@ -287,4 +441,124 @@ public class EmployeeService {
         logger.info("Fetching employees for company ID: {} and status: {}", companyId, status);
         return employeeRepository.findByCompanyIdAndStatus(companyId, status);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Unpaginated company listing backed by the summary projection (no entity hydration), capped at
+     * MAX_UNPAGINATED_ROWS rows in id order. When the roster is larger, the returned page's nextCursor
+     * continues the listing through {@link #getEmployeePage}.
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeeSummaries(Long companyId, EmployeeStatus status) {
+        logger.info("Fetching employee summaries for company ID: {} and status: {}", companyId, status);
+        return fetchPage(companyId, status, MAX_UNPAGINATED_ROWS, null, false);
+    }
+
+    /**
+     * Keyset-paginated company listing. The cursor is opaque to clients and encodes the
+     * sort key of the last returned row, so every page is a bounded index range scan
+     * regardless of how deep into the roster the client is.
+     *
+     * @param companyId the company to list
+     * @param status optional status filter
+     * @param limit requested page size (clamped to 1..MAX_PAGE_SIZE)
+     * @param after cursor returned as nextCursor by the previous page, or null for the first page
+     * @param sort "id" (default) or "lastName"
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeePage(Long companyId, EmployeeStatus status, Integer limit, String after, String sort) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean byLastName = SORT_BY_LAST_NAME.equalsIgnoreCase(sort);
+        if (sort != null && !byLastName && !SORT_BY_ID.equalsIgnoreCase(sort)) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        logger.info("Fetching employee page for company ID: {}, status: {}, limit: {}, sort: {}",
+                companyId, status, pageSize, byLastName ? SORT_BY_LAST_NAME : SORT_BY_ID);
+        return fetchPage(companyId, status, pageSize, after, byLastName);
+    }
+
+    private EmployeePage fetchPage(Long companyId, EmployeeStatus status, int pageSize, String after, boolean byLastName) {
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<EmployeeSummary> rows;
+        if (byLastName) {
+            String[] cursor = decodeCursor(after, true);
+            String afterLastName = cursor == null ? "" : cursor[1];
+            Long afterId = cursor == null ? 0L : Long.valueOf(cursor[0]);
+            rows = status != null
+                    ? employeeRepository.findPageByLastNameAndStatus(companyId, status, afterLastName, afterId, window)
+                    : employeeRepository.findPageByLastName(companyId, afterLastName, afterId, window);
+        } else {
+            String[] cursor = decodeCursor(after, false);
+            Long afterId = cursor == null ? 0L : Long.valueOf(cursor[0]);
+            rows = status != null
+                    ? employeeRepository.findPageByIdAndStatus(companyId, status, afterId, window)
+                    : employeeRepository.findPageById(companyId, afterId, window);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<EmployeeSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            EmployeeSummary last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last, byLastName);
+        }
+        return new EmployeePage(List.copyOf(items), nextCursor, hasMore, pageSize,
+                byLastName ? SORT_BY_LAST_NAME : SORT_BY_ID);
+    }
+
+    /**
+     * Keyset-paginated listing of the company's employees whose custom fields match every filter.
+     * The filters run in SQL (see CustomFieldQueryService); only the matching page is loaded.
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage queryByCustomFields(Long companyId, EmployeeQueryRequest request) {
+        Integer limit = request.getLimit();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String[] cursor = decodeCursor(request.getAfter(), false);
+        long afterId = cursor == null ? 0L : Long.parseLong(cursor[0]);
+        logger.info("Querying employees for company ID: {} with {} custom field filters, limit: {}",
+                companyId, request.getFilters() == null ? 0 : request.getFilters().size(), pageSize);
+
+        List<Long> ids = customFieldQueryService.findEmployeeIds(companyId, request.getFilters(), afterId, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        List<EmployeeSummary> items = pageIds.isEmpty()
+                ? List.of()
+                : employeeRepository.findSummariesByCompanyIdAndIdIn(companyId, pageIds);
+        String nextCursor = hasMore && !items.isEmpty() ? encodeCursor(items.get(items.size() - 1), false) : null;
+        return new EmployeePage(List.copyOf(items), nextCursor, hasMore, pageSize, SORT_BY_ID);
+    }
+
+    private static String encodeCursor(EmployeeSummary last, boolean byLastName) {
+        String raw = byLastName
+                ? "n:" + last.getId() + ":" + last.getLastName()
+                : "i:" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into [id] or [id, lastName]. Returns null for the first page.
+     */
+    private static String[] decodeCursor(String cursor, boolean byLastName) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (byLastName && raw.startsWith("n:")) {
+                int sep = raw.indexOf(':', 2);
+                String id = raw.substring(2, sep);
+                Long.parseLong(id);
+                return new String[] { id, raw.substring(sep + 1) };
+            }
+            if (!byLastName && raw.startsWith("i:")) {
+                String id = raw.substring(2);
+                Long.parseLong(id);
+                return new String[] { id };
+            }
+        } catch (RuntimeException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid pagination cursor");
+    }
+}
@@ -1,19 +1,37 @@
 package com.payroll.texas.service;
 
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 
+/**
+ * AES-GCM encryption of SSN, bank and EIN values.
+ *
+ * Values written for a company are encrypted with that company's data key (see {@link DataKeyService}) and
+ * stored as "k{keyId}:" followed by Base64(IV || ciphertext+tag); the prefix names the key needed to
+ * decrypt. Values without a prefix predate per-company keys and are decrypted with the global
+ * app.encryption.key until the re-encryption job has moved them.
+ */
 @Service
 public class EncryptionService {
     
+    private static final Logger logger = LoggerFactory.getLogger(EncryptionService.class);
+    
     @Value("${app.encryption.key}")
     private String encryptionKey;
     
@@ -23,8 +41,39 @@ public class EncryptionService {
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 16;
     
+    private static final String KEY_PREFIX = "k";
+    private static final char KEY_SEPARATOR = ':';
+    
+    @Autowired
+    private DataKeyService dataKeyService;
+    
+    // Decoded once; SecretKeySpec is immutable and safe to share
+    private SecretKey key;
+    
+    // SecureRandom is thread-safe; one instance serves every IV
+    private final SecureRandom ivSource = new SecureRandom();
+    
+    // Cipher is not thread-safe but can be re-initialised, so each thread keeps its own
+    private ThreadLocal<Cipher> ciphers;
+    
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Base64.getDecoder().decode(encryptionKey);
+        if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
+            logger.error("app.encryption.key decodes to {} bytes; AES needs 16, 24 or 32. Encryption calls will fail.", keyBytes.length);
+        }
+        key = new SecretKeySpec(keyBytes, "AES");
+        ciphers = ThreadLocal.withInitial(() -> {
+            try {
+                return Cipher.getInstance(algorithm);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cipher " + algorithm + " not available", e);
+            }
+        });
+    }
+    
     /**
-     * Encrypts plaintext using AES-256-GCM
+     * Encrypts plaintext using AES-256-GCM with the global key
      * @param plaintext The text to encrypt
      * @return Base64 encoded encrypted data with IV
      */
@@ -34,37 +83,34 @@ public class EncryptionService {
         }
         
         try {
-            // Generate random IV
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            SecureRandom random = new SecureRandom();
-            random.nextBytes(iv);
-            
-            // Create secret key
-            SecretKey key = new SecretKeySpec(Base64.getDecoder().decode(encryptionKey), "AES");
-            
-            // Initialize cipher
-            Cipher cipher = Cipher.getInstance(algorithm);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
-            
-            // Encrypt
-            byte[] encryptedData = cipher.doFinal(plaintext.getBytes());
-            
-            // Combine IV and encrypted data
-            byte[] combined = new byte[iv.length + encryptedData.length];
-            System.arraycopy(iv, 0, combined, 0, iv.length);
-            System.arraycopy(encryptedData, 0, combined, iv.length, encryptedData.length);
-            
-            return Base64.getEncoder().encodeToString(combined);
-            
+            return encrypt(ciphers.get(), key, plaintext);
+        } catch (Exception e) {
+            throw new RuntimeException("Encryption failed", e);
+        }
+    }
+    
+    /**
+     * Encrypts plaintext with the company's active data key
+     * @param companyId The company the value belongs to
+     * @param plaintext The text to encrypt
+     * @return Key-prefixed encrypted data
+     */
+    public String encrypt(Long companyId, String plaintext) {
+        if (plaintext == null || plaintext.isEmpty()) {
+            return null;
+        }
+        
+        DataKeyService.DataKey dataKey = dataKeyService.activeKey(companyId);
+        try {
+            return keyed(dataKey, encrypt(ciphers.get(), dataKey.getSecretKey(), plaintext));
         } catch (Exception e) {
             throw new RuntimeException("Encryption failed", e);
         }
     }
     
     /**
-     * Decrypts encrypted data using AES-256-GCM
-     * @param encryptedData Base64 encoded encrypted data with IV
+     * Decrypts data written by either encrypt method, using the key named by its prefix
+     * @param encryptedData Key-prefixed or legacy Base64 encrypted data
      * @return Decrypted plaintext
      */
     public String decrypt(String encryptedData) {
@@ -73,52 +119,191 @@ public class EncryptionService {
         }
         
         try {
-            // Decode from Base64
-            byte[] combined = Base64.getDecoder().decode(encryptedData);
-            
-            // Extract IV and encrypted data
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            byte[] encrypted = new byte[combined.length - GCM_IV_LENGTH];
-            System.arraycopy(combined, 0, iv, 0, GCM_IV_LENGTH);
-            System.arraycopy(combined, GCM_IV_LENGTH, encrypted, 0, encrypted.length);
-            
-            // Create secret key
-            SecretKey key = new SecretKeySpec(Base64.getDecoder().decode(encryptionKey), "AES");
-            
-            // Initialize cipher
-            Cipher cipher = Cipher.getInstance(algorithm);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv);
-            cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
-            
-            // Decrypt
-            byte[] decryptedData = cipher.doFinal(encrypted);
-            
-            return new String(decryptedData);
-            
+            return decrypt(ciphers.get(), encryptedData, null);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Decryption failed", e);
         }
     }
     
     /**
-     * Encrypts SSN with special handling
-     * @param ssn The SSN to encrypt
-     * @return Encrypted SSN
+     * Decrypts a value read from one company's rows, refusing values encrypted under another company's key
+     * @param companyId The company the value was read for
+     * @param encryptedData Key-prefixed or legacy Base64 encrypted data
+     * @return Decrypted plaintext
      */
-    public String encryptSSN(String ssn) {
-        if (ssn == null || ssn.isEmpty()) {
+    public String decrypt(Long companyId, String encryptedData) {
+        if (encryptedData == null || encryptedData.isEmpty()) {
             return null;
         }
         
-        // Remove any non-digit characters
-        String cleanSSN = ssn.replaceAll("[^0-9]", "");
+        try {
+            return decrypt(ciphers.get(), encryptedData, companyId);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Decryption failed", e);
+        }
+    }
+    
+    /**
+     * Encrypts many values with one cipher lookup, for bulk paths such as imports.
+     * @param plaintexts values to encrypt; null or empty entries map to null
+     * @return encrypted values in the same order
+     */
+    public List<String> encryptAll(List<String> plaintexts) {
+        Cipher cipher = ciphers.get();
+        List<String> encrypted = new ArrayList<>(plaintexts.size());
+        try {
+            for (String plaintext : plaintexts) {
+                encrypted.add(plaintext == null || plaintext.isEmpty() ? null : encrypt(cipher, key, plaintext));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Encryption failed", e);
+        }
+        return encrypted;
+    }
+    
+    /**
+     * Encrypts many values for one company with a single key and cipher lookup, for bulk paths such as imports.
+     * @param companyId The company the values belong to
+     * @param plaintexts values to encrypt; null or empty entries map to null
+     * @return key-prefixed encrypted values in the same order
+     */
+    public List<String> encryptAll(Long companyId, List<String> plaintexts) {
+        DataKeyService.DataKey dataKey = null;
+        Cipher cipher = ciphers.get();
+        List<String> encrypted = new ArrayList<>(plaintexts.size());
+        try {
+            for (String plaintext : plaintexts) {
+                if (plaintext == null || plaintext.isEmpty()) {
+                    encrypted.add(null);
+                    continue;
+                }
+                if (dataKey == null) {
+                    dataKey = dataKeyService.activeKey(companyId); // looked up once, and only if there is something to encrypt
+                }
+                encrypted.add(keyed(dataKey, encrypt(cipher, dataKey.getSecretKey(), plaintext)));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Encryption failed", e);
+        }
+        return encrypted;
+    }
+    
+    /**
+     * Decrypts many values with one cipher lookup, for bulk paths such as bank-file generation.
+     * @param encryptedValues values to decrypt; null or empty entries map to null
+     * @return decrypted values in the same order
+     */
+    public List<String> decryptAll(List<String> encryptedValues) {
+        Cipher cipher = ciphers.get();
+        List<String> decrypted = new ArrayList<>(encryptedValues.size());
+        try {
+            for (String encryptedData : encryptedValues) {
+                decrypted.add(encryptedData == null || encryptedData.isEmpty() ? null : decrypt(cipher, encryptedData, null));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Decryption failed", e);
+        }
+        return decrypted;
+    }
+    
+    /**
+     * @return the data key id from a key-prefixed value, or null for legacy values and plaintext
+     */
+    public static Long keyIdOf(String encryptedData) {
+        if (encryptedData == null || !encryptedData.startsWith(KEY_PREFIX)) {
+            return null;
+        }
+        int separator = encryptedData.indexOf(KEY_SEPARATOR);
+        if (separator <= KEY_PREFIX.length()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(encryptedData, KEY_PREFIX.length(), separator, 10);
+        } catch (NumberFormatException e) {
+            return null; // Base64 can start with 'k' but never contains ':'
+        }
+    }
+    
+    /**
+     * Tells stored ciphertext apart from plaintext digits still sitting in an encrypted column.
+     * @return true for key-prefixed or legacy encrypted values
+     */
+    public static boolean isEncrypted(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        // Account, routing, SSN and EIN plaintext is digits with optional separators; Base64 of IV+tag never is
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && c != '-' && c != ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String keyed(DataKeyService.DataKey dataKey, String payload) {
+        return KEY_PREFIX + dataKey.getId() + KEY_SEPARATOR + payload;
+    }
+    
+    // Output layout: IV || ciphertext+tag, Base64 encoded
+    private String encrypt(Cipher cipher, SecretKey key, String plaintext) throws GeneralSecurityException {
+        byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        ivSource.nextBytes(iv);
         
-        // Validate SSN format (9 digits)
-        if (cleanSSN.length() != 9) {
-            throw new IllegalArgumentException("SSN must be 9 digits");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+        // Ciphertext is written straight after the IV, so no intermediate copy is needed
+        byte[] combined = new byte[GCM_IV_LENGTH + cipher.getOutputSize(input.length)];
+        System.arraycopy(iv, 0, combined, 0, GCM_IV_LENGTH);
+        int written = cipher.doFinal(input, 0, input.length, combined, GCM_IV_LENGTH);
+        
+        return Base64.getEncoder().encodeToString(
+                written + GCM_IV_LENGTH == combined.length ? combined : Arrays.copyOf(combined, GCM_IV_LENGTH + written));
+    }
+    
+    // expectedCompanyId, when given, must own the data key named by the prefix
+    private String decrypt(Cipher cipher, String encryptedData, Long expectedCompanyId) throws GeneralSecurityException {
+        SecretKey key = this.key;
+        String payload = encryptedData;
+        Long keyId = keyIdOf(encryptedData);
+        if (keyId != null) {
+            DataKeyService.DataKey dataKey = dataKeyService.key(keyId);
+            if (expectedCompanyId != null && dataKey.getCompanyId() != expectedCompanyId) {
+                throw new IllegalArgumentException("Encrypted value does not belong to company " + expectedCompanyId);
+            }
+            key = dataKey.getSecretKey();
+            payload = encryptedData.substring(encryptedData.indexOf(KEY_SEPARATOR) + 1);
         }
+        byte[] combined = Base64.getDecoder().decode(payload);
         
-        return encrypt(cleanSSN);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, combined, 0, GCM_IV_LENGTH));
+        byte[] decryptedData = cipher.doFinal(combined, GCM_IV_LENGTH, combined.length - GCM_IV_LENGTH);
+        
+        return new String(decryptedData, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Encrypts SSN with special handling
+     * @param ssn The SSN to encrypt
+     * @return Encrypted SSN
+     */
+    public String encryptSSN(String ssn) {
+        return encrypt(normalizeSSN(ssn));
+    }
+    
+    /**
+     * Encrypts SSN with the company's data key
+     * @param companyId The employee's company
+     * @param ssn The SSN to encrypt
+     * @return Encrypted SSN
+     */
+    public String encryptSSN(Long companyId, String ssn) {
+        return encrypt(companyId, normalizeSSN(ssn));
     }
     
     /**
@@ -130,20 +315,33 @@ public class EncryptionService {
         return decrypt(encryptedSSN);
     }
     
+    /**
+     * Decrypts an SSN read for the given company; plaintext not yet migrated is returned as stored
+     * @param companyId The employee's company
+     * @param encryptedSSN The encrypted SSN
+     * @return Decrypted SSN
+     */
+    public String decryptSSN(Long companyId, String encryptedSSN) {
+        return decryptStored(companyId, encryptedSSN);
+    }
+    
     /**
      * Encrypts bank account number
      * @param accountNumber The account number to encrypt
      * @return Encrypted account number
      */
     public String encryptBankAccount(String accountNumber) {
-        if (accountNumber == null || accountNumber.isEmpty()) {
-            return null;
-        }
-        
-        // Remove any non-digit characters
-        String cleanAccount = accountNumber.replaceAll("[^0-9]", "");
-        
-        return encrypt(cleanAccount);
+        return encrypt(normalizeBankAccount(accountNumber));
+    }
+    
+    /**
+     * Encrypts bank account number with the company's data key
+     * @param companyId The employee's company
+     * @param accountNumber The account number to encrypt
+     * @return Encrypted account number
+     */
+    public String encryptBankAccount(Long companyId, String accountNumber) {
+        return encrypt(companyId, normalizeBankAccount(accountNumber));
     }
     
     /**
@@ -155,25 +353,33 @@ public class EncryptionService {
         return decrypt(encryptedAccount);
     }
     
+    /**
+     * Decrypts a bank account number read for the given company; plaintext not yet migrated is returned as stored
+     * @param companyId The employee's company
+     * @param encryptedAccount The encrypted account number
+     * @return Decrypted account number
+     */
+    public String decryptBankAccount(Long companyId, String encryptedAccount) {
+        return decryptStored(companyId, encryptedAccount);
+    }
+    
     /**
      * Encrypts routing number
      * @param routingNumber The routing number to encrypt
      * @return Encrypted routing number
      */
     public String encryptRoutingNumber(String routingNumber) {
-        if (routingNumber == null || routingNumber.isEmpty()) {
-            return null;
-        }
-        
-        // Remove any non-digit characters
-        String cleanRouting = routingNumber.replaceAll("[^0-9]", "");
-        
-        // Validate routing number format (9 digits)
-        if (cleanRouting.length() != 9) {
-            throw new IllegalArgumentException("Routing number must be 9 digits");
-        }
-        
-        return encrypt(cleanRouting);
+        return encrypt(normalizeRoutingNumber(routingNumber));
+    }
+    
+    /**
+     * Encrypts routing number with the company's data key
+     * @param companyId The employee's company
+     * @param routingNumber The routing number to encrypt
+     * @return Encrypted routing number
+     */
+    public String encryptRoutingNumber(Long companyId, String routingNumber) {
+        return encrypt(companyId, normalizeRoutingNumber(routingNumber));
     }
     
     /**
@@ -185,25 +391,33 @@ public class EncryptionService {
         return decrypt(encryptedRouting);
     }
     
+    /**
+     * Decrypts a routing number read for the given company; plaintext not yet migrated is returned as stored
+     * @param companyId The employee's company
+     * @param encryptedRouting The encrypted routing number
+     * @return Decrypted routing number
+     */
+    public String decryptRoutingNumber(Long companyId, String encryptedRouting) {
+        return decryptStored(companyId, encryptedRouting);
+    }
+    
     /**
      * Encrypts EIN (Employer Identification Number)
      * @param ein The EIN to encrypt
      * @return Encrypted EIN
      */
     public String encryptEIN(String ein) {
-        if (ein == null || ein.isEmpty()) {
-            return null;
-        }
-        
-        // Remove any non-digit characters
-        String cleanEIN = ein.replaceAll("[^0-9]", "");
-        
-        // Validate EIN format (9 digits)
-        if (cleanEIN.length() != 9) {
-            throw new IllegalArgumentException("EIN must be 9 digits");
-        }
-        
-        return encrypt(cleanEIN);
+        return encrypt(normalizeEIN(ein));
+    }
+    
+    /**
+     * Encrypts EIN with the company's data key
+     * @param companyId The company the EIN belongs to
+     * @param ein The EIN to encrypt
+     * @return Encrypted EIN
+     */
+    public String encryptEIN(Long companyId, String ein) {
+        return encrypt(companyId, normalizeEIN(ein));
     }
     
     /**
@@ -214,4 +428,47 @@ public class EncryptionService {
     public String decryptEIN(String encryptedEIN) {
         return decrypt(encryptedEIN);
     }
-} 
\ No newline at end of file
+    
+    // Bank columns held plaintext before encryption was switched on; the re-encryption job converts them
+    private String decryptStored(Long companyId, String value) {
+        return isEncrypted(value) ? decrypt(companyId, value) : value;
+    }
+    
+    /**
+     * Strips separators from an SSN and checks it has 9 digits
+     * @return the digits, or null for a null or empty SSN
+     */
+    static String normalizeSSN(String ssn) {
+        return nineDigits(ssn, "SSN must be 9 digits");
+    }
+    
+    static String normalizeBankAccount(String accountNumber) {
+        if (accountNumber == null || accountNumber.isEmpty()) {
+            return null;
+        }
+        // Remove any non-digit characters
+        return accountNumber.replaceAll("[^0-9]", "");
+    }
+    
+    static String normalizeRoutingNumber(String routingNumber) {
+        return nineDigits(routingNumber, "Routing number must be 9 digits");
+    }
+    
+    static String normalizeEIN(String ein) {
+        return nineDigits(ein, "EIN must be 9 digits");
+    }
+    
+    private static String nineDigits(String value, String message) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        
+        // Remove any non-digit characters
+        String digits = value.replaceAll("[^0-9]", "");
+        
+        if (digits.length() != 9) {
+            throw new IllegalArgumentException(message);
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,274 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.dto.enrollment.EnrollmentFunnel;
+import com.payroll.texas.model.EnrollmentStep;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the enrollment funnel and keeps its per-step counters and time-in-step histogram up to date.
+ *
+ * The track_enrollment_funnel trigger on enrollment_data (V22) only appends each step change to
+ * enrollment_step_transitions, so concurrent enrollment writes never wait on a shared counter row. Every few
+ * seconds those rows are claimed in batches, tallied in memory and applied as one delta per counter row, each
+ * batch in its own short transaction; SKIP LOCKED lets several instances fold at once without counting a row
+ * twice. A read is two queries over a few dozen rows regardless of how many enrollments exist, and trails the
+ * latest step changes by up to one fold interval.
+ */
+@Service
+public class EnrollmentFunnelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentFunnelService.class);
+
+    private static final String SELECT_STEPS =
+            "SELECT step, current_count, entered_count FROM enrollment_funnel_steps ORDER BY step_order";
+
+    private static final String SELECT_DURATIONS =
+            "SELECT step, lower_bound_seconds, upper_bound_seconds, exit_count, total_seconds " +
+            "FROM enrollment_step_durations ORDER BY step, bucket";
+
+    // Bounds the null-step rows listed by the diagnostic; the count covers all of them
+    private static final int MAX_DIAGNOSTIC_ROWS = 100;
+
+    private static final String SELECT_DIAGNOSTIC_COUNTS =
+            "SELECT COUNT(*) AS total, COUNT(*) FILTER (WHERE enrollment_step IS NULL) AS null_steps FROM enrollment_data";
+
+    private static final String SELECT_NULL_STEP_ENROLLMENTS =
+            "SELECT id, contact_email FROM enrollment_data WHERE enrollment_step IS NULL ORDER BY id LIMIT ?";
+
+    private static final String CLAIM_TRANSITIONS =
+            "DELETE FROM enrollment_step_transitions WHERE id IN (SELECT id FROM enrollment_step_transitions " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING from_step, to_step, seconds_in_step";
+
+    private static final String SELECT_BUCKET_BOUNDS =
+            "SELECT lower_bound_seconds FROM enrollment_step_durations GROUP BY bucket, lower_bound_seconds ORDER BY bucket";
+
+    private static final String UPDATE_STEP =
+            "UPDATE enrollment_funnel_steps SET current_count = GREATEST(current_count + ?, 0), " +
+            "entered_count = entered_count + ? WHERE step = ?";
+
+    private static final String UPDATE_DURATION =
+            "UPDATE enrollment_step_durations SET exit_count = exit_count + ?, total_seconds = total_seconds + ? " +
+            "WHERE step = ? AND bucket = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.enrollment.funnel.batch-size:5000}")
+    private int batchSize;
+
+    // Bounds how long one fold holds the shared scheduler thread; anything left is picked up by the next fold
+    @Value("${app.enrollment.funnel.max-batches:20}")
+    private int maxBatches;
+
+    private TransactionTemplate foldTransaction;
+
+    // Lower bound of each histogram bucket, indexed by bucket; loaded on the first fold
+    private volatile long[] bucketLowerBounds;
+
+    @PostConstruct
+    void init() {
+        foldTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public EnrollmentFunnel getFunnel() {
+        Map<EnrollmentStep, EnrollmentFunnel.Step> steps = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_STEPS, rs -> {
+            EnrollmentStep step = EnrollmentStep.valueOf(rs.getString("step"));
+            steps.put(step, new EnrollmentFunnel.Step(step, rs.getLong("current_count"), rs.getLong("entered_count")));
+        });
+
+        Map<EnrollmentStep, Long> totalSeconds = new EnumMap<>(EnrollmentStep.class);
+        jdbcTemplate.query(SELECT_DURATIONS, rs -> {
+            EnrollmentFunnel.Step step = steps.get(EnrollmentStep.valueOf(rs.getString("step")));
+            if (step == null) {
+                return;
+            }
+            long exits = rs.getLong("exit_count");
+            step.getTimeInStep().add(new EnrollmentFunnel.DurationBucket(
+                    rs.getLong("lower_bound_seconds"), rs.getObject("upper_bound_seconds", Long.class), exits));
+            step.setExitCount(step.getExitCount() + exits);
+            totalSeconds.merge(step.getStep(), rs.getLong("total_seconds"), Long::sum);
+        });
+
+        List<EnrollmentFunnel.Step> ordered = new ArrayList<>(steps.values());
+        EnrollmentFunnel.Step previous = null;
+        for (EnrollmentFunnel.Step step : ordered) {
+            if (previous != null) {
+                step.setConversionRate(conversionRate(step.getEnteredCount(), previous.getEnteredCount()));
+            }
+            if (step.getExitCount() > 0) {
+                step.setAverageSecondsInStep((double) totalSeconds.getOrDefault(step.getStep(), 0L) / step.getExitCount());
+            }
+            previous = step;
+        }
+        return new EnrollmentFunnel(ordered);
+    }
+
+    /**
+     * Counts enrollments and lists those without a step with one aggregate and one bounded query, never
+     * loading the table into memory.
+     */
+    public Map<String, Object> getDiagnostic() {
+        Map<String, Object> diagnostic = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_DIAGNOSTIC_COUNTS, rs -> {
+            diagnostic.put("totalEnrollments", rs.getLong("total"));
+            diagnostic.put("problematicEnrollmentCount", rs.getLong("null_steps"));
+        });
+
+        List<Map<String, Object>> problematicEnrollments = new ArrayList<>();
+        jdbcTemplate.query(SELECT_NULL_STEP_ENROLLMENTS, rs -> {
+            Map<String, Object> problem = new LinkedHashMap<>();
+            problem.put("id", rs.getLong("id"));
+            problem.put("email", rs.getString("contact_email"));
+            problem.put("issue", "null enrollment_step");
+            problematicEnrollments.add(problem);
+        }, MAX_DIAGNOSTIC_ROWS);
+        diagnostic.put("problematicEnrollments", problematicEnrollments);
+        return diagnostic;
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrollment.funnel.fold-interval:5000}")
+    public void foldTransitions() {
+        try {
+            long[] bounds = bucketLowerBounds;
+            if (bounds == null) {
+                bounds = jdbcTemplate.queryForList(SELECT_BUCKET_BOUNDS, Long.class).stream()
+                        .mapToLong(Long::longValue).toArray();
+                bucketLowerBounds = bounds;
+            }
+            long[] lowerBounds = bounds;
+            int folded = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int claimed = foldTransaction.execute(status -> foldBatch(lowerBounds));
+                folded += claimed;
+                if (claimed < batchSize) {
+                    break;
+                }
+            }
+            if (folded > 0) {
+                logger.debug("Folded {} enrollment step transitions into the funnel", folded);
+            }
+        } catch (RuntimeException e) {
+            // Batches already folded stay committed; unclaimed transitions wait for the next fold
+            logger.error("Enrollment funnel fold failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Claims one batch of transitions and applies their net effect; runs inside the fold transaction
+    private int foldBatch(long[] lowerBounds) {
+        Tally tally = new Tally(lowerBounds);
+        int[] claimed = {0};
+        jdbcTemplate.query(CLAIM_TRANSITIONS, rs -> {
+            tally.record(rs.getString("from_step"), rs.getString("to_step"), rs.getObject("seconds_in_step", Long.class));
+            claimed[0]++;
+        }, batchSize);
+        if (claimed[0] == 0) {
+            return 0;
+        }
+
+        // Rows are updated in step (and bucket) order so concurrent folds cannot deadlock
+        List<Object[]> stepUpdates = new ArrayList<>();
+        tally.steps.forEach((step, delta) ->
+                stepUpdates.add(new Object[] { delta.current, delta.entered, step }));
+        jdbcTemplate.batchUpdate(UPDATE_STEP, stepUpdates);
+
+        List<Object[]> durationUpdates = new ArrayList<>();
+        tally.durations.forEach((step, buckets) -> buckets.forEach((bucket, delta) ->
+                durationUpdates.add(new Object[] { delta.exits, delta.seconds, step, bucket })));
+        if (!durationUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_DURATION, durationUpdates);
+        }
+        return claimed[0];
+    }
+
+    /**
+     * @return entered / previousEntered rounded to four decimals, or null when the previous step has no entries
+     */
+    static Double conversionRate(long entered, long previousEntered) {
+        if (previousEntered <= 0) {
+            return null;
+        }
+        return Math.round(entered * 10000.0 / previousEntered) / 10000.0;
+    }
+
+    /**
+     * Net effect of a batch of step transitions on the funnel counters and time-in-step histogram.
+     */
+    static final class Tally {
+
+        private final long[] bucketLowerBounds;
+
+        final Map<String, StepDelta> steps = new TreeMap<>();
+
+        final Map<String, Map<Integer, DurationDelta>> durations = new TreeMap<>();
+
+        Tally(long[] bucketLowerBounds) {
+            this.bucketLowerBounds = bucketLowerBounds;
+        }
+
+        /**
+         * Counts one transition: the enrollment leaves fromStep (null when it was created), having spent
+         * secondsInStep there (null when not timed), and enters toStep (null when it was deleted).
+         */
+        void record(String fromStep, String toStep, Long secondsInStep) {
+            if (fromStep != null) {
+                steps.computeIfAbsent(fromStep, step -> new StepDelta()).current--;
+                int bucket = bucketOf(secondsInStep);
+                if (bucket >= 0) {
+                    DurationDelta delta = durations.computeIfAbsent(fromStep, step -> new TreeMap<>())
+                            .computeIfAbsent(bucket, b -> new DurationDelta());
+                    delta.exits++;
+                    delta.seconds += secondsInStep;
+                }
+            }
+            if (toStep != null) {
+                StepDelta delta = steps.computeIfAbsent(toStep, step -> new StepDelta());
+                delta.current++;
+                delta.entered++;
+            }
+        }
+
+        /**
+         * @return the bucket whose range [lower bound, next lower bound) holds the duration, or -1 if none does
+         */
+        int bucketOf(Long seconds) {
+            if (seconds == null) {
+                return -1;
+            }
+            int bucket = -1;
+            for (int i = 0; i < bucketLowerBounds.length && seconds >= bucketLowerBounds[i]; i++) {
+                bucket = i;
+            }
+            return bucket;
+        }
+    }
+
+    static final class StepDelta {
+        long current;
+        long entered;
+    }
+
+    static final class DurationDelta {
+        long exits;
+        long seconds;
+    }
+}
@@ -2,66 +2,110 @@ package com.payroll.texas.service;
 
 import com.payroll.texas.dto.enrollment.EnrollmentRequest;
 import com.payroll.texas.dto.enrollment.EnrollmentResponse;
+import com.payroll.texas.dto.plan.PlanResponse;
+import com.payroll.texas.model.CustomFields;
 import com.payroll.texas.model.EnrollmentData;
 import com.payroll.texas.model.EnrollmentStep;
 import com.payroll.texas.model.Plan;
 import com.payroll.texas.repository.EnrollmentDataRepository;
 import com.payroll.texas.repository.PlanRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 @Service
 public class EnrollmentService {
-    
+
+    // One statement whether or not the email has enrolled before; the unique index on contact_email decides.
+    // A repeat submission refreshes the contact details, replaces custom fields only when given and moves to
+    // PLAN_SELECTION only when a known plan is given. (xmax = 0) is true only for a freshly inserted row.
+    private static final String UPSERT_ENROLLMENT =
+            "INSERT INTO enrollment_data (company_name, contact_name, contact_email, contact_phone, enrollment_step, " +
+            "plan_selected_before_login, selected_plan_id, custom_fields, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, COALESCE(?, FALSE), ?, COALESCE(?::jsonb, '{}'::jsonb), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (contact_email) DO UPDATE SET " +
+            "company_name = EXCLUDED.company_name, " +
+            "contact_name = EXCLUDED.contact_name, " +
+            "contact_phone = EXCLUDED.contact_phone, " +
+            "custom_fields = COALESCE(?::jsonb, enrollment_data.custom_fields), " +
+            "selected_plan_id = COALESCE(EXCLUDED.selected_plan_id, enrollment_data.selected_plan_id), " +
+            "plan_selected_before_login = CASE WHEN EXCLUDED.selected_plan_id IS NULL " +
+            "THEN enrollment_data.plan_selected_before_login ELSE EXCLUDED.plan_selected_before_login END, " +
+            "enrollment_step = CASE WHEN EXCLUDED.selected_plan_id IS NULL " +
+            "THEN enrollment_data.enrollment_step ELSE EXCLUDED.enrollment_step END, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "RETURNING id, enrollment_step, selected_plan_id, plan_selected_before_login, custom_fields::text AS custom_fields, (xmax = 0) AS inserted";
+
     @Autowired
     private EnrollmentDataRepository enrollmentDataRepository;
     
     @Autowired
     private PlanRepository planRepository;
     
-    @Autowired
-    private CustomFieldsService customFieldsService;
-    
     @Autowired
     private SubscriptionService subscriptionService;
-    
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Transactional
     public EnrollmentResponse beginEnrollment(EnrollmentRequest request) {
-        // Check if enrollment already exists for this email
-        Optional<EnrollmentData> existingEnrollment = enrollmentDataRepository.findByContactEmail(request.getContactEmail());
-        
-        EnrollmentData enrollmentData;
-        if (existingEnrollment.isPresent()) {
-            // Update existing enrollment
-            enrollmentData = existingEnrollment.get();
-            updateEnrollmentData(enrollmentData, request);
-        } else {
-            // Create new enrollment
-            enrollmentData = createEnrollmentData(request);
+        // Resolved from the in-memory plan catalog; an unknown plan name is ignored, as it always was
+        PlanCatalog catalog = planService.getCatalog();
+        PlanResponse plan = request.getSelectedPlan() != null
+                ? catalog.planByName(request.getSelectedPlan()).orElse(null)
+                : null;
+        Long planId = plan != null ? plan.getId() : null;
+        String customFields = request.getCustomFields() != null ? request.getCustomFields().toJsonNode().toString() : null;
+        EnrollmentStep step = plan != null ? EnrollmentStep.PLAN_SELECTION : EnrollmentStep.INITIAL;
+
+        UpsertedEnrollment enrollment = jdbcTemplate.queryForObject(UPSERT_ENROLLMENT, (rs, rowNum) -> new UpsertedEnrollment(
+                rs.getLong("id"),
+                EnrollmentStep.valueOf(rs.getString("enrollment_step")),
+                rs.getObject("selected_plan_id", Long.class),
+                rs.getObject("plan_selected_before_login", Boolean.class),
+                rs.getString("custom_fields"),
+                rs.getBoolean("inserted")),
+            request.getCompanyName(), request.getContactName(), request.getContactEmail(), request.getContactPhone(),
+            step.name(), request.getPlanSelectedBeforeLogin(), planId, customFields, customFields);
+
+        if (enrollment.inserted && plan != null) {
+            // Update subscription status based on plan selection
+            try {
+                subscriptionService.updateCompanySubscriptionStatusByEmail(
+                    request.getContactEmail(),
+                    request.getSelectedPlan()
+                );
+            } catch (Exception e) {
+                // Log the error but don't fail the enrollment
+                System.err.println("Failed to update subscription status: " + e.getMessage());
+            }
         }
-        
-        enrollmentData = enrollmentDataRepository.save(enrollmentData);
-        
+
         // Create response
         EnrollmentResponse.EnrollmentData responseData = new EnrollmentResponse.EnrollmentData(
-            enrollmentData.getCompanyName(),
-            enrollmentData.getContactName(),
-            enrollmentData.getContactEmail(),
-            enrollmentData.getContactPhone()
+            request.getCompanyName(),
+            request.getContactName(),
+            request.getContactEmail(),
+            request.getContactPhone()
         );
-        responseData.setSelectedPlan(enrollmentData.getSelectedPlan() != null ? enrollmentData.getSelectedPlan().getName() : null);
-        responseData.setPlanSelectedBeforeLogin(enrollmentData.getPlanSelectedBeforeLogin());
-        responseData.setCustomFields(enrollmentData.getCustomFields());
-        
+        responseData.setSelectedPlan(enrollment.selectedPlanId != null
+                ? catalog.planById(enrollment.selectedPlanId).map(PlanResponse::getName).orElse(null)
+                : null);
+        responseData.setPlanSelectedBeforeLogin(enrollment.planSelectedBeforeLogin);
+        responseData.setCustomFields(CustomFields.parse(enrollment.customFields));
+
         return new EnrollmentResponse(
             "Enrollment started successfully",
-            enrollmentData.getId(),
-            enrollmentData.getEnrollmentStep(),
+            enrollment.id,
+            enrollment.step,
             responseData
         );
     }
@@ -176,69 +220,24 @@ public class EnrollmentService {
             responseData
         );
     }
-    
-    public List<EnrollmentData> getAllEnrollments() {
-        return enrollmentDataRepository.findAll();
-    }
-    
-    private EnrollmentData createEnrollmentData(EnrollmentRequest request) {
-        EnrollmentData enrollment = new EnrollmentData(
-            request.getCompanyName(),
-            request.getContactName(),
-            request.getContactEmail(),
-            request.getContactPhone()
-        );
-        
-        enrollment.setEnrollmentStep(EnrollmentStep.INITIAL);
-        enrollment.setPlanSelectedBeforeLogin(request.getPlanSelectedBeforeLogin());
-        
-        // Set custom fields
-        if (request.getCustomFields() != null) {
-            enrollment.setCustomFields(request.getCustomFields());
-        }
-        
-        // Handle plan selection if provided
-        if (request.getSelectedPlan() != null) {
-            Optional<Plan> planOpt = planRepository.findByName(request.getSelectedPlan());
-            if (planOpt.isPresent()) {
-                enrollment.setSelectedPlan(planOpt.get());
-                enrollment.setEnrollmentStep(EnrollmentStep.PLAN_SELECTION);
-                
-                // Update subscription status based on plan selection
-                try {
-                    subscriptionService.updateCompanySubscriptionStatusByEmail(
-                        request.getContactEmail(), 
-                        request.getSelectedPlan()
-                    );
-                } catch (Exception e) {
-                    // Log the error but don't fail the enrollment
-                    System.err.println("Failed to update subscription status: " + e.getMessage());
-                }
-            }
-        }
-        
-        return enrollment;
-    }
-    
-    private void updateEnrollmentData(EnrollmentData enrollment, EnrollmentRequest request) {
-        enrollment.setCompanyName(request.getCompanyName());
-        enrollment.setContactName(request.getContactName());
-        enrollment.setContactEmail(request.getContactEmail());
-        enrollment.setContactPhone(request.getContactPhone());
-        
-        // Update custom fields
-        if (request.getCustomFields() != null) {
-            enrollment.setCustomFields(request.getCustomFields());
-        }
-        
-        // Handle plan selection if provided
-        if (request.getSelectedPlan() != null) {
-            Optional<Plan> planOpt = planRepository.findByName(request.getSelectedPlan());
-            if (planOpt.isPresent()) {
-                enrollment.setSelectedPlan(planOpt.get());
-                enrollment.setPlanSelectedBeforeLogin(request.getPlanSelectedBeforeLogin());
-                enrollment.setEnrollmentStep(EnrollmentStep.PLAN_SELECTION);
-            }
+
+    // The enrollment row as left by UPSERT_ENROLLMENT
+    private static final class UpsertedEnrollment {
+        private final Long id;
+        private final EnrollmentStep step;
+        private final Long selectedPlanId;
+        private final Boolean planSelectedBeforeLogin;
+        private final String customFields;
+        private final boolean inserted;
+
+        private UpsertedEnrollment(Long id, EnrollmentStep step, Long selectedPlanId, Boolean planSelectedBeforeLogin,
+                                   String customFields, boolean inserted) {
+            this.id = id;
+            this.step = step;
+            this.selectedPlanId = selectedPlanId;
+            this.planSelectedBeforeLogin = planSelectedBeforeLogin;
+            this.customFields = customFields;
+            this.inserted = inserted;
         }
     }
-} 
\ No newline at end of file
+}
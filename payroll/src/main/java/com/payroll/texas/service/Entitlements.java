@@ -0,0 +1,145 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payroll.texas.model.Company;
+import com.payroll.texas.model.CompanySubscription;
+import com.payroll.texas.model.Plan;
+import com.payroll.texas.model.SubscriptionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What a company's subscription entitles it to, resolved once from the company, its subscription record and
+ * that record's plan. Built by SubscriptionService and shared read-only by every gating check until the
+ * subscription changes, so a check is a field read rather than a repository lookup.
+ */
+public final class Entitlements {
+
+    /** A caller with no company: no plan, nothing active. */
+    static final Entitlements NONE = new Entitlements(null, null, null, null, null, Collections.emptySet(), false, false);
+
+    static final Set<String> VALID_PLANS = Set.of("BASIC", "STANDARD", "PREMIUM");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Long companyId;
+    private final String planName;
+    private final SubscriptionStatus status;
+    private final LocalDateTime trialEndsAt;
+    private final Integer maxEmployees;
+    private final Set<String> features;
+    private final boolean selectedPlan;
+    private final boolean active;
+
+    private Entitlements(Long companyId, String planName, SubscriptionStatus status, LocalDateTime trialEndsAt,
+                         Integer maxEmployees, Set<String> features, boolean selectedPlan, boolean active) {
+        this.companyId = companyId;
+        this.planName = planName;
+        this.status = status;
+        this.trialEndsAt = trialEndsAt;
+        this.maxEmployees = maxEmployees;
+        this.features = features;
+        this.selectedPlan = selectedPlan;
+        this.active = active;
+    }
+
+    /**
+     * The plan a company selected at signup counts as well as its subscription record; either one with a
+     * valid plan and an ACTIVE or TRIAL status makes the company active.
+     *
+     * @param subscription the company's subscription with its plan loaded, or null if it has none
+     */
+    static Entitlements resolve(Company company, CompanySubscription subscription) {
+        String selected = company.getCustomFields().getString(Company.SELECTED_PLAN)
+                .map(String::toUpperCase)
+                .filter(VALID_PLANS::contains)
+                .orElse(null);
+        Plan plan = subscription == null ? null : subscription.getPlan();
+        String subscribed = plan == null ? null : plan.getName().toUpperCase();
+        boolean subscribedValid = subscribed != null && VALID_PLANS.contains(subscribed);
+
+        boolean active = (selected != null && isCurrent(company.getSubscriptionStatus()))
+                || (subscribedValid && isCurrent(subscription.getStatus()));
+
+        return new Entitlements(
+                company.getId(),
+                subscribed != null ? subscribed : selected,
+                subscription != null ? subscription.getStatus() : company.getSubscriptionStatus(),
+                subscription != null && subscription.getTrialEndsAt() != null
+                        ? subscription.getTrialEndsAt() : company.getTrialEndsAt(),
+                plan == null ? null : plan.getMaxEmployees(),
+                plan == null ? Collections.emptySet() : parseFeatures(plan.getFeatures()),
+                selected != null || subscribedValid,
+                active);
+    }
+
+    private static boolean isCurrent(SubscriptionStatus status) {
+        return status == SubscriptionStatus.ACTIVE || status == SubscriptionStatus.TRIAL;
+    }
+
+    private static Set<String> parseFeatures(String featuresJson) {
+        if (featuresJson == null || featuresJson.isEmpty()) {
+            return Collections.emptySet();
+        }
+        try {
+            List<String> features = objectMapper.readValue(featuresJson, new TypeReference<List<String>>() {});
+            return Collections.unmodifiableSet(new LinkedHashSet<>(features));
+        } catch (Exception e) {
+            // Same leniency as PlanService: a malformed feature list grants no features
+            return Collections.emptySet();
+        }
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    /**
+     * @return the subscribed plan's name, else the plan selected at signup, upper-cased; null if neither
+     */
+    public String getPlanName() {
+        return planName;
+    }
+
+    public SubscriptionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getTrialEndsAt() {
+        return trialEndsAt;
+    }
+
+    /**
+     * @return the plan's employee limit; null if the company has no subscription record yet
+     */
+    public Integer getMaxEmployees() {
+        return maxEmployees;
+    }
+
+    public Set<String> getFeatures() {
+        return features;
+    }
+
+    public boolean hasFeature(String feature) {
+        return features.contains(feature);
+    }
+
+    public boolean hasSelectedPlan() {
+        return selectedPlan;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public String toString() {
+        return "Entitlements{companyId=" + companyId + ", plan=" + planName + ", status=" + status
+                + ", active=" + active + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package com.payroll.texas.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps companies.active_employee_count in step with the company's ACTIVE employees and enforces the plan's
+ * employee limit against it.
+ *
+ * Taking a seat is one conditional UPDATE of the company row that only succeeds while the count stays within
+ * the limit. It runs in the caller's transaction, so the count commits or rolls back with the employee change,
+ * and the row lock it takes serializes concurrent hires for the same company until commit: two requests can
+ * never both take the last seat. Counts committed on this instance are mirrored in memory for reads.
+ */
+@Service
+public class HeadcountService {
+
+    private static final String RESERVE_WITHIN_LIMIT =
+            "UPDATE companies SET active_employee_count = active_employee_count + ? " +
+            "WHERE id = ? AND active_employee_count + ? <= ? RETURNING active_employee_count";
+
+    private static final String RESERVE =
+            "UPDATE companies SET active_employee_count = active_employee_count + ? WHERE id = ? RETURNING active_employee_count";
+
+    private static final String RELEASE =
+            "UPDATE companies SET active_employee_count = GREATEST(active_employee_count - ?, 0) " +
+            "WHERE id = ? RETURNING active_employee_count";
+
+    private static final String SELECT_COUNT = "SELECT active_employee_count FROM companies WHERE id = ?";
+
+    // Plans at or above this limit are unlimited (see Plan.isUnlimited)
+    private static final int UNLIMITED = 999999;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    // Bounds how long a count changed on another instance is reported stale here
+    @Value("${app.headcount.cache-ttl:60}")
+    private long cacheTtlSeconds;
+
+    private Cache<Long, Integer> headcounts;
+
+    @PostConstruct
+    void init() {
+        headcounts = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    /**
+     * Takes seats for employees becoming ACTIVE.
+     *
+     * @throws SeatLimitExceededException if the company's plan does not have that many seats left
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long companyId, int seats) {
+        if (companyId == null || seats <= 0) {
+            return;
+        }
+        Integer limit = seatLimit(companyId);
+        List<Integer> updated = limit == null
+                ? jdbcTemplate.queryForList(RESERVE, Integer.class, seats, companyId)
+                : jdbcTemplate.queryForList(RESERVE_WITHIN_LIMIT, Integer.class, seats, companyId, seats, limit);
+        if (updated.isEmpty()) {
+            if (limit != null) {
+                throw new SeatLimitExceededException(limit);
+            }
+            return;
+        }
+        remember(companyId, updated.get(0));
+    }
+
+    /**
+     * Frees seats of employees that stop being ACTIVE or are deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long companyId, int seats) {
+        if (companyId == null || seats <= 0) {
+            return;
+        }
+        List<Integer> updated = jdbcTemplate.queryForList(RELEASE, Integer.class, seats, companyId);
+        if (!updated.isEmpty()) {
+            remember(companyId, updated.get(0));
+        }
+    }
+
+    /**
+     * @return the company's ACTIVE employee count, from memory when known
+     */
+    public int getActiveHeadcount(Long companyId) {
+        Integer count = headcounts.get(companyId, id -> {
+            List<Integer> counts = jdbcTemplate.queryForList(SELECT_COUNT, Integer.class, id);
+            return counts.isEmpty() ? 0 : counts.get(0);
+        });
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @return the plan's employee limit; null if the company has no plan record yet or the plan is unlimited
+     */
+    public Integer seatLimit(Long companyId) {
+        Integer maxEmployees = subscriptionService.getEntitlements(companyId).getMaxEmployees();
+        return maxEmployees == null || maxEmployees >= UNLIMITED ? null : maxEmployees;
+    }
+
+    private void remember(Long companyId, int count) {
+        Transactions.afterCommit(() -> headcounts.put(companyId, count));
+    }
+}
@@ -0,0 +1,193 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory failed-attempt counter and lockout state, authoritative for the login hot path.
+ *
+ * A user only gets an entry when an attempt is recorded: it is seeded from the user row and then updated with
+ * {@link ConcurrentHashMap#compute} (which only locks that user's bin), so concurrent logins for different
+ * users never contend. Checking a lockout never adds one. Changes are not written on every attempt: the
+ * latest values per user are kept as a pending write and flushed in one JDBC batch every few seconds (and
+ * on shutdown). Once flushed, the entry is dropped and the row is authoritative again, so an unlock or
+ * reset made directly on the row applies from the user's next login.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+    private static final String FLUSH_SQL =
+            "UPDATE users SET failed_login_attempts = ?, account_locked_until = ?, " +
+            "last_login_at = COALESCE(?, last_login_at), remember_me = COALESCE(?, remember_me), updated_at = ? " +
+            "WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SecurityAuditService securityAuditService;
+
+    @Value("${security.session.max-failed-attempts:5}")
+    private int maxFailedAttempts;
+
+    @Value("${security.session.lockout-duration:30}")
+    private int lockoutMinutes;
+
+    private final ConcurrentHashMap<Long, AttemptState> states = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @return the time the account stays locked until, or null if it is not locked
+     */
+    public LocalDateTime lockedUntil(User user) {
+        AttemptState state = states.get(user.getId());
+        if (state == null) {
+            state = AttemptState.of(user);
+        }
+        return state.isLocked(LocalDateTime.now()) ? state.lockedUntil : null;
+    }
+
+    /**
+     * Counts a wrong password and locks the account once max-failed-attempts is reached.
+     *
+     * @return true if this failure locked the account
+     */
+    public boolean recordFailure(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        AttemptState updated = states.compute(user.getId(), (id, state) -> {
+            AttemptState base = (state != null ? state : AttemptState.of(user)).expire(now);
+            int failures = base.failedAttempts + 1;
+            return failures >= maxFailedAttempts
+                    ? new AttemptState(failures, now.plusMinutes(lockoutMinutes))
+                    : new AttemptState(failures, null);
+        });
+        pending.merge(user.getId(), new PendingWrite(updated, null, null), PendingWrite::then);
+
+        boolean locked = updated.isLocked(now);
+        if (locked) {
+            securityAuditService.logAccountLockoutEvent(user.getEmail(), user.getId(), null,
+                    updated.failedAttempts + " consecutive failed logins", lockoutMinutes);
+        }
+        return locked;
+    }
+
+    /**
+     * Clears failures and records the login time and remember-me choice for the next flush.
+     */
+    public void recordSuccess(User user, boolean rememberMe) {
+        AttemptState cleared = new AttemptState(0, null);
+        states.put(user.getId(), cleared);
+        pending.merge(user.getId(), new PendingWrite(cleared, LocalDateTime.now(), rememberMe), PendingWrite::then);
+    }
+
+    @Scheduled(fixedDelayString = "${security.session.login-flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, PendingWrite>> batch = new ArrayList<>(pending.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch, batch.size(), (ps, entry) -> {
+                PendingWrite write = entry.getValue();
+                ps.setInt(1, write.state.failedAttempts);
+                ps.setTimestamp(2, write.state.lockedUntil != null ? Timestamp.valueOf(write.state.lockedUntil) : null);
+                ps.setTimestamp(3, write.lastLoginAt != null ? Timestamp.valueOf(write.lastLoginAt) : null);
+                if (write.rememberMe != null) {
+                    ps.setBoolean(4, write.rememberMe);
+                } else {
+                    ps.setNull(4, Types.BOOLEAN); // typed null, so COALESCE can infer the parameter type
+                }
+                ps.setTimestamp(5, now);
+                ps.setLong(6, entry.getKey());
+            });
+        } catch (RuntimeException e) {
+            // Pending writes stay queued and are retried on the next flush
+            logger.error("Failed to flush {} login bookkeeping updates: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        for (Map.Entry<Long, PendingWrite> entry : batch) {
+            // Only drop what was written; a newer write that arrived meanwhile stays for the next flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                // The row now matches memory, so the user is re-seeded from it on their next login
+                states.remove(entry.getKey(), entry.getValue().state);
+            }
+        }
+        logger.debug("Flushed {} login bookkeeping updates", batch.size());
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Failed attempts and lockout for one user. Immutable so flush can tell whether it changed.
+     */
+    private static final class AttemptState {
+
+        final int failedAttempts;
+        final LocalDateTime lockedUntil;
+
+        AttemptState(int failedAttempts, LocalDateTime lockedUntil) {
+            this.failedAttempts = failedAttempts;
+            this.lockedUntil = lockedUntil;
+        }
+
+        static AttemptState of(User user) {
+            return new AttemptState(user.getFailedLoginAttempts() != null ? user.getFailedLoginAttempts() : 0,
+                    user.getAccountLockedUntil());
+        }
+
+        boolean isLocked(LocalDateTime now) {
+            return lockedUntil != null && lockedUntil.isAfter(now);
+        }
+
+        // A lockout that has run out starts the count again
+        AttemptState expire(LocalDateTime now) {
+            return lockedUntil != null && !lockedUntil.isAfter(now) ? new AttemptState(0, null) : this;
+        }
+    }
+
+    /**
+     * Latest values to persist for one user. lastLoginAt/rememberMe are null when unchanged.
+     */
+    private static final class PendingWrite {
+
+        final AttemptState state;
+        final LocalDateTime lastLoginAt;
+        final Boolean rememberMe;
+
+        PendingWrite(AttemptState state, LocalDateTime lastLoginAt, Boolean rememberMe) {
+            this.state = state;
+            this.lastLoginAt = lastLoginAt;
+            this.rememberMe = rememberMe;
+        }
+
+        // Later write wins, but keeps a login time / remember-me choice it does not override
+        PendingWrite then(PendingWrite next) {
+            return new PendingWrite(next.state,
+                    next.lastLoginAt != null ? next.lastLoginAt : lastLoginAt,
+                    next.rememberMe != null ? next.rememberMe : rememberMe);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.payroll.texas.service;
+
+/**
+ * Thrown when the password hashing pool is saturated. Controllers answer 429 with a Retry-After header.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,166 @@
+package com.payroll.texas.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for BCrypt work (login and signup), so a burst of logins cannot run more hashes at once
+ * than there are cores. This is not an async offload: the calling request thread waits in {@link #call} while
+ * the encode/matches call runs here, and lookups and inserts stay on it. What the pool adds is the bound.
+ * It is sized to the CPU count with a bounded queue; when the queue is full, or a task has already waited
+ * longer than the client is likely to, callers get a {@link PasswordHashingBusyException} carrying a
+ * Retry-After estimate instead of queueing behind the backlog.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    @Value("${security.password.hashing.threads:0}")
+    private int configuredThreads;
+
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password.hashing.max-queue-wait-ms:5000}")
+    private long maxQueueWaitMs;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final AtomicLong maxWaitMs = new AtomicLong();
+    private final AtomicLong totalRunMs = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        int threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing pool started with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the task on the hashing pool.
+     *
+     * @throws PasswordHashingBusyException immediately if the queue is full; the returned future fails
+     *         with it if the task waited longer than the configured maximum before starting
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - enqueuedAt);
+                recordWait(waitedMs);
+                if (waitedMs > maxQueueWaitMs) {
+                    // The client has probably given up; do not spend 250ms of CPU on an answer nobody reads
+                    expired.incrementAndGet();
+                    future.completeExceptionally(busy());
+                    return;
+                }
+                long started = System.nanoTime();
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    totalRunMs.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            logger.warn("Password hashing pool saturated ({} queued); rejecting request", executor.getQueue().size());
+            throw busy();
+        }
+        submitted.incrementAndGet();
+        return future;
+    }
+
+    /**
+     * Runs the task on the hashing pool and waits for its result on the calling thread.
+     *
+     * @throws PasswordHashingBusyException if the queue is full or the task waited too long to start
+     */
+    public <T> T call(Supplier<T> task) {
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queue depth and wait/run times for monitoring.
+     */
+    public Map<String, Object> getStats() {
+        long done = completed.get();
+        long started = done + expired.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("submitted", submitted.get());
+        stats.put("completed", done);
+        stats.put("rejected", rejected.get());
+        stats.put("expiredInQueue", expired.get());
+        stats.put("avgQueueWaitMs", started == 0 ? 0 : totalWaitMs.get() / started);
+        stats.put("maxQueueWaitMs", maxWaitMs.get());
+        stats.put("avgRunMs", done == 0 ? 0 : totalRunMs.get() / done);
+        return stats;
+    }
+
+    private void recordWait(long waitedMs) {
+        totalWaitMs.addAndGet(waitedMs);
+        maxWaitMs.accumulateAndGet(waitedMs, Math::max);
+    }
+
+    private PasswordHashingBusyException busy() {
+        return new PasswordHashingBusyException("Too many login requests, please retry shortly", retryAfterSeconds());
+    }
+
+    // Time for the current backlog to drain at the observed per-task cost, at least one second
+    private long retryAfterSeconds() {
+        long done = completed.get();
+        long avgRunMs = done == 0 ? 250 : Math.max(1, totalRunMs.get() / done);
+        long backlog = executor.getQueue().size() + executor.getActiveCount();
+        long drainMs = backlog * avgRunMs / Math.max(1, executor.getMaximumPoolSize());
+        return Math.max(1, (drainMs + 999) / 1000);
+    }
+}
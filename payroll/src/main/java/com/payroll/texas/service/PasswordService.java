@@ -2,6 +2,8 @@ package com.payroll.texas.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -18,10 +20,18 @@ public class PasswordService {
     
     private final BCryptPasswordEncoder passwordEncoder;
     
+    private final int strength;
+    
     public PasswordService() {
         // BCrypt with strength 12 (industry standard for 2024)
         // This provides 2^12 = 4096 iterations, making it computationally expensive to crack
-        this.passwordEncoder = new BCryptPasswordEncoder(12, new SecureRandom());
+        this(12);
+    }
+    
+    @Autowired
+    public PasswordService(@Value("${security.password.bcrypt-strength:12}") int strength) {
+        this.strength = strength;
+        this.passwordEncoder = new BCryptPasswordEncoder(strength, new SecureRandom());
     }
     
     /**
@@ -143,6 +153,25 @@ public class PasswordService {
      * @return the BCrypt strength (log rounds)
      */
     public int getBCryptStrength() {
-        return 12; // Current strength setting
+        return strength;
+    }
+    
+    /**
+     * Checks whether a stored hash was produced with a different cost than the configured strength,
+     * so it can be replaced after the next successful login.
+     * 
+     * @param encryptedPassword the stored BCrypt hash
+     * @return true if the hash should be recomputed with the current strength
+     */
+    public boolean needsRehash(String encryptedPassword) {
+        // $2a$12$... : the cost is the two digits after the version
+        if (encryptedPassword == null || encryptedPassword.length() < 7 || encryptedPassword.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encryptedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,292 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payroll.texas.dto.plan.PlanResponse;
+import com.payroll.texas.model.Plan;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * An immutable snapshot of every plan, built once per change by PlanService and shared by all plan reads.
+ *
+ * Each response a plan endpoint can return for a fixed input is built and serialized up front: the active
+ * and featured lists, every plan by id and name, and the active plans for each distinct employee limit.
+ * Price-range and comparison responses depend on arbitrary input and are assembled from the price-sorted
+ * and by-name indexes per request.
+ */
+public final class PlanCatalog {
+
+    private static final Map<String, String> NOT_FOUND = Map.of("error", "Plan not found");
+
+    private final long version;
+    private final String fingerprint;
+    private final ObjectMapper objectMapper;
+    private final List<PlanResponse> activePlans;
+    private final View active;
+    private final View featured;
+    private final Map<Long, View> byId;
+    private final Map<String, View> byName;
+    // Keyed by each distinct max_employees among active plans; a request for n employees uses the ceiling entry
+    private final NavigableMap<Integer, View> byMaxEmployees;
+    private final View noPlans;
+    private final List<PlanResponse> activeByPrice;
+
+    private PlanCatalog(long version, String fingerprint, ObjectMapper objectMapper, List<PlanResponse> activePlans,
+                        View active, View featured, Map<Long, View> byId, Map<String, View> byName,
+                        NavigableMap<Integer, View> byMaxEmployees, View noPlans, List<PlanResponse> activeByPrice) {
+        this.version = version;
+        this.fingerprint = fingerprint;
+        this.objectMapper = objectMapper;
+        this.activePlans = activePlans;
+        this.active = active;
+        this.featured = featured;
+        this.byId = byId;
+        this.byName = byName;
+        this.byMaxEmployees = byMaxEmployees;
+        this.noPlans = noPlans;
+        this.activeByPrice = activeByPrice;
+    }
+
+    /**
+     * @param objectMapper the mapper the web layer uses, so precomputed bodies match what it would write
+     */
+    static PlanCatalog build(long version, List<Plan> plans, ObjectMapper objectMapper) {
+        List<PlanResponse> all = new ArrayList<>();
+        for (Plan plan : plans) {
+            all.add(toResponse(plan, objectMapper));
+        }
+        all.sort(Comparator.comparing(PlanResponse::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(PlanResponse::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<PlanResponse> activePlans = all.stream().filter(p -> Boolean.TRUE.equals(p.getIsActive())).toList();
+        List<PlanResponse> featuredPlans = activePlans.stream().filter(p -> Boolean.TRUE.equals(p.getIsFeatured())).toList();
+
+        Map<Long, View> byId = new HashMap<>();
+        Map<String, View> byName = new HashMap<>();
+        for (PlanResponse plan : all) {
+            View view = View.of(plan, objectMapper);
+            byId.put(plan.getId(), view);
+            byName.put(plan.getName(), view);
+        }
+
+        NavigableMap<Integer, View> byMaxEmployees = new TreeMap<>();
+        for (PlanResponse plan : activePlans) {
+            int limit = plan.getMaxEmployees();
+            byMaxEmployees.computeIfAbsent(limit, l -> View.of(activePlans.stream()
+                    .filter(p -> p.getMaxEmployees() >= l).toList(), objectMapper));
+        }
+
+        List<PlanResponse> activeByPrice = new ArrayList<>(activePlans);
+        activeByPrice.sort(Comparator.comparing(PlanResponse::getMonthlyPrice));
+
+        return new PlanCatalog(version, View.of(all, objectMapper).getEtag(), objectMapper,
+                activePlans, View.of(activePlans, objectMapper), View.of(featuredPlans, objectMapper),
+                Collections.unmodifiableMap(byId), Collections.unmodifiableMap(byName),
+                Collections.unmodifiableNavigableMap(byMaxEmployees), View.of(List.of(), objectMapper),
+                Collections.unmodifiableList(activeByPrice));
+    }
+
+    private static PlanResponse toResponse(Plan plan, ObjectMapper objectMapper) {
+        return new PlanResponse(
+            plan.getId(),
+            plan.getName(),
+            plan.getDisplayName(),
+            plan.getDescription(),
+            plan.getMonthlyPrice(),
+            plan.getYearlyPrice(),
+            plan.getMaxEmployees(),
+            parseFeatures(plan.getFeatures(), objectMapper),
+            plan.getIsActive(),
+            plan.getIsFeatured(),
+            plan.getSortOrder()
+        );
+    }
+
+    private static List<String> parseFeatures(String featuresJson, ObjectMapper objectMapper) {
+        try {
+            if (featuresJson == null || featuresJson.isEmpty()) {
+                return List.of();
+            }
+            return List.copyOf(objectMapper.readValue(featuresJson, new TypeReference<List<String>>() {}));
+        } catch (Exception e) {
+            // Return empty list if parsing fails
+            return List.of();
+        }
+    }
+
+    /**
+     * Incremented each time PlanService swaps in a catalog whose plans differ from the previous one.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * A digest of every plan, active or not; equal fingerprints mean nothing a plan endpoint returns has changed.
+     */
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return active plans in sort order; shared, so callers must not modify them
+     */
+    public List<PlanResponse> getActivePlans() {
+        return activePlans;
+    }
+
+    /**
+     * @return active plans in sort order
+     */
+    public View active() {
+        return active;
+    }
+
+    /**
+     * @return active featured plans in sort order
+     */
+    public View featured() {
+        return featured;
+    }
+
+    /**
+     * @return the plan with this id, active or not
+     */
+    public Optional<View> byId(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * @return the plan with exactly this name, active or not
+     */
+    public Optional<View> byName(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    /**
+     * @return the plan with exactly this name, active or not, for callers that need its fields rather than JSON
+     */
+    public Optional<PlanResponse> planByName(String name) {
+        return byName(name).map(view -> (PlanResponse) view.getBody());
+    }
+
+    /**
+     * @return the plan with this id, active or not
+     */
+    public Optional<PlanResponse> planById(Long id) {
+        return byId(id).map(view -> (PlanResponse) view.getBody());
+    }
+
+    /**
+     * @return active plans allowing at least this many employees, in sort order
+     */
+    public View forEmployees(int employees) {
+        Map.Entry<Integer, View> entry = byMaxEmployees.ceilingEntry(employees);
+        return entry == null ? noPlans : entry.getValue();
+    }
+
+    /**
+     * @return active plans with a monthly price between the bounds inclusive, cheapest first
+     */
+    public View priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        int from = bound(minPrice, false);
+        int to = bound(maxPrice, true);
+        if (from >= to) {
+            return noPlans;
+        }
+        return View.of(activeByPrice.subList(from, to), objectMapper);
+    }
+
+    // Index of the first plan priced at or above the price, or strictly above it for an upper bound
+    private int bound(BigDecimal price, boolean upper) {
+        int low = 0;
+        int high = activeByPrice.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = activeByPrice.get(mid).getMonthlyPrice().compareTo(price);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return each requested name mapped to its plan, or to an error if no plan has that name, in request order
+     */
+    public View compare(List<String> names) {
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        for (String name : names) {
+            View plan = byName.get(name);
+            comparison.put(name, plan != null ? plan.getBody() : NOT_FOUND);
+        }
+        return View.of(comparison, objectMapper);
+    }
+
+    /**
+     * One response body together with its serialized JSON and a strong ETag derived from that JSON.
+     */
+    public static final class View {
+
+        private final Object body;
+        private final byte[] json;
+        private final String etag;
+
+        private View(Object body, byte[] json, String etag) {
+            this.body = body;
+            this.json = json;
+            this.etag = etag;
+        }
+
+        static View of(Object body, ObjectMapper objectMapper) {
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(body);
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+                return new View(body, json, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+            } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Failed to serialize plan response", e);
+            }
+        }
+
+        /**
+         * @return the response object; shared, so callers must not modify it
+         */
+        public Object getBody() {
+            return body;
+        }
+
+        /**
+         * @return the serialized body; shared like {@link #getBody()}, so callers must not modify it
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        @Override
+        public String toString() {
+            return new String(json, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,102 +1,98 @@
 package com.payroll.texas.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.payroll.texas.dto.plan.PlanResponse;
 import com.payroll.texas.model.Plan;
 import com.payroll.texas.repository.PlanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
+/**
+ * Serves plans from an in-memory {@link PlanCatalog}. Plans change rarely, so reads never touch the database:
+ * the catalog is rebuilt after this instance changes plans, and periodically to pick up changes made elsewhere,
+ * and swapped in whole so a request sees either the old plans or the new ones.
+ */
 @Service
 public class PlanService {
     
+    private static final Logger logger = LoggerFactory.getLogger(PlanService.class);
+    
     @Autowired
     private PlanRepository planRepository;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // The mapper the web layer writes responses with, so precomputed bodies are byte-identical to its output
+    @Autowired
+    private ObjectMapper objectMapper;
     
-    public List<PlanResponse> getAllActivePlans() {
-        List<Plan> plans = planRepository.findByIsActiveTrueOrderBySortOrderAsc();
-        return plans.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-    }
+    private volatile PlanCatalog catalog;
     
-    public List<Plan> getAllPlansRaw() {
-        return planRepository.findAll();
+    public PlanCatalog getCatalog() {
+        PlanCatalog current = catalog;
+        return current != null ? current : refreshCatalog();
     }
     
-    public List<PlanResponse> getFeaturedPlans() {
-        List<Plan> plans = planRepository.findByIsActiveTrueAndIsFeaturedTrueOrderBySortOrderAsc();
-        return plans.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Reloads every plan and swaps in a new catalog if anything a plan endpoint returns has changed.
+     */
+    public synchronized PlanCatalog refreshCatalog() {
+        List<Plan> plans = planRepository.findAll();
+        PlanCatalog current = catalog;
+        PlanCatalog rebuilt = PlanCatalog.build(current == null ? 1 : current.getVersion() + 1, plans, objectMapper);
+        if (current != null && current.getFingerprint().equals(rebuilt.getFingerprint())) {
+            return current;
+        }
+        catalog = rebuilt;
+        logger.info("Loaded plan catalog version {} with {} plans", rebuilt.getVersion(), plans.size());
+        return rebuilt;
     }
     
-    public PlanResponse getPlanById(Long id) {
-        Optional<Plan> planOpt = planRepository.findById(id);
-        if (planOpt.isEmpty()) {
-            throw new RuntimeException("Plan not found");
+    @Scheduled(fixedDelayString = "${app.plans.refresh-interval:300000}",
+            initialDelayString = "${app.plans.refresh-interval:300000}")
+    public void refreshCatalogPeriodically() {
+        try {
+            refreshCatalog();
+        } catch (Exception e) {
+            // Keep serving the current catalog; the next refresh retries
+            logger.error("Failed to refresh plan catalog: {}", e.getMessage(), e);
         }
-        return convertToResponse(planOpt.get());
     }
     
-    public PlanResponse getPlanByName(String name) {
-        Optional<Plan> planOpt = planRepository.findByName(name);
-        if (planOpt.isEmpty()) {
-            throw new RuntimeException("Plan not found");
-        }
-        return convertToResponse(planOpt.get());
+    public PlanCatalog.View getAllActivePlans() {
+        return getCatalog().active();
+    }
+    
+    public List<Plan> getAllPlansRaw() {
+        return planRepository.findAll();
     }
     
-    public List<PlanResponse> getPlansByMaxEmployees(Integer maxEmployees) {
-        List<Plan> plans = planRepository.findByIsActiveTrueAndMaxEmployeesGreaterThanEqualOrderBySortOrderAsc(maxEmployees);
-        return plans.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public PlanCatalog.View getFeaturedPlans() {
+        return getCatalog().featured();
     }
     
-    public List<PlanResponse> getPlansByPriceRange(Double minPrice, Double maxPrice) {
-        List<Plan> plans = planRepository.findByIsActiveTrueAndMonthlyPriceBetweenOrderByMonthlyPriceAsc(minPrice, maxPrice);
-        return plans.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public PlanCatalog.View getPlanById(Long id) {
+        return getCatalog().byId(id).orElseThrow(() -> new RuntimeException("Plan not found"));
     }
     
-    private PlanResponse convertToResponse(Plan plan) {
-        List<String> features = parseFeatures(plan.getFeatures());
-        
-        return new PlanResponse(
-            plan.getId(),
-            plan.getName(),
-            plan.getDisplayName(),
-            plan.getDescription(),
-            plan.getMonthlyPrice(),
-            plan.getYearlyPrice(),
-            plan.getMaxEmployees(),
-            features,
-            plan.getIsActive(),
-            plan.getIsFeatured(),
-            plan.getSortOrder()
-        );
+    public PlanCatalog.View getPlanByName(String name) {
+        return getCatalog().byName(name).orElseThrow(() -> new RuntimeException("Plan not found"));
     }
     
-    private List<String> parseFeatures(String featuresJson) {
-        try {
-            if (featuresJson == null || featuresJson.isEmpty()) {
-                return List.of();
-            }
-            return objectMapper.readValue(featuresJson, new TypeReference<List<String>>() {});
-        } catch (Exception e) {
-            // Return empty list if parsing fails
-            return List.of();
-        }
+    public PlanCatalog.View getPlansByMaxEmployees(Integer maxEmployees) {
+        return getCatalog().forEmployees(maxEmployees);
+    }
+    
+    public PlanCatalog.View getPlansByPriceRange(Double minPrice, Double maxPrice) {
+        return getCatalog().priceRange(BigDecimal.valueOf(minPrice), BigDecimal.valueOf(maxPrice));
+    }
+    
+    public PlanCatalog.View comparePlans(List<String> planNames) {
+        return getCatalog().compare(planNames);
     }
     
     @Transactional
@@ -142,5 +138,7 @@ public class PlanService {
         premiumPlan.setIsFeatured(false);
         premiumPlan.setSortOrder(3);
         planRepository.save(premiumPlan);
+        
+        Transactions.afterCommit(this::refreshCatalog);
     }
 } 
\ No newline at end of file
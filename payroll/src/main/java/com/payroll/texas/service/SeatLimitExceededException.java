@@ -0,0 +1,19 @@
+package com.payroll.texas.service;
+
+/**
+ * Thrown when adding or reactivating employees would take a company past its plan's employee limit.
+ * Controllers answer 409 with the limit so the client can offer an upgrade.
+ */
+public class SeatLimitExceededException extends RuntimeException {
+
+    private final int maxEmployees;
+
+    public SeatLimitExceededException(int maxEmployees) {
+        super("Your plan allows at most " + maxEmployees + " active employees");
+        this.maxEmployees = maxEmployees;
+    }
+
+    public int getMaxEmployees() {
+        return maxEmployees;
+    }
+}
@@ -2,195 +2,152 @@ package com.payroll.texas.service;
 
 import com.payroll.texas.dto.auth.SignupRequest;
 import com.payroll.texas.dto.auth.SignupResponse;
+import com.payroll.texas.dto.plan.PlanResponse;
 import com.payroll.texas.model.*;
-import com.payroll.texas.repository.CompanyRepository;
-import com.payroll.texas.repository.PlanRepository;
-import com.payroll.texas.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.Optional;
 
+/**
+ * Creates a company, its owner and, when a known plan is selected, the trial subscription record.
+ *
+ * The password is hashed before a database connection is taken, so the ~250ms of BCrypt never holds one of
+ * the pool's connections. The rows are then written by a single autocommitted statement whose data-modifying
+ * CTEs insert all three at once: the connection is held for one round trip, and either every row is written
+ * or none is. Duplicate emails are caught by the unique constraints on companies and users rather than by
+ * lookups beforehand, which also closes the window between a check and the insert.
+ */
 @Service
 public class SignupService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(SignupService.class);
-    
-    @Autowired
-    private UserRepository userRepository;
-    
-    @Autowired
-    private CompanyRepository companyRepository;
-    
-    @Autowired
-    private PlanRepository planRepository;
-    
+
+    private static final int TRIAL_DAYS = 30;
+
+    // Looked up only after a unique violation, to tell which email was taken. The constraint names differ
+    // between databases created by V1 and those baselined at V1 (V1.5), so the rows are checked instead.
+    private static final String USER_EMAIL_EXISTS = "SELECT EXISTS (SELECT 1 FROM users WHERE email = ?)";
+    private static final String COMPANY_EMAIL_EXISTS = "SELECT EXISTS (SELECT 1 FROM companies WHERE email = ?)";
+
+    private static final String INSERT_SIGNUP =
+            "WITH company AS (" +
+            "INSERT INTO companies (name, email, phone, address_line1, address_line2, city, state, zip_code, country, " +
+            "status, subscription_status, trial_ends_at, custom_fields, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) RETURNING id), " +
+            "app_user AS (" +
+            "INSERT INTO users (email, password_hash, user_type, status, first_name, last_name, phone, company_id, " +
+            "custom_fields, created_at, updated_at) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ?, company.id, ?::jsonb, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM company RETURNING id), " +
+            "subscription AS (" +
+            "INSERT INTO company_subscriptions (company_id, plan_id, status, billing_cycle, start_date, monthly_price, " +
+            "trial_ends_at, created_at, updated_at) " +
+            "SELECT company.id, ?, ?, ?, CURRENT_DATE, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM company " +
+            "WHERE ?::bigint IS NOT NULL RETURNING id) " +
+            "SELECT company.id AS company_id, app_user.id AS user_id FROM company CROSS JOIN app_user";
+
     @Autowired
-    private EncryptionService encryptionService;
-    
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
-    private CustomFieldsService customFieldsService;
-    
+    private PlanService planService;
+
     @Autowired
     private PasswordService passwordService;
-    
-    @Transactional
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     public SignupResponse signup(SignupRequest request) {
         logger.info("Signup attempt for email: {}", request.getEmail());
-        
+
         // Validate password strength
         if (!passwordService.isPasswordStrong(request.getPassword())) {
             logger.warn("Signup failed - weak password for email: {}", request.getEmail());
             throw new RuntimeException("Password does not meet security requirements. Password must be at least 8 characters long and contain uppercase, lowercase, digit, and special character.");
         }
-        
-        // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            logger.warn("Signup failed - user already exists for email: {}", request.getEmail());
-            throw new RuntimeException("User with this email already exists");
+
+        // Hashed on the hashing pool before any connection is taken
+        String passwordHash = passwordHashingExecutor.call(() -> passwordService.encryptPassword(request.getPassword()));
+
+        // Resolved from the in-memory plan catalog; an unknown plan name is still recorded on the company
+        PlanResponse plan = request.getSelectedPlan() != null
+                ? planService.getCatalog().planByName(request.getSelectedPlan()).orElse(null)
+                : null;
+        Timestamp trialEndsAt = request.getSelectedPlan() != null
+                ? Timestamp.valueOf(LocalDateTime.now().plusDays(TRIAL_DAYS))
+                : null;
+
+        CustomFields companyFields = new CustomFields();
+        if (request.getSelectedPlan() != null) {
+            companyFields.set(Company.SELECTED_PLAN, plan != null ? plan.getName() : request.getSelectedPlan());
         }
-        
-        // Check if company email already exists
-        if (companyRepository.existsByEmail(request.getEmail())) {
-            logger.warn("Signup failed - company already exists for email: {}", request.getEmail());
-            throw new RuntimeException("Company with this email already exists");
+        if (plan != null) {
+            companyFields.set(Company.PLAN_SELECTED_BEFORE_LOGIN, true);
         }
-        
+        CustomFields userFields = new CustomFields().set(User.SIGNUP_SOURCE, "web");
+        Long planId = plan != null ? plan.getId() : null;
+
+        long[] ids;
         try {
-            // Create company
-            Company company = createCompany(request);
-            company = companyRepository.save(company);
-            logger.debug("Company created with ID: {}", company.getId());
-            
-            // Create user
-            User user = createUser(request, company);
-            user = userRepository.save(user);
-            logger.debug("User created with ID: {}", user.getId());
-            
-            // Handle plan selection if provided
-            if (request.getSelectedPlan() != null) {
-                handlePlanSelection(company, request.getSelectedPlan());
-                logger.debug("Plan selected: {}", request.getSelectedPlan());
+            ids = jdbcTemplate.queryForObject(INSERT_SIGNUP, (rs, rowNum) -> new long[] {
+                        rs.getLong("company_id"), rs.getLong("user_id") },
+                    // company
+                    request.getCompanyName(), request.getEmail(), request.getPhone(), request.getAddressLine1(),
+                    request.getAddressLine2(), request.getCity(), request.getState(), request.getZipCode(),
+                    request.getCountry(), CompanyStatus.ACTIVE.name(), SubscriptionStatus.TRIAL.name(), trialEndsAt,
+                    companyFields.toJsonNode().toString(),
+                    // owner
+                    request.getEmail(), passwordHash, UserType.BUSINESS_OWNER.name(), UserStatus.ACTIVE.name(),
+                    request.getFirstName(), request.getLastName(), request.getPhone(),
+                    userFields.toJsonNode().toString(),
+                    // subscription
+                    planId, SubscriptionStatus.TRIAL.name(), BillingCycle.MONTHLY.name(),
+                    plan != null ? plan.getMonthlyPrice() : null, trialEndsAt, planId);
+        } catch (DuplicateKeyException e) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(USER_EMAIL_EXISTS, Boolean.class, request.getEmail()))) {
+                logger.warn("Signup failed - user already exists for email: {}", request.getEmail());
+                throw new RuntimeException("User with this email already exists");
+            }
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(COMPANY_EMAIL_EXISTS, Boolean.class, request.getEmail()))) {
+                logger.warn("Signup failed - company already exists for email: {}", request.getEmail());
+                throw new RuntimeException("Company with this email already exists");
             }
-            
-            // Create response
-            SignupResponse.UserInfo userInfo = new SignupResponse.UserInfo(
-                user.getId(),
-                user.getEmail(),
-                user.getFirstName(),
-                user.getLastName(),
-                user.getUserType(),
-                user.getStatus().name()
-            );
-            
-            SignupResponse.CompanyInfo companyInfo = new SignupResponse.CompanyInfo(
-                company.getId(),
-                company.getName(),
-                company.getEmail(),
-                company.getStatus().name(),
-                company.getSubscriptionStatus().name()
-            );
-            
-            logger.info("Signup successful for user: {} (ID: {})", user.getEmail(), user.getId());
-            
-            return new SignupResponse(
-                "Account created successfully",
-                userInfo,
-                companyInfo
-            );
-        } catch (Exception e) {
+            logger.error("Signup failed for email: {} - {}", request.getEmail(), e.getMessage(), e);
+            throw e;
+        } catch (RuntimeException e) {
             logger.error("Signup failed for email: {} - {}", request.getEmail(), e.getMessage(), e);
             throw e;
         }
-    }
-    
-    private Company createCompany(SignupRequest request) {
-        Company company = new Company();
-        company.setName(request.getCompanyName());
-        company.setEmail(request.getEmail());
-        company.setPhone(request.getPhone());
-        company.setAddressLine1(request.getAddressLine1());
-        company.setAddressLine2(request.getAddressLine2());
-        company.setCity(request.getCity());
-        company.setState(request.getState());
-        company.setZipCode(request.getZipCode());
-        company.setCountry(request.getCountry());
-        // TODO: Implement proper status management in future
-        // For now, set all users/companies to ACTIVE by default
-        company.setStatus(CompanyStatus.ACTIVE);
-        
-        // Only set subscription status if a plan is selected
-        if (request.getSelectedPlan() != null) {
-            company.setSubscriptionStatus(SubscriptionStatus.TRIAL);
-            company.setTrialEndsAt(LocalDateTime.now().plusDays(30)); // 30-day trial
-        }
-        // If no plan selected, leave subscription status as null/default
-        
-        // Set custom fields if provided
-        if (request.getSelectedPlan() != null) {
-            String customFields = customFieldsService.setCustomField(
-                company.getCustomFields(),
-                "selected_plan",
-                request.getSelectedPlan()
-            );
-            company.setCustomFields(customFields);
-        }
-        
-        return company;
-    }
-    
-    private User createUser(SignupRequest request, Company company) {
-        User user = new User();
-        user.setEmail(request.getEmail());
-        
-        // Encrypt password using BCrypt
-        String encryptedPassword = passwordService.encryptPassword(request.getPassword());
-        user.setPasswordHash(encryptedPassword);
-        
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setPhone(request.getPhone());
-        user.setUserType(UserType.BUSINESS_OWNER);
-        // TODO: Implement proper status management in future
-        // For now, set all users/companies to ACTIVE by default
-        user.setStatus(UserStatus.ACTIVE);
-        user.setCompany(company);
-        
-        // Set custom fields for user preferences
-        String customFields = customFieldsService.setCustomField(
-            user.getCustomFields(),
-            "signup_source",
-            "web"
+
+        SignupResponse.UserInfo userInfo = new SignupResponse.UserInfo(
+            ids[1],
+            request.getEmail(),
+            request.getFirstName(),
+            request.getLastName(),
+            UserType.BUSINESS_OWNER,
+            UserStatus.ACTIVE.name()
+        );
+
+        SignupResponse.CompanyInfo companyInfo = new SignupResponse.CompanyInfo(
+            ids[0],
+            request.getCompanyName(),
+            request.getEmail(),
+            CompanyStatus.ACTIVE.name(),
+            SubscriptionStatus.TRIAL.name()
+        );
+
+        logger.info("Signup successful for user: {} (ID: {})", request.getEmail(), ids[1]);
+
+        return new SignupResponse(
+            "Account created successfully",
+            userInfo,
+            companyInfo
         );
-        user.setCustomFields(customFields);
-        
-        logger.debug("User object created for email: {}", request.getEmail());
-        return user;
-    }
-    
-    private void handlePlanSelection(Company company, String planName) {
-        Optional<Plan> planOpt = planRepository.findByName(planName);
-        if (planOpt.isPresent()) {
-            Plan plan = planOpt.get();
-            
-            // Update company custom fields with plan selection
-            String customFields = customFieldsService.setCustomField(
-                company.getCustomFields(),
-                "selected_plan",
-                plan.getName()
-            );
-            customFields = customFieldsService.setCustomField(
-                customFields,
-                "plan_selected_before_login",
-                true
-            );
-            company.setCustomFields(customFields);
-            
-            // In a full implementation, you would also create a CompanySubscription here
-        }
     }
-} 
\ No newline at end of file
+}
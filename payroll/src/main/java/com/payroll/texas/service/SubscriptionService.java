@@ -1,5 +1,8 @@
 package com.payroll.texas.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.payroll.texas.model.Company;
 import com.payroll.texas.model.CompanyStatus;
 import com.payroll.texas.model.CompanySubscription;
@@ -9,13 +12,16 @@ import com.payroll.texas.model.BillingCycle;
 import com.payroll.texas.repository.CompanyRepository;
 import com.payroll.texas.repository.CompanySubscriptionRepository;
 import com.payroll.texas.repository.PlanRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +37,30 @@ public class SubscriptionService {
     @Autowired
     private CompanySubscriptionRepository subscriptionRepository;
     
+    // Bounds how long another instance gates on entitlements this one has changed
+    @Value("${app.subscriptions.entitlement-cache-ttl:60}")
+    private long entitlementCacheTtlSeconds;
+    
+    @Value("${app.subscriptions.entitlement-cache-size:10000}")
+    private long entitlementCacheSize;
+    
+    private LoadingCache<Long, Entitlements> entitlements;
+    
+    // Only companies that exist are cached, so a company created after a miss is found on the next check
+    private Cache<String, Long> companyIdsByEmail;
+    
+    @PostConstruct
+    void init() {
+        entitlements = Caffeine.newBuilder()
+            .maximumSize(entitlementCacheSize)
+            .expireAfterWrite(Duration.ofSeconds(entitlementCacheTtlSeconds))
+            .build(this::loadEntitlements);
+        companyIdsByEmail = Caffeine.newBuilder()
+            .maximumSize(entitlementCacheSize)
+            .expireAfterWrite(Duration.ofSeconds(entitlementCacheTtlSeconds))
+            .build();
+    }
+    
     @Transactional
     public void updateCompanySubscriptionStatus(Long companyId, String planName) {
         try {
@@ -68,22 +98,15 @@ public class SubscriptionService {
             }
             
             // Update custom fields with plan selection
-            String customFields = company.getCustomFields();
-            if (customFields == null || customFields.isEmpty()) {
-                customFields = "{}";
-            }
-            
-            // Add plan selection to custom fields
-            customFields = customFields.replace("}", "");
-            if (!customFields.endsWith("{")) {
-                customFields += ",";
-            }
-            customFields += "\"selected_plan\":\"" + plan.getName() + "\",\"plan_selected_at\":\"" + LocalDateTime.now() + "\"}";
-            company.setCustomFields(customFields);
+            company.getCustomFields()
+                .set(Company.SELECTED_PLAN, plan.getName())
+                .set(Company.PLAN_SELECTED_AT, LocalDateTime.now());
             
             company = companyRepository.save(company);
             System.out.println("SubscriptionService: Company updated with subscription status: " + newStatus);
             
+            Transactions.afterCommit(() -> entitlements.invalidate(companyId));
+            
             // Create or update company subscription record
             createOrUpdateCompanySubscription(company, plan, newStatus);
             System.out.println("SubscriptionService: Company subscription record created/updated");
@@ -154,6 +177,11 @@ public class SubscriptionService {
                 subscription.setStatus(status);
                 subscription.setMonthlyPrice(plan.getMonthlyPrice());
                 subscription.setUpdatedAt(LocalDateTime.now());
+                
+                // Keep the record's trial end in step with the company's, or the trial sweeper expires it early
+                if (status == SubscriptionStatus.TRIAL) {
+                    subscription.setTrialEndsAt(company.getTrialEndsAt());
+                }
             } else {
                 // Create new subscription
                 System.out.println("SubscriptionService: Creating new subscription");
@@ -172,7 +200,14 @@ public class SubscriptionService {
                 }
             }
             
+            // Active subscriptions are billed from today by BillingRunService; trials are not billed
+            if (status == SubscriptionStatus.ACTIVE && subscription.getNextBillingDate() == null) {
+                subscription.setNextBillingDate(LocalDate.now());
+            }
+            
             subscription = subscriptionRepository.save(subscription);
+            Long companyId = company.getId();
+            Transactions.afterCommit(() -> entitlements.invalidate(companyId));
             System.out.println("SubscriptionService: Subscription saved with ID: " + subscription.getId());
             
         } catch (Exception e) {
@@ -188,51 +223,45 @@ public class SubscriptionService {
         company.setEmail(email);
         company.setStatus(CompanyStatus.PENDING);
         company.setSubscriptionStatus(SubscriptionStatus.TRIAL);
-        company.setCustomFields("{}");
         
         company = companyRepository.save(company);
         System.out.println("SubscriptionService: Created new company with ID: " + company.getId());
         return company;
     }
     
+    /**
+     * The cached entitlement snapshot of the company with this email. Reflects subscription changes made on
+     * this instance as soon as they commit, and changes made elsewhere within the cache TTL.
+     *
+     * @return the company's entitlements; {@link Entitlements#NONE} if no company has this email
+     */
+    public Entitlements getEntitlements(String companyEmail) {
+        Long companyId = companyIdsByEmail.get(companyEmail,
+            email -> companyRepository.findIdByEmail(email).orElse(null));
+        return companyId == null ? Entitlements.NONE : getEntitlements(companyId);
+    }
+    
+    public Entitlements getEntitlements(Long companyId) {
+        return entitlements.get(companyId);
+    }
+    
+    /**
+     * Drops cached entitlements of companies whose subscriptions were changed outside this service.
+     */
+    public void evictEntitlements(Collection<Long> companyIds) {
+        entitlements.invalidateAll(companyIds);
+    }
+    
+    private Entitlements loadEntitlements(Long companyId) {
+        return companyRepository.findById(companyId)
+            .map(company -> Entitlements.resolve(company,
+                subscriptionRepository.findWithPlanByCompanyId(companyId).orElse(null)))
+            .orElse(Entitlements.NONE);
+    }
+    
     public boolean hasActiveSubscription(String userEmail) {
         try {
-            // Find company by user email
-            Optional<Company> companyOpt = companyRepository.findByEmail(userEmail);
-            if (companyOpt.isEmpty()) {
-                return false;
-            }
-            
-            Company company = companyOpt.get();
-            
-            // Check if company has selected one of the valid plans (BASIC, STANDARD, PREMIUM)
-            String customFields = company.getCustomFields();
-            if (customFields != null && customFields.contains("selected_plan")) {
-                // Extract the selected plan name from custom fields
-                // This is a simplified check - in production you'd want to parse the JSON properly
-                if (customFields.contains("BASIC") || customFields.contains("STANDARD") || customFields.contains("PREMIUM")) {
-                    // User has selected a valid plan, check subscription status
-                    if (company.getSubscriptionStatus() == SubscriptionStatus.ACTIVE || 
-                        company.getSubscriptionStatus() == SubscriptionStatus.TRIAL) {
-                        return true;
-                    }
-                }
-            }
-            
-            // Also check if there's an active subscription record with a valid plan
-            Optional<CompanySubscription> subscriptionOpt = subscriptionRepository.findByCompanyId(company.getId());
-            if (subscriptionOpt.isPresent()) {
-                CompanySubscription subscription = subscriptionOpt.get();
-                if (subscription.getPlan() != null) {
-                    String planName = subscription.getPlan().getName().toUpperCase();
-                    if (planName.equals("BASIC") || planName.equals("STANDARD") || planName.equals("PREMIUM")) {
-                        return subscription.getStatus() == SubscriptionStatus.ACTIVE || 
-                               subscription.getStatus() == SubscriptionStatus.TRIAL;
-                    }
-                }
-            }
-            
-            return false;
+            return getEntitlements(userEmail).isActive();
         } catch (Exception e) {
             // Log error but return false to be safe
             System.err.println("Error checking subscription status for user: " + userEmail + " - " + e.getMessage());
@@ -242,38 +271,12 @@ public class SubscriptionService {
     
     public boolean hasSelectedPlan(String userEmail) {
         try {
-            // Find company by user email
-            Optional<Company> companyOpt = companyRepository.findByEmail(userEmail);
-            if (companyOpt.isEmpty()) {
-                return false;
-            }
-            
-            Company company = companyOpt.get();
-            
-            // Check if company has selected one of the valid plans (BASIC, STANDARD, PREMIUM)
-            String customFields = company.getCustomFields();
-            if (customFields != null && customFields.contains("selected_plan")) {
-                // Check if any of the valid plans are selected
-                if (customFields.contains("BASIC") || customFields.contains("STANDARD") || customFields.contains("PREMIUM")) {
-                    return true;
-                }
-            }
-            
-            // Also check if there's a subscription record with a valid plan
-            Optional<CompanySubscription> subscriptionOpt = subscriptionRepository.findByCompanyId(company.getId());
-            if (subscriptionOpt.isPresent()) {
-                CompanySubscription subscription = subscriptionOpt.get();
-                if (subscription.getPlan() != null) {
-                    String planName = subscription.getPlan().getName().toUpperCase();
-                    return planName.equals("BASIC") || planName.equals("STANDARD") || planName.equals("PREMIUM");
-                }
-            }
-            
-            return false;
+            return getEntitlements(userEmail).hasSelectedPlan();
         } catch (Exception e) {
             // Log error but return false to be safe
             System.err.println("Error checking plan selection for user: " + userEmail + " - " + e.getMessage());
             return false;
         }
     }
-} 
\ No newline at end of file
+    
+}
@@ -0,0 +1,159 @@
+package com.payroll.texas.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.payroll.texas.model.RevokedToken;
+import com.payroll.texas.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Revoked token ids (the jti claim), persisted in revoked_tokens and mirrored in memory.
+ *
+ * {@link #isRevoked} runs on every authenticated request and never touches the database: a Bloom filter
+ * answers "not revoked" for almost every token without locking, and only filter hits are confirmed
+ * against the exact set. Exact entries expire with their token. The table is reloaded on startup and
+ * polled for revocations made by other instances; expired rows are purged and the filter is rebuilt
+ * so it does not fill up over time.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    // Overlap between syncs so a row committed just after the previous poll started is not missed
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${security.revocation.expected-tokens:100000}")
+    private int expectedTokens;
+
+    // jti -> token expiry (epoch millis); each entry is dropped when its token would have expired anyway
+    private Cache<String, Long> revoked;
+
+    private volatile RevokedTokenBloomFilter filter;
+
+    private volatile LocalDateTime lastSync;
+
+    @PostConstruct
+    void init() {
+        revoked = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String jti, Long expiresAt, long currentTime) {
+                        return nanosUntil(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jti, Long expiresAt, long currentTime, long currentDuration) {
+                        return nanosUntil(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jti, Long expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        filter = new RevokedTokenBloomFilter(expectedTokens, BLOOM_FALSE_POSITIVE_RATE);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> unexpired = revokedTokenRepository.findUnexpired(now);
+        unexpired.forEach(this::remember);
+        lastSync = now;
+        logger.info("Loaded {} revoked tokens", unexpired.size());
+    }
+
+    /**
+     * @return true if the token id has been revoked and the token has not yet expired
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false; // tokens issued before jti was added cannot be revoked individually
+        }
+        if (!filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.getIfPresent(jti) != null;
+    }
+
+    /**
+     * Revokes a token until its expiry. Revoking an already revoked or expired token is a no-op.
+     */
+    @Transactional
+    public void revoke(String jti, Long userId, Date expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        if (isRevoked(jti)) {
+            return;
+        }
+        RevokedToken token = new RevokedToken(jti, userId,
+                LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()));
+        revokedTokenRepository.save(token);
+        remember(token);
+        logger.debug("Revoked token {} for user {}", jti, userId);
+    }
+
+    /**
+     * Picks up tokens revoked by other application instances.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval:30000}",
+            initialDelayString = "${security.revocation.sync-interval:30000}")
+    public void syncFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> recent = revokedTokenRepository.findRevokedSince(
+                lastSync.minusSeconds(SYNC_OVERLAP_SECONDS), now);
+        recent.forEach(this::remember);
+        lastSync = now;
+        if (!recent.isEmpty()) {
+            logger.debug("Synced {} recently revoked tokens", recent.size());
+        }
+    }
+
+    /**
+     * Deletes rows for tokens that have expired and rebuilds the Bloom filter from the live entries,
+     * since a Bloom filter cannot forget keys.
+     */
+    @Scheduled(cron = "${security.revocation.purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        revoked.cleanUp();
+
+        RevokedTokenBloomFilter rebuilt = new RevokedTokenBloomFilter(
+                Math.max(expectedTokens, (int) revoked.estimatedSize()), BLOOM_FALSE_POSITIVE_RATE);
+        revoked.asMap().keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+        // A revoke() racing the swap may have added its key to the old filter only; its exact entry is already visible
+        revoked.asMap().keySet().forEach(rebuilt::add);
+        logger.info("Purged {} expired revoked tokens; {} still active", deleted, revoked.estimatedSize());
+    }
+
+    private void remember(RevokedToken token) {
+        long expiresAt = token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // Exact entry first, then the filter, so a filter hit can always be confirmed
+        revoked.put(token.getJti(), expiresAt);
+        filter.add(token.getJti());
+    }
+
+    private static long nanosUntil(long epochMillis) {
+        return Math.max(0L, (epochMillis - System.currentTimeMillis()) * 1_000_000L);
+    }
+}
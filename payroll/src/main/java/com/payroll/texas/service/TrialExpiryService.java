@@ -0,0 +1,96 @@
+package com.payroll.texas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves companies and subscription records whose trial has ended from TRIAL to EXPIRED.
+ *
+ * Each batch is a single UPDATE on at most batch-size rows picked oldest first from a partial index that only
+ * holds rows still on trial, so a batch is a short range scan and its own short transaction (the statements
+ * autocommit). SKIP LOCKED lets sweepers on several instances, and rows being changed by a plan selection,
+ * pass each other without waiting; the status is re-checked on the locked row so an upgrade that commits first
+ * is never overwritten. A sweep stops after max-batches and the next one continues where it left off.
+ */
+@Service
+public class TrialExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrialExpiryService.class);
+
+    private static final String EXPIRE_COMPANIES =
+            "UPDATE companies SET subscription_status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP " +
+            "WHERE subscription_status = 'TRIAL' AND id IN (SELECT id FROM companies " +
+            "WHERE subscription_status = 'TRIAL' AND trial_ends_at <= ? " +
+            "ORDER BY trial_ends_at, id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id";
+
+    private static final String EXPIRE_SUBSCRIPTIONS =
+            "UPDATE company_subscriptions SET status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP " +
+            "WHERE status = 'TRIAL' AND id IN (SELECT id FROM company_subscriptions " +
+            "WHERE status = 'TRIAL' AND trial_ends_at <= ? " +
+            "ORDER BY trial_ends_at, id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING company_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Value("${app.trials.batch-size:1000}")
+    private int batchSize;
+
+    // Bounds how long one sweep holds the shared scheduler thread; anything left is picked up by the next sweep
+    @Value("${app.trials.max-batches:50}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${app.trials.sweep-interval:60000}",
+            initialDelayString = "${app.trials.sweep-interval:60000}")
+    public void sweep() {
+        try {
+            expireTrials(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Batches already run stay committed; the next sweep carries on from there
+            logger.error("Trial expiry sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Expires trials that ended at or before the given time, up to max-batches batches per table.
+     *
+     * @return the number of companies and subscription records expired
+     */
+    public int expireTrials(LocalDateTime now) {
+        long started = System.currentTimeMillis();
+        int companies = expire(EXPIRE_COMPANIES, now);
+        int subscriptions = expire(EXPIRE_SUBSCRIPTIONS, now);
+        if (companies + subscriptions > 0) {
+            logger.info("Expired {} company trials and {} trial subscriptions in {}ms",
+                    companies, subscriptions, System.currentTimeMillis() - started);
+        }
+        return companies + subscriptions;
+    }
+
+    private int expire(String sql, LocalDateTime now) {
+        Timestamp cutoff = Timestamp.valueOf(now);
+        int expired = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> companyIds = jdbcTemplate.queryForList(sql, Long.class, cutoff, batchSize);
+            if (!companyIds.isEmpty()) {
+                subscriptionService.evictEntitlements(companyIds);
+                expired += companyIds.size();
+            }
+            if (companyIds.size() < batchSize) {
+                break;
+            }
+        }
+        return expired;
+    }
+}
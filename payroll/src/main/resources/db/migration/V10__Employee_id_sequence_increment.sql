@@ -0,0 +1,4 @@
+-- Employee ids are now allocated by Hibernate's pooled optimizer (allocationSize = 50),
+-- which needs the sequence to advance in steps of 50 so inserts can be JDBC-batched.
+-- The column default (nextval) keeps working for rows inserted outside Hibernate.
+ALTER SEQUENCE IF EXISTS employees_id_seq INCREMENT BY 50;
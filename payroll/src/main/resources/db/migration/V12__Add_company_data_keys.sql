@@ -0,0 +1,17 @@
+-- Per-company data keys for envelope encryption of SSN, bank and EIN values.
+-- wrapped_key is the AES data key encrypted with the application master key; it is never stored in the clear.
+-- Ciphertext written with a data key is prefixed with its id ("k<id>:"), so retired keys stay usable for decryption.
+CREATE TABLE IF NOT EXISTS company_data_keys (
+    id BIGSERIAL PRIMARY KEY,
+    company_id BIGINT NOT NULL REFERENCES companies(id),
+    wrapped_key TEXT NOT NULL,
+    master_key_version INTEGER NOT NULL DEFAULT 1,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    retired_at TIMESTAMP,
+    CONSTRAINT chk_company_data_keys_status CHECK (status IN ('ACTIVE', 'RETIRED'))
+);
+
+-- At most one active key per company; concurrent first use of a company races on this index
+CREATE UNIQUE INDEX IF NOT EXISTS uk_company_data_keys_active ON company_data_keys(company_id) WHERE status = 'ACTIVE';
+CREATE INDEX IF NOT EXISTS idx_company_data_keys_company_id ON company_data_keys(company_id);
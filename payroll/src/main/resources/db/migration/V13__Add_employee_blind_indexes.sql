@@ -0,0 +1,15 @@
+-- Keyed HMAC blind indexes for equality lookups on encrypted columns.
+-- The ciphertext in ssn_encrypted / bank_account_number_encrypted is randomized, so it cannot be indexed or
+-- compared; these columns hold a deterministic HMAC of the normalized value (scoped to the company) instead.
+-- Existing rows are filled in by the background re-encryption job.
+ALTER TABLE employees
+ADD COLUMN IF NOT EXISTS ssn_blind_index VARCHAR(64),
+ADD COLUMN IF NOT EXISTS bank_account_blind_index VARCHAR(64);
+
+-- One employee per SSN within a company; rows not yet backfilled are exempt
+CREATE UNIQUE INDEX IF NOT EXISTS uk_employees_company_ssn_blind_index
+    ON employees(company_id, ssn_blind_index) WHERE ssn_blind_index IS NOT NULL;
+
+-- Several employees may share an account, so this one is not unique
+CREATE INDEX IF NOT EXISTS idx_employees_company_bank_account_blind_index
+    ON employees(company_id, bank_account_blind_index) WHERE bank_account_blind_index IS NOT NULL;
@@ -0,0 +1,7 @@
+-- Last four digits of SSN, bank account and routing number, stored in the clear for masked display
+-- ("***-**-1234") so list and detail views never need to decrypt. Set on write; existing rows are
+-- filled in by the background re-encryption job.
+ALTER TABLE employees
+ADD COLUMN IF NOT EXISTS ssn_last4 VARCHAR(4),
+ADD COLUMN IF NOT EXISTS bank_account_last4 VARCHAR(4),
+ADD COLUMN IF NOT EXISTS bank_routing_last4 VARCHAR(4);
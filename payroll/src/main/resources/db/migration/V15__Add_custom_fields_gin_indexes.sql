@@ -0,0 +1,7 @@
+-- GIN indexes backing custom-field filters (CustomFieldQueryService): containment (@>), key existence (?)
+-- and JSON path existence (@?) on custom_fields.
+-- V1 declares these, but databases baselined at version 1 skip V1 and get their tables from V1.5, which
+-- creates no GIN indexes; IF NOT EXISTS makes this a no-op where they are already present.
+CREATE INDEX IF NOT EXISTS idx_employees_custom_fields ON employees USING GIN (custom_fields);
+CREATE INDEX IF NOT EXISTS idx_users_custom_fields ON users USING GIN (custom_fields);
+CREATE INDEX IF NOT EXISTS idx_companies_custom_fields ON companies USING GIN (custom_fields);
@@ -0,0 +1,20 @@
+-- Per-company definitions of employee custom fields (name, type, required, indexed).
+-- Writes to employees.custom_fields are validated against the company's definitions. Indexed numeric fields
+-- get a per-company partial B-tree index on the extracted value (index_name), built CONCURRENTLY by the
+-- application; index_status tracks that build.
+CREATE TABLE IF NOT EXISTS custom_field_definitions (
+    id BIGSERIAL PRIMARY KEY,
+    company_id BIGINT NOT NULL REFERENCES companies(id),
+    name VARCHAR(40) NOT NULL,
+    field_type VARCHAR(20) NOT NULL,
+    required BOOLEAN NOT NULL DEFAULT FALSE,
+    indexed BOOLEAN NOT NULL DEFAULT FALSE,
+    index_name VARCHAR(63),
+    index_status VARCHAR(20) NOT NULL DEFAULT 'NONE',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_custom_field_definitions_type CHECK (field_type IN ('STRING', 'INTEGER', 'DECIMAL', 'BOOLEAN', 'DATE')),
+    CONSTRAINT chk_custom_field_definitions_index_status CHECK (index_status IN ('NONE', 'PENDING', 'READY', 'FAILED'))
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_custom_field_definitions_company_name ON custom_field_definitions(company_id, name);
@@ -0,0 +1,22 @@
+-- One invoice per subscription billing period, written by the billing run.
+-- The unique (subscription_id, period_start) index makes a re-run after a crash or restart a no-op for periods already invoiced.
+CREATE TABLE IF NOT EXISTS subscription_invoices (
+    id BIGSERIAL PRIMARY KEY,
+    subscription_id BIGINT NOT NULL REFERENCES company_subscriptions(id),
+    company_id BIGINT NOT NULL REFERENCES companies(id),
+    plan_id BIGINT NOT NULL REFERENCES plans(id),
+    billing_cycle VARCHAR(50) NOT NULL,
+    period_start DATE NOT NULL,
+    period_end DATE NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_subscription_invoices_status CHECK (status IN ('OPEN', 'PAID', 'VOID')),
+    CONSTRAINT chk_subscription_invoices_cycle CHECK (billing_cycle IN ('MONTHLY', 'YEARLY'))
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_subscription_invoices_period ON subscription_invoices(subscription_id, period_start);
+CREATE INDEX IF NOT EXISTS idx_subscription_invoices_company ON subscription_invoices(company_id, period_start);
+
+-- Billing workers claim due subscriptions in next_billing_date order; only active ones are ever billed
+CREATE INDEX IF NOT EXISTS idx_company_subscriptions_due ON company_subscriptions(next_billing_date, id) WHERE status = 'ACTIVE';
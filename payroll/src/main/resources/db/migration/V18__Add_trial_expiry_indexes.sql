@@ -0,0 +1,4 @@
+-- The trial sweeper expires trials oldest first in small batches; these partial indexes hold only rows still on trial,
+-- so each batch is a short range scan no matter how many companies have ever had a trial.
+CREATE INDEX IF NOT EXISTS idx_companies_trial_due ON companies(trial_ends_at, id) WHERE subscription_status = 'TRIAL';
+CREATE INDEX IF NOT EXISTS idx_company_subscriptions_trial_due ON company_subscriptions(trial_ends_at, id) WHERE status = 'TRIAL';
@@ -0,0 +1,15 @@
+-- Maintained count of a company's ACTIVE employees, so plan seat limits are checked with one conditional UPDATE
+-- of the company row instead of a COUNT(*) over employees. The application keeps it in step on every insert,
+-- status change and delete; this backfill sets it once for existing data.
+ALTER TABLE companies ADD COLUMN IF NOT EXISTS active_employee_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE companies c SET active_employee_count = counts.active
+FROM (SELECT company_id, COUNT(*) AS active FROM employees WHERE status = 'ACTIVE' GROUP BY company_id) counts
+WHERE counts.company_id = c.id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints WHERE constraint_name = 'chk_companies_active_employee_count') THEN
+        ALTER TABLE companies ADD CONSTRAINT chk_companies_active_employee_count CHECK (active_employee_count >= 0);
+    END IF;
+END $$;
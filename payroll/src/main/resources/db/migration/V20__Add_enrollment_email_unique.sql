@@ -0,0 +1,11 @@
+-- One enrollment per contact email, so beginning an enrollment can be a single INSERT ... ON CONFLICT upsert.
+-- Duplicates left by concurrent submissions are collapsed onto the most recent row first.
+DELETE FROM enrollment_data e
+USING enrollment_data newer
+WHERE e.contact_email = newer.contact_email
+  AND e.id < newer.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_enrollment_data_contact_email ON enrollment_data(contact_email);
+
+-- Superseded by the unique index
+DROP INDEX IF EXISTS idx_enrollment_data_email;
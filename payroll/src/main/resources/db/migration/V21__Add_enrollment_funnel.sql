@@ -0,0 +1,111 @@
+-- Enrollment funnel metrics maintained incrementally by a trigger on enrollment_data, so reading them never
+-- scans enrollments and every write path (the begin upsert, step updates, plan selection) is counted the same way.
+
+-- When the enrollment entered its current step; time in a step is measured when it leaves it
+ALTER TABLE enrollment_data ADD COLUMN IF NOT EXISTS step_entered_at TIMESTAMP;
+UPDATE enrollment_data SET step_entered_at = COALESCE(updated_at, created_at, CURRENT_TIMESTAMP) WHERE step_entered_at IS NULL;
+
+-- One row per step: enrollments currently at the step, and enrollments that have ever reached it
+CREATE TABLE IF NOT EXISTS enrollment_funnel_steps (
+    step VARCHAR(50) PRIMARY KEY,
+    step_order SMALLINT NOT NULL,
+    current_count BIGINT NOT NULL DEFAULT 0,
+    entered_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- Time-in-step histogram: enrollments that left each step, bucketed by how long they stayed.
+-- Buckets cover [lower_bound_seconds, upper_bound_seconds); the last one has no upper bound.
+CREATE TABLE IF NOT EXISTS enrollment_step_durations (
+    step VARCHAR(50) NOT NULL REFERENCES enrollment_funnel_steps(step),
+    bucket SMALLINT NOT NULL,
+    lower_bound_seconds BIGINT NOT NULL,
+    upper_bound_seconds BIGINT,
+    exit_count BIGINT NOT NULL DEFAULT 0,
+    total_seconds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (step, bucket)
+);
+
+-- Seeded from the enrollments as they stand; steps reached before this migration are inferred from the
+-- current step, and the histogram starts empty because earlier step changes were not timed
+INSERT INTO enrollment_funnel_steps (step, step_order, current_count, entered_count)
+SELECT s.step, s.step_order,
+       (SELECT COUNT(*) FROM enrollment_data e WHERE e.enrollment_step = s.step),
+       (SELECT COUNT(*) FROM enrollment_data e
+        JOIN (VALUES ('INITIAL', 0), ('COMPANY_INFO', 1), ('PLAN_SELECTION', 2), ('ACCOUNT_CREATION', 3), ('COMPLETED', 4))
+             AS reached(step, step_order) ON reached.step = e.enrollment_step
+        WHERE reached.step_order >= s.step_order)
+FROM (VALUES ('INITIAL', 0), ('COMPANY_INFO', 1), ('PLAN_SELECTION', 2), ('ACCOUNT_CREATION', 3), ('COMPLETED', 4))
+     AS s(step, step_order)
+ON CONFLICT (step) DO NOTHING;
+
+INSERT INTO enrollment_step_durations (step, bucket, lower_bound_seconds, upper_bound_seconds)
+SELECT s.step, b.bucket, b.lower_bound_seconds, b.upper_bound_seconds
+FROM enrollment_funnel_steps s
+CROSS JOIN (VALUES (0, 0, 60), (1, 60, 300), (2, 300, 900), (3, 900, 3600), (4, 3600, 21600),
+                   (5, 21600, 86400), (6, 86400, 259200), (7, 259200, 604800), (8, 604800, 2592000),
+                   (9, 2592000, NULL)) AS b(bucket, lower_bound_seconds, upper_bound_seconds)
+ON CONFLICT (step, bucket) DO NOTHING;
+
+-- Stamps step_entered_at whenever an enrollment is created or changes step
+CREATE OR REPLACE FUNCTION stamp_enrollment_step_entered_at()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' OR OLD.enrollment_step IS DISTINCT FROM NEW.enrollment_step THEN
+        NEW.step_entered_at := CURRENT_TIMESTAMP;
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+-- Counts are kept AFTER the row change: unlike BEFORE INSERT, AFTER INSERT does not fire for an upsert row that
+-- conflicted and was updated instead, so each change is counted exactly once
+CREATE OR REPLACE FUNCTION track_enrollment_funnel()
+RETURNS TRIGGER AS $$
+DECLARE
+    seconds BIGINT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        UPDATE enrollment_funnel_steps SET current_count = GREATEST(current_count - 1, 0) WHERE step = OLD.enrollment_step;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        UPDATE enrollment_funnel_steps SET current_count = current_count + 1, entered_count = entered_count + 1
+        WHERE step = NEW.enrollment_step;
+        RETURN NULL;
+    END IF;
+
+    IF OLD.enrollment_step IS NOT DISTINCT FROM NEW.enrollment_step THEN
+        RETURN NULL;
+    END IF;
+
+    -- Lock the two counter rows in a fixed order so opposite transitions cannot deadlock
+    IF OLD.enrollment_step < NEW.enrollment_step THEN
+        UPDATE enrollment_funnel_steps SET current_count = GREATEST(current_count - 1, 0) WHERE step = OLD.enrollment_step;
+        UPDATE enrollment_funnel_steps SET current_count = current_count + 1, entered_count = entered_count + 1
+        WHERE step = NEW.enrollment_step;
+    ELSE
+        UPDATE enrollment_funnel_steps SET current_count = current_count + 1, entered_count = entered_count + 1
+        WHERE step = NEW.enrollment_step;
+        UPDATE enrollment_funnel_steps SET current_count = GREATEST(current_count - 1, 0) WHERE step = OLD.enrollment_step;
+    END IF;
+
+    IF OLD.step_entered_at IS NOT NULL THEN
+        seconds := GREATEST(EXTRACT(EPOCH FROM (NEW.step_entered_at - OLD.step_entered_at))::BIGINT, 0);
+        UPDATE enrollment_step_durations SET exit_count = exit_count + 1, total_seconds = total_seconds + seconds
+        WHERE step = OLD.enrollment_step
+          AND seconds >= lower_bound_seconds
+          AND (upper_bound_seconds IS NULL OR seconds < upper_bound_seconds);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS stamp_enrollment_step_entered_at ON enrollment_data;
+CREATE TRIGGER stamp_enrollment_step_entered_at BEFORE INSERT OR UPDATE ON enrollment_data
+    FOR EACH ROW EXECUTE FUNCTION stamp_enrollment_step_entered_at();
+
+DROP TRIGGER IF EXISTS track_enrollment_funnel ON enrollment_data;
+CREATE TRIGGER track_enrollment_funnel AFTER INSERT OR UPDATE OR DELETE ON enrollment_data
+    FOR EACH ROW EXECUTE FUNCTION track_enrollment_funnel();
@@ -0,0 +1,41 @@
+-- The V21 trigger updated the funnel counter rows inside every enrollment write, so all concurrent
+-- enrollment starts queued on the single INITIAL row. The trigger now only appends the step change here;
+-- EnrollmentFunnelService folds these rows into the counters in short batches of its own.
+CREATE TABLE IF NOT EXISTS enrollment_step_transitions (
+    id BIGSERIAL PRIMARY KEY,
+    -- Null when the enrollment was created
+    from_step VARCHAR(50),
+    -- Null when the enrollment was deleted
+    to_step VARCHAR(50),
+    -- Time spent in from_step; null when it was not timed
+    seconds_in_step BIGINT
+);
+
+CREATE OR REPLACE FUNCTION track_enrollment_funnel()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.enrollment_step IS NOT NULL THEN
+            INSERT INTO enrollment_step_transitions (from_step) VALUES (OLD.enrollment_step);
+        END IF;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.enrollment_step IS NOT NULL THEN
+            INSERT INTO enrollment_step_transitions (to_step) VALUES (NEW.enrollment_step);
+        END IF;
+        RETURN NULL;
+    END IF;
+
+    IF OLD.enrollment_step IS NOT DISTINCT FROM NEW.enrollment_step THEN
+        RETURN NULL;
+    END IF;
+
+    INSERT INTO enrollment_step_transitions (from_step, to_step, seconds_in_step)
+    VALUES (OLD.enrollment_step, NEW.enrollment_step,
+            CASE WHEN OLD.step_entered_at IS NOT NULL
+                 THEN GREATEST(EXTRACT(EPOCH FROM (NEW.step_entered_at - OLD.step_entered_at))::BIGINT, 0) END);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
@@ -0,0 +1,3 @@
+-- Backs status-filtered keyset pages ordered by last name (findPageByLastNameAndStatus).
+-- V9 only covered (company_id, last_name, id), so those pages walked every status and discarded the rest.
+CREATE INDEX IF NOT EXISTS idx_employees_company_status_last_name_id ON employees(company_id, status, last_name, id);
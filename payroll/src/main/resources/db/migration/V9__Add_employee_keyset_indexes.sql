@@ -0,0 +1,12 @@
+-- Composite indexes backing keyset pagination of GET /employees/getallemployees
+-- Every page is a bounded range scan on (company_id, [status,] sort key, id) instead of
+-- a scan + sort of the whole company roster.
+
+-- Status-filtered listing ordered by id
+CREATE INDEX IF NOT EXISTS idx_employees_company_status_id ON employees(company_id, status, id);
+
+-- Unfiltered listing ordered by id
+CREATE INDEX IF NOT EXISTS idx_employees_company_id ON employees(company_id, id);
+
+-- Listing ordered by last name (id breaks ties so the cursor is unique)
+CREATE INDEX IF NOT EXISTS idx_employees_company_last_name_id ON employees(company_id, last_name, id);
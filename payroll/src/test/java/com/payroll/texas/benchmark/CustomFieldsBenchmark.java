@@ -0,0 +1,91 @@
+package com.payroll.texas.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.payroll.texas.model.CustomFieldPath;
+import com.payroll.texas.model.CustomFields;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a set-then-get sequence on a company's custom fields, as in SignupService.handlePlanSelection
+ * followed by the plan checks in SubscriptionService: set two fields, then read one top-level and one
+ * nested field.
+ *
+ * Both benchmarks start from the stored column text and end with the text that would be written back.
+ * legacyStringRoundTrips reproduces the old CustomFieldsService, which parsed and re-serialized the whole
+ * document on every call and split the nested path per read. typedTree parses once, works on the tree
+ * with precompiled paths and serializes once.
+ *
+ * Run with: mvn test-compile, then
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.payroll.texas.benchmark.CustomFieldsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomFieldsBenchmark {
+
+    private static final String STORED = "{\"signup_source\":\"web\",\"industry\":\"construction\","
+            + "\"notification_preferences\":{\"email\":true,\"sms\":false},\"locations\":[\"Austin\",\"Dallas\"]}";
+
+    private static final CustomFieldPath SELECTED_PLAN = CustomFieldPath.of("selected_plan");
+    private static final CustomFieldPath PLAN_SELECTED_BEFORE_LOGIN = CustomFieldPath.of("plan_selected_before_login");
+    private static final CustomFieldPath EMAIL_NOTIFICATIONS = CustomFieldPath.of("notification_preferences.email");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public void legacyStringRoundTrips(Blackhole blackhole) throws Exception {
+        String customFields = legacySet(STORED, "selected_plan", "BASIC");
+        customFields = legacySet(customFields, "plan_selected_before_login", true);
+
+        blackhole.consume(objectMapper.readTree(customFields).get("selected_plan").asText());
+        JsonNode current = objectMapper.readTree(customFields);
+        for (String part : "notification_preferences.email".split("\\.")) {
+            current = current.get(part);
+        }
+        blackhole.consume(current.asBoolean());
+        blackhole.consume(customFields);
+    }
+
+    @Benchmark
+    public void typedTree(Blackhole blackhole) {
+        CustomFields customFields = CustomFields.parse(STORED)
+                .set(SELECTED_PLAN, "BASIC")
+                .set(PLAN_SELECTED_BEFORE_LOGIN, true);
+
+        blackhole.consume(customFields.getString(SELECTED_PLAN));
+        blackhole.consume(customFields.getBoolean(EMAIL_NOTIFICATIONS));
+        blackhole.consume(customFields.toString());
+    }
+
+    private String legacySet(String existing, String fieldName, Object value) throws Exception {
+        ObjectNode node = (ObjectNode) objectMapper.readTree(existing);
+        node.set(fieldName, objectMapper.valueToTree(value));
+        return objectMapper.writeValueAsString(node);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomFieldsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+package com.payroll.texas.benchmark;
+
+import com.payroll.texas.service.EncryptionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of encrypting and decrypting 100k SSNs, per SSN.
+ *
+ * legacy* reproduces the old EncryptionService: key Base64-decoded, Cipher.getInstance and a new
+ * SecureRandom on every call. encryptAll/decryptAll use the cached key, per-thread cipher and shared IV source.
+ *
+ * Run with: mvn test-compile, then
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.payroll.texas.benchmark.EncryptionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    private static final int SSN_COUNT = 100_000;
+
+    // 32-byte test key (the development key in application.yml is not a valid AES length)
+    private static final String KEY = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+
+    private EncryptionService service;
+    private List<String> ssns;
+    private List<String> encrypted;
+
+    @Setup
+    public void setUp() {
+        service = new EncryptionService();
+        ReflectionTestUtils.setField(service, "encryptionKey", KEY);
+        ReflectionTestUtils.setField(service, "algorithm", ALGORITHM);
+        ReflectionTestUtils.invokeMethod(service, "init");
+
+        Random random = new Random(42);
+        ssns = new ArrayList<>(SSN_COUNT);
+        for (int i = 0; i < SSN_COUNT; i++) {
+            ssns.add(String.format("%09d", random.nextInt(1_000_000_000)));
+        }
+        encrypted = service.encryptAll(ssns);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SSN_COUNT)
+    public int legacyEncrypt() throws Exception {
+        int total = 0;
+        for (String ssn : ssns) {
+            total += legacyEncrypt(ssn).length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SSN_COUNT)
+    public List<String> encryptAll() {
+        return service.encryptAll(ssns);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SSN_COUNT)
+    public int legacyDecrypt() throws Exception {
+        int total = 0;
+        for (String value : encrypted) {
+            total += legacyDecrypt(value).length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SSN_COUNT)
+    public List<String> decryptAll() {
+        return service.decryptAll(encrypted);
+    }
+
+    private static String legacyEncrypt(String plaintext) throws Exception {
+        byte[] iv = new byte[12];
+        SecureRandom random = new SecureRandom();
+        random.nextBytes(iv);
+        SecretKey key = new SecretKeySpec(Base64.getDecoder().decode(KEY), "AES");
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        byte[] encryptedData = cipher.doFinal(plaintext.getBytes());
+        byte[] combined = new byte[iv.length + encryptedData.length];
+        System.arraycopy(iv, 0, combined, 0, iv.length);
+        System.arraycopy(encryptedData, 0, combined, iv.length, encryptedData.length);
+        return Base64.getEncoder().encodeToString(combined);
+    }
+
+    private static String legacyDecrypt(String encryptedData) throws Exception {
+        byte[] combined = Base64.getDecoder().decode(encryptedData);
+        byte[] iv = new byte[12];
+        byte[] encrypted = new byte[combined.length - 12];
+        System.arraycopy(combined, 0, iv, 0, 12);
+        System.arraycopy(combined, 12, encrypted, 0, encrypted.length);
+        SecretKey key = new SecretKeySpec(Base64.getDecoder().decode(KEY), "AES");
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        return new String(cipher.doFinal(encrypted));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EncryptionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.payroll.texas.benchmark;
+
+import com.payroll.texas.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of JWT handling before and after the single-pass verification change.
+ *
+ * legacyValidateThenExtract reproduces the old JwtService: validateToken (key rebuilt, parse + verify,
+ * then a second parse for the expiry check) followed by extractUsername (third parse).
+ * singleParse is the cost of a cache miss (one parse with the shared key and parser);
+ * verifyCached is the steady state for a token seen before.
+ *
+ * Run with: mvn test-compile, then
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.payroll.texas.benchmark.JwtVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET =
+            "yh4Rp/wd+1SUf541Tm73QXtLV+LDMjYolStNYbADVcRGEzYpAbnodrqyjLEZ7FmCSESL8Iq39zCAP1rzph/cig==";
+
+    private JwtService cachedService;
+    private JwtParser sharedParser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedService = newJwtService();
+        sharedParser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build();
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", 42L);
+        claims.put("userType", "BUSINESS_OWNER");
+        claims.put("companyId", 7L);
+        token = cachedService.generateToken(claims, "owner@example.com");
+    }
+
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        // validateToken: parse + verify, then isTokenExpired parses again
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseSignedClaims(token);
+        Claims expiryCheck = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload();
+        if (expiryCheck.getExpiration().getTime() < System.currentTimeMillis()) {
+            return null;
+        }
+        // extractUsername: third parse
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return sharedParser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return cachedService.verify(token).map(Claims::getSubject).orElse(null);
+    }
+
+    private static JwtService newJwtService() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,112 @@
+package com.payroll.texas.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of POST /auth/signup against a running server: a fixed number of clients each
+ * send a signup for a fresh email as soon as their previous one returns, for a fixed duration. Reports
+ * signups/sec, 429s (hashing pool saturated), other failures and latency percentiles.
+ *
+ * Use more clients than the Hikari pool (20) and the password hashing pool so both are saturated. Every
+ * request comes from one address, so start the server with the per-IP signup limit raised, e.g.
+ * --security.rate-limit.signup.per-ip.capacity=1000000 --security.rate-limit.signup.per-ip.refill-per-minute=1000000
+ *
+ * Run with: mvn test-compile, then
+ * java -cp target/test-classes com.payroll.texas.benchmark.SignupLoadBenchmark [baseUrl] [clients] [seconds]
+ * (defaults: http://localhost:8080 64 30)
+ *
+ * To compare signup paths, run it with the same arguments against a server built from each revision, on the
+ * same database and pool sizes, and record signups/sec, throttled and p95/p99 for both. No figures are
+ * recorded here yet: the runs need a PostgreSQL instance and a running server.
+ */
+public class SignupLoadBenchmark {
+
+    private static final String PASSWORD = "Load-Test-Passw0rd!";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        URI signup = URI.create(baseUrl + "/auth/signup");
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong created = new AtomicLong();
+        AtomicLong throttled = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            executor.submit(() -> {
+                long[] samples = new long[1 << 16];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long n = sequence.incrementAndGet();
+                    HttpRequest request = HttpRequest.newBuilder(signup)
+                            .timeout(Duration.ofSeconds(30))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body(runId, n)))
+                            .build();
+                    long started = System.nanoTime();
+                    try {
+                        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 200) {
+                            created.incrementAndGet();
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = System.nanoTime() - started;
+                        } else if (status == 429) {
+                            throttled.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                synchronized (latencies) {
+                    latencies.add(Arrays.copyOf(samples, count));
+                }
+                return null;
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("clients=%d duration=%ds%n", clients, seconds);
+        System.out.printf("signups=%d (%.1f/s) throttled=%d failed=%d%n",
+                created.get(), created.get() / (double) seconds, throttled.get(), failed.get());
+        if (all.length > 0) {
+            System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                    percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static String body(String runId, long n) {
+        return "{\"email\":\"load-" + runId + "-" + n + "@example.com\",\"password\":\"" + PASSWORD + "\","
+                + "\"firstName\":\"Load\",\"lastName\":\"Test\",\"companyName\":\"Load Test " + n + "\","
+                + "\"phone\":\"5125550100\",\"selectedPlan\":\"BASIC\"}";
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
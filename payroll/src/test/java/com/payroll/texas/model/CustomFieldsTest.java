@@ -0,0 +1,100 @@
+package com.payroll.texas.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CustomFields, CustomFieldPath and the dirty checking of CustomFieldsType.
+ */
+class CustomFieldsTest {
+
+    private static final CustomFieldPath SELECTED_PLAN = CustomFieldPath.of("selected_plan");
+    private static final CustomFieldPath EMAIL_NOTIFICATIONS = CustomFieldPath.of("notification_preferences.email");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Should read back values set on top-level and nested paths")
+    void testSetThenGet() {
+        CustomFields fields = new CustomFields()
+                .set(SELECTED_PLAN, "BASIC")
+                .set(EMAIL_NOTIFICATIONS, true);
+
+        assertEquals(Optional.of("BASIC"), fields.getString(SELECTED_PLAN));
+        assertEquals(Optional.of(true), fields.getBoolean(EMAIL_NOTIFICATIONS));
+        assertEquals(Optional.empty(), fields.getInteger(SELECTED_PLAN));
+        assertEquals("{\"selected_plan\":\"BASIC\",\"notification_preferences\":{\"email\":true}}", fields.toString());
+    }
+
+    @Test
+    @DisplayName("Should replace a non-object intermediate node when setting a nested path")
+    void testNestedSetReplacesScalar() {
+        CustomFields fields = CustomFields.parse("{\"notification_preferences\":\"off\"}");
+
+        fields.set(EMAIL_NOTIFICATIONS, false);
+
+        assertEquals(Optional.of(false), fields.getBoolean(EMAIL_NOTIFICATIONS));
+    }
+
+    @Test
+    @DisplayName("Should remove fields and ignore missing paths")
+    void testRemove() {
+        CustomFields fields = CustomFields.parse("{\"selected_plan\":\"BASIC\"}");
+
+        fields.remove(SELECTED_PLAN).remove(EMAIL_NOTIFICATIONS);
+
+        assertFalse(fields.has(SELECTED_PLAN));
+        assertTrue(fields.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid paths and non-object documents")
+    void testRejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldPath.of(""));
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldPath.of("a..b"));
+        assertThrows(IllegalArgumentException.class, () -> CustomFields.parse("[1,2]"));
+        assertThrows(IllegalArgumentException.class, () -> CustomFields.parse("{not json"));
+        assertTrue(CustomFields.parse(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should serialize as an object and accept both object and string-encoded input")
+    void testJson() throws Exception {
+        CustomFields fields = new CustomFields().set(SELECTED_PLAN, "BASIC");
+
+        assertEquals("{\"selected_plan\":\"BASIC\"}", objectMapper.writeValueAsString(fields));
+        assertEquals(fields, objectMapper.readValue("{\"selected_plan\":\"BASIC\"}", CustomFields.class));
+        assertEquals(fields, objectMapper.readValue("\"{\\\"selected_plan\\\":\\\"BASIC\\\"}\"", CustomFields.class));
+    }
+
+    @Test
+    @DisplayName("Should only report a change when the content differs from the loaded snapshot")
+    void testDirtyChecking() {
+        CustomFieldsType type = new CustomFieldsType();
+        CustomFields loaded = CustomFields.parse("{\"selected_plan\":\"BASIC\",\"seats\":5}");
+        CustomFields snapshot = type.deepCopy(loaded);
+
+        loaded.set(SELECTED_PLAN, "BASIC");
+        assertTrue(type.equals(snapshot, loaded));
+
+        loaded.set(SELECTED_PLAN, "PREMIUM");
+        assertFalse(type.equals(snapshot, loaded));
+        assertEquals(Optional.of("BASIC"), snapshot.getString(SELECTED_PLAN));
+    }
+
+    @Test
+    @DisplayName("Should round-trip through the second-level cache form")
+    void testAssembleDisassemble() {
+        CustomFieldsType type = new CustomFieldsType();
+        CustomFields fields = new CustomFields().set(EMAIL_NOTIFICATIONS, true);
+
+        assertEquals(fields, type.assemble(type.disassemble(fields), null));
+        assertNull(type.assemble(type.disassemble(null), null));
+    }
+}
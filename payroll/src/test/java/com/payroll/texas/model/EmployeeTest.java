@@ -0,0 +1,61 @@
+package com.payroll.texas.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Employee JSON views of sensitive fields.
+ */
+class EmployeeTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Should only serialize masked SSN and bank values")
+    void testSerializesMaskedValuesOnly() {
+        Employee employee = new Employee("Ada", "Lovelace", EmployeeType.EMPLOYEE);
+        employee.setSsn("123456789");
+        employee.setSsnEncrypted("k1:ciphertext");
+        employee.setSsnBlindIndex("index");
+        employee.setSsnLast4("6789");
+        employee.setBankAccountNumberEncrypted("k1:account");
+        employee.setBankAccountLast4("4321");
+        employee.setBankRoutingNumberEncrypted("k1:routing");
+        employee.setBankRoutingLast4("0021");
+
+        JsonNode json = objectMapper.valueToTree(employee);
+
+        assertEquals("***-**-6789", json.get("ssnMasked").asText());
+        assertEquals("****4321", json.get("bankAccountNumberMasked").asText());
+        assertEquals("****0021", json.get("bankRoutingNumberMasked").asText());
+        for (String hidden : new String[] {"ssn", "ssnEncrypted", "ssnBlindIndex", "ssnLast4",
+                "bankAccountNumberEncrypted", "bankAccountLast4", "bankRoutingNumberEncrypted", "bankRoutingLast4"}) {
+            assertFalse(json.has(hidden), hidden + " should not be serialized");
+        }
+    }
+
+    @Test
+    @DisplayName("Should accept plaintext input and ignore masked values sent back")
+    void testDeserializesInput() throws Exception {
+        Employee employee = objectMapper.readValue(
+                "{\"firstName\":\"Ada\",\"ssn\":\"123-45-6789\",\"bankAccountNumberEncrypted\":\"000123456\","
+                        + "\"ssnMasked\":\"***-**-6789\"}", Employee.class);
+
+        assertEquals("123-45-6789", employee.getSsn());
+        assertEquals("000123456", employee.getBankAccountNumberEncrypted());
+        assertNull(employee.getSsnLast4());
+    }
+
+    @Test
+    @DisplayName("Should keep only the last four digits of long enough values")
+    void testLastFour() {
+        assertEquals("6789", Employee.lastFour("123456789"));
+        assertNull(Employee.lastFour("1234"));
+        assertNull(Employee.lastFour(null));
+    }
+}
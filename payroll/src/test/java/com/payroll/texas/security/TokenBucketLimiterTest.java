@@ -0,0 +1,66 @@
+package com.payroll.texas.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for TokenBucketLimiter burst, per-key isolation and concurrency behaviour.
+ */
+class TokenBucketLimiterTest {
+
+    @Test
+    @DisplayName("Should allow a burst up to capacity and then report a wait")
+    void testBurstThenThrottle() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60, Duration.ofMinutes(1), 100);
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+
+        long waitMs = limiter.tryAcquire("10.0.0.1");
+        assertTrue(waitMs > 0 && waitMs <= 1000, "wait was " + waitMs);
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per key")
+    void testKeysAreIndependent() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, Duration.ofMinutes(1), 100);
+
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertTrue(limiter.tryAcquire("a@example.com") > 0);
+        assertEquals(0, limiter.tryAcquire("b@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should never admit more than capacity under contention")
+    void testConcurrentAcquire() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(50, 1, Duration.ofMinutes(1), 100);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 400; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("shared") == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid configuration")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketLimiter(0, 10, Duration.ofMinutes(1), 100));
+    }
+}
@@ -0,0 +1,39 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.model.BillingCycle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BillingRunService charge and billing period calculation.
+ */
+class BillingRunServiceTest {
+
+    @Test
+    @DisplayName("Should charge the monthly price, or the plan's yearly price for yearly billing")
+    void testCharge() {
+        assertEquals(new BigDecimal("99.00"), BillingRunService.charge(BillingCycle.MONTHLY, new BigDecimal("99"), new BigDecimal("990.00")));
+        assertEquals(new BigDecimal("990.00"), BillingRunService.charge(BillingCycle.YEARLY, new BigDecimal("99.00"), new BigDecimal("990.00")));
+        assertEquals(new BigDecimal("1069.20"), BillingRunService.charge(BillingCycle.YEARLY, new BigDecimal("99.00"), null));
+    }
+
+    @Test
+    @DisplayName("Should advance one cycle and keep the start date's day of month")
+    void testNextBillingDate() {
+        LocalDate start = LocalDate.of(2025, 1, 31);
+
+        LocalDate february = BillingRunService.nextBillingDate(start, start, BillingCycle.MONTHLY);
+        assertEquals(LocalDate.of(2025, 2, 28), february);
+        assertEquals(LocalDate.of(2025, 3, 31), BillingRunService.nextBillingDate(start, february, BillingCycle.MONTHLY));
+        assertEquals(LocalDate.of(2026, 1, 31), BillingRunService.nextBillingDate(start, start, BillingCycle.YEARLY));
+
+        LocalDate leapDay = LocalDate.of(2024, 2, 29);
+        assertEquals(LocalDate.of(2025, 2, 28), BillingRunService.nextBillingDate(leapDay, leapDay, BillingCycle.YEARLY));
+        assertEquals(LocalDate.of(2025, 7, 1), BillingRunService.nextBillingDate(null, LocalDate.of(2025, 6, 1), BillingCycle.MONTHLY));
+    }
+}
@@ -0,0 +1,49 @@
+package com.payroll.texas.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BlindIndexService deterministic, company-scoped HMAC indexes.
+ */
+class BlindIndexServiceTest {
+
+    private BlindIndexService blindIndexService;
+
+    @BeforeEach
+    void setUp() {
+        blindIndexService = new BlindIndexService();
+        ReflectionTestUtils.setField(blindIndexService, "blindIndexKey", "h60ppDEhaC/2SFRr4CkTvwBTMkwxNOwwwEuQ/+8bSTI=");
+        ReflectionTestUtils.invokeMethod(blindIndexService, "init");
+    }
+
+    @Test
+    @DisplayName("Should give the same index for the same SSN regardless of formatting")
+    void testDeterministic() {
+        String index = blindIndexService.ssnIndex(7L, "123-45-6789");
+
+        assertEquals(index, blindIndexService.ssnIndex(7L, "123456789"));
+        assertEquals(index, blindIndexService.ssnIndex(7L, "123 45 6789"));
+        assertNotEquals(index, blindIndexService.ssnIndex(7L, "123456780"));
+        assertTrue(index.length() <= 64);
+    }
+
+    @Test
+    @DisplayName("Should scope indexes to the company and the field")
+    void testScoping() {
+        assertNotEquals(blindIndexService.ssnIndex(7L, "123456789"), blindIndexService.ssnIndex(8L, "123456789"));
+        assertNotEquals(blindIndexService.ssnIndex(7L, "123456789"), blindIndexService.bankAccountIndex(7L, "123456789"));
+    }
+
+    @Test
+    @DisplayName("Should return null for missing values and reject malformed SSNs")
+    void testMissingAndInvalid() {
+        assertNull(blindIndexService.ssnIndex(7L, null));
+        assertNull(blindIndexService.bankAccountIndex(7L, ""));
+        assertThrows(IllegalArgumentException.class, () -> blindIndexService.ssnIndex(7L, "1234"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.dto.employee.EmployeeSearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CompanySearchIndex prefix, fuzzy and incremental update behaviour.
+ */
+class CompanySearchIndexTest {
+
+    private CompanySearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CompanySearchIndex();
+        index.loadIfNeeded(() -> List.of(
+                hit(1L, "Jane", "Doe", "jane.doe@acme.com", "EMP-001", "Accountant", "Finance"),
+                hit(2L, "John", "Smith", "jsmith@acme.com", "EMP-002", "Engineer", "Platform"),
+                hit(3L, "Janet", "Jackson", "janet@acme.com", "EMP-003", "Engineer", "Finance")
+        ));
+    }
+
+    @Test
+    @DisplayName("Should match token prefixes and rank exact tokens first")
+    void testPrefixSearch() {
+        assertEquals(List.of(1L, 3L), ids(index.search("jan", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("Jane", 10)));
+        assertEquals(List.of(2L), ids(index.search("emp-002", 10)));
+    }
+
+    @Test
+    @DisplayName("Should require every query word to match")
+    void testMultiWordSearch() {
+        assertEquals(List.of(3L), ids(index.search("engineer fin", 10)));
+        assertTrue(index.search("engineer accountant", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should tolerate misspellings through trigram matches")
+    void testFuzzySearch() {
+        assertEquals(List.of(2L), ids(index.search("smiht", 10)));
+        assertEquals(List.of(3L, 2L), ids(index.search("enginer", 10))); // ties ordered by last name
+    }
+
+    @Test
+    @DisplayName("Should apply updates and removals incrementally")
+    void testIncrementalUpdates() {
+        index.upsert(hit(2L, "John", "Smythe", "jsmythe@acme.com", "EMP-002", "Engineer", "Platform"));
+        assertTrue(index.search("smith", 10).isEmpty());
+        assertEquals(List.of(2L), ids(index.search("smythe", 10)));
+
+        index.remove(1L);
+        assertEquals(List.of(3L), ids(index.search("jan", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should honour the result limit and ignore empty queries")
+    void testLimitAndEmptyQuery() {
+        assertEquals(1, index.search("acme", 1).size());
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search(null, 10).isEmpty());
+    }
+
+    private static EmployeeSearchHit hit(Long id, String firstName, String lastName, String email,
+                                         String employeeId, String jobTitle, String department) {
+        return new EmployeeSearchHit(id, firstName, lastName, email, employeeId, jobTitle, department);
+    }
+
+    private static List<Long> ids(List<EmployeeSearchHit> hits) {
+        return hits.stream().map(EmployeeSearchHit::getId).collect(Collectors.toList());
+    }
+}
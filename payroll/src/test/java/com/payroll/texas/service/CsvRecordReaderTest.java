@@ -0,0 +1,82 @@
+package com.payroll.texas.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CsvRecordReader quoting, line endings and record length limit.
+ */
+class CsvRecordReaderTest {
+
+    private static CsvRecordReader reader(String csv) {
+        return new CsvRecordReader(new StringReader(csv), 40);
+    }
+
+    @Test
+    @DisplayName("Should split plain records on commas and keep empty fields")
+    void testPlainRecords() throws IOException {
+        CsvRecordReader reader = reader("a,b,c\n1,,3\n");
+
+        assertEquals(List.of("a", "b", "c"), reader.next());
+        assertEquals(List.of("1", "", "3"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Should accept LF, CRLF and lone CR line endings and a missing final line ending")
+    void testLineEndings() throws IOException {
+        CsvRecordReader reader = reader("a\r\nb\rc\nd");
+
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(List.of("b"), reader.next());
+        assertEquals(List.of("c"), reader.next());
+        assertEquals(List.of("d"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Should unescape doubled quotes and keep commas and line breaks inside quoted fields")
+    void testQuotedFields() throws IOException {
+        CsvRecordReader reader = reader("\"say \"\"hi\"\"\",\"x,y\",\"two\r\nlines\"\nnext\n");
+
+        assertEquals(List.of("say \"hi\"", "x,y", "two\r\nlines"), reader.next());
+        assertEquals(List.of("next"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Should keep a quote that does not open a field as text")
+    void testQuoteInsideUnquotedField() throws IOException {
+        CsvRecordReader reader = reader("5'10\",ok\n");
+
+        assertEquals(List.of("5'10\"", "ok"), reader.next());
+    }
+
+    @Test
+    @DisplayName("Should report an unterminated quote with the line its record starts on")
+    void testUnterminatedQuote() throws IOException {
+        CsvRecordReader reader = reader("a\n\"b\nc\n\"\n\"open");
+
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(List.of("b\nc\n"), reader.next()); // lines 2 to 4
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(e.getMessage().contains("line 5"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should stop reading a record as soon as it passes the length limit")
+    void testRecordLengthLimit() throws IOException {
+        CsvRecordReader reader = reader("x".repeat(40) + "\n\"" + "x".repeat(1000));
+
+        assertEquals(List.of("x".repeat(40)), reader.next());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+        assertTrue(e.getMessage().contains("40 characters"), e.getMessage());
+    }
+}
@@ -0,0 +1,100 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.payroll.texas.dto.customfield.CustomFieldFilter;
+import com.payroll.texas.model.CustomFieldDefinition;
+import com.payroll.texas.model.CustomFieldIndexStatus;
+import com.payroll.texas.model.CustomFieldType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CustomFieldQueryService compilation of custom-field filters to jsonb SQL.
+ */
+class CustomFieldQueryServiceTest {
+
+    @Test
+    @DisplayName("Should compile equality to containment of a nested document")
+    void testEquality() {
+        CustomFieldQueryService.Predicate predicate = CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.eq("certifications.forklift", JsonNodeFactory.instance.booleanNode(true))));
+
+        assertEquals(" AND custom_fields @> ?::jsonb", predicate.sql());
+        assertEquals(List.of("{\"certifications\":{\"forklift\":true}}"), predicate.args());
+    }
+
+    @Test
+    @DisplayName("Should compile existence to the key operator or a quoted JSON path")
+    void testExists() {
+        CustomFieldQueryService.Predicate topLevel = CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.exists("union_member")));
+        assertEquals(" AND custom_fields ?? ?", topLevel.sql());
+        assertEquals(List.of("union_member"), topLevel.args());
+
+        CustomFieldQueryService.Predicate nested = CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.exists("certifications.fork\"lift")));
+        assertEquals(" AND custom_fields @?? ?::jsonpath", nested.sql());
+        assertEquals(List.of("$.\"certifications\".\"fork\\\"lift\""), nested.args());
+    }
+
+    @Test
+    @DisplayName("Should compile ranges to guarded numeric comparisons with bound keys")
+    void testRange() {
+        CustomFieldQueryService.Predicate predicate = CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.range("pay.differential", new BigDecimal("1.5"), null)));
+
+        assertEquals(" AND (CASE WHEN jsonb_typeof(custom_fields -> ? -> ?) = 'number' "
+                + "THEN (custom_fields -> ? ->> ?)::numeric END) >= ?", predicate.sql());
+        assertEquals(List.of("pay", "differential", "pay", "differential", new BigDecimal("1.5")), predicate.args());
+
+        CustomFieldQueryService.Predicate both = CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.range("seats", BigDecimal.ONE, BigDecimal.TEN)));
+        assertEquals(2, both.sql().split(" AND ").length - 1);
+        assertEquals(6, both.args().size());
+    }
+
+    @Test
+    @DisplayName("Should use the company's index expression for ranges on indexed fields")
+    void testIndexedRange() {
+        CustomFieldDefinition seats = new CustomFieldDefinition(7L, "seats", CustomFieldType.INTEGER, false, true);
+        seats.setIndexStatus(CustomFieldIndexStatus.READY);
+        CustomFieldSchema schema = CustomFieldSchema.compile(List.of(seats));
+
+        CustomFieldQueryService.Predicate predicate = CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.range("seats", BigDecimal.ONE, null)), schema);
+
+        assertEquals(" AND " + CustomFieldSchema.numericExpression("seats") + " >= ?", predicate.sql());
+        assertEquals(List.of(BigDecimal.ONE), predicate.args());
+        assertTrue(predicate.usesCompanyIndex());
+        assertFalse(CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.range("seats", BigDecimal.ONE, null))).usesCompanyIndex());
+    }
+
+    @Test
+    @DisplayName("Should compile no filters to no condition")
+    void testEmpty() {
+        assertEquals("", CustomFieldQueryService.compile(null).sql());
+        assertEquals("", CustomFieldQueryService.compile(Collections.emptyList()).sql());
+    }
+
+    @Test
+    @DisplayName("Should reject incomplete filters and too many filters")
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.eq("plan", null))));
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.range("seats", null, null))));
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldQueryService.compile(List.of(
+                CustomFieldFilter.exists("a..b"))));
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldQueryService.compile(List.of(
+                new CustomFieldFilter("plan", null, null, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldQueryService.compile(
+                Collections.nCopies(CustomFieldQueryService.MAX_FILTERS + 1, CustomFieldFilter.exists("plan"))));
+    }
+}
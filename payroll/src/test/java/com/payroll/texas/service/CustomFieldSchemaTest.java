@@ -0,0 +1,80 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.model.CustomFieldDefinition;
+import com.payroll.texas.model.CustomFieldIndexStatus;
+import com.payroll.texas.model.CustomFieldType;
+import com.payroll.texas.model.CustomFields;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CustomFieldSchema compiled validation of custom field definitions.
+ */
+class CustomFieldSchemaTest {
+
+    private final CustomFieldSchema schema = CustomFieldSchema.compile(List.of(
+            new CustomFieldDefinition(7L, "badge_number", CustomFieldType.STRING, true, false),
+            new CustomFieldDefinition(7L, "seats", CustomFieldType.INTEGER, false, true),
+            new CustomFieldDefinition(7L, "differential", CustomFieldType.DECIMAL, false, false),
+            new CustomFieldDefinition(7L, "union_member", CustomFieldType.BOOLEAN, false, false),
+            new CustomFieldDefinition(7L, "certified_on", CustomFieldType.DATE, false, false)));
+
+    @Test
+    @DisplayName("Should accept values of the defined types and undefined fields")
+    void testValid() {
+        CustomFields values = CustomFields.parse("{\"badge_number\":\"B-12\",\"seats\":4,\"differential\":1.5,"
+                + "\"union_member\":true,\"certified_on\":\"2024-03-01\",\"anything\":[1,2]}");
+
+        assertEquals(List.of(), schema.validate(values));
+    }
+
+    @Test
+    @DisplayName("Should report every missing required field and mistyped value")
+    void testInvalid() {
+        CustomFields values = CustomFields.parse("{\"seats\":4.5,\"differential\":\"high\","
+                + "\"union_member\":\"yes\",\"certified_on\":\"03/01/2024\"}");
+
+        List<String> errors = schema.validate(values);
+
+        assertEquals(5, errors.size());
+        assertTrue(errors.contains("Custom field 'badge_number' is required"));
+        assertTrue(errors.contains("Custom field 'seats' must be an integer"));
+        assertTrue(errors.contains("Custom field 'certified_on' must be a date (YYYY-MM-DD)"));
+    }
+
+    @Test
+    @DisplayName("Should treat JSON null as missing")
+    void testNull() {
+        assertEquals(List.of("Custom field 'badge_number' is required"),
+                schema.validate(CustomFields.parse("{\"badge_number\":null}")));
+    }
+
+    @Test
+    @DisplayName("Should only report indexed numeric fields whose index is READY as indexed")
+    void testIndexedNumeric() {
+        assertFalse(schema.isIndexedNumeric("seats"));
+        assertFalse(schema.isIndexedNumeric("differential"));
+        assertFalse(schema.isIndexedNumeric("missing"));
+        assertTrue(CustomFieldSchema.compile(List.of()).isEmpty());
+
+        CustomFieldDefinition seats = new CustomFieldDefinition(7L, "seats", CustomFieldType.INTEGER, false, true);
+        for (CustomFieldIndexStatus status : CustomFieldIndexStatus.values()) {
+            seats.setIndexStatus(status);
+            assertEquals(status == CustomFieldIndexStatus.READY,
+                    CustomFieldSchema.compile(List.of(seats)).isIndexedNumeric("seats"), status.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Should only build the index expression for valid field names")
+    void testNumericExpression() {
+        assertEquals("(CASE WHEN jsonb_typeof(custom_fields -> 'seats') = 'number' "
+                + "THEN (custom_fields ->> 'seats')::numeric END)", CustomFieldSchema.numericExpression("seats"));
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldSchema.numericExpression("x'; DROP TABLE employees; --"));
+        assertThrows(IllegalArgumentException.class, () -> CustomFieldSchema.numericExpression("Seats"));
+    }
+}
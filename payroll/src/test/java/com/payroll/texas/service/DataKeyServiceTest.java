@@ -0,0 +1,51 @@
+package com.payroll.texas.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for DataKeyService wrapping of data keys under the master key.
+ */
+class DataKeyServiceTest {
+
+    private DataKeyService dataKeyService;
+
+    private final SecretKey dataKey = new SecretKeySpec("company-seven-data-key-32-bytes!".getBytes(), "AES");
+
+    @BeforeEach
+    void setUp() {
+        dataKeyService = new DataKeyService();
+        ReflectionTestUtils.setField(dataKeyService, "masterKeyBase64", "kKxCLye9RxqxR+H7pyQzXAonDzfGLz5eywn1tVxGPHo=");
+        ReflectionTestUtils.setField(dataKeyService, "masterKeyVersion", 1);
+        ReflectionTestUtils.setField(dataKeyService, "dataKeyCacheSize", 100L);
+        ReflectionTestUtils.setField(dataKeyService, "activeKeyTtlSeconds", 60L);
+        ReflectionTestUtils.setField(dataKeyService, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.invokeMethod(dataKeyService, "init");
+    }
+
+    @Test
+    @DisplayName("Should unwrap a wrapped data key for the same company")
+    void testWrapRoundTrip() {
+        String wrapped = dataKeyService.wrap(7L, dataKey);
+
+        assertNotEquals(wrapped, dataKeyService.wrap(7L, dataKey));
+        assertArrayEquals(dataKey.getEncoded(), dataKeyService.unwrap(7L, wrapped).getEncoded());
+    }
+
+    @Test
+    @DisplayName("Should not unwrap a data key under another company")
+    void testWrappedKeyBoundToCompany() {
+        String wrapped = dataKeyService.wrap(7L, dataKey);
+
+        assertThrows(RuntimeException.class, () -> dataKeyService.unwrap(8L, wrapped));
+    }
+}
@@ -0,0 +1,114 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for EmployeeExportService CSV cell escaping and NDJSON rows.
+ */
+class EmployeeExportServiceTest {
+
+    // A row of the export query: id, then the given values for the next columns and null for the rest
+    private static ResultSet row(long id, Object... values) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(id);
+        for (int i = 0; i < values.length; i++) {
+            when(rs.getObject(i + 2)).thenReturn(values[i]);
+        }
+        return rs;
+    }
+
+    private static String csv(ResultSet... rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmployeeExportService.RowWriter writer = new EmployeeExportService.CsvRowWriter(out);
+        for (ResultSet rs : rows) {
+            writer.write(rs);
+        }
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // The first exported cell after id (employee_id) of a single-row CSV export
+    private static String firstCell(String value) throws Exception {
+        String csv = csv(row(1, value));
+        String data = csv.substring(csv.indexOf("\r\n") + 2);
+        String rest = ",".repeat(EmployeeExportService.COLUMNS.length - 2) + "\r\n";
+        assertTrue(data.startsWith("1,") && data.endsWith(rest), data);
+        return data.substring(2, data.length() - rest.length());
+    }
+
+    @Test
+    @DisplayName("Should write the header, CRLF row endings and empty cells for nulls")
+    void testCsvRow() throws Exception {
+        String csv = csv(row(7, "E-7", "Ada", "Lovelace"), row(8, null, null, null, null, null, null, null,
+                null, null, null, null, Date.valueOf(LocalDate.of(2024, 2, 29))));
+
+        String[] lines = csv.split("\r\n", -1);
+        assertEquals(String.join(",", EmployeeExportService.COLUMNS), lines[0]);
+        assertEquals("7,E-7,Ada,Lovelace,,,,,,,,,,,,", lines[1]);
+        assertEquals("8,,,,,,,,,,,,2024-02-29,,,", lines[2]);
+        assertEquals("", lines[3]);
+    }
+
+    @Test
+    @DisplayName("Should quote cells with commas, quotes or line breaks and double embedded quotes")
+    void testCsvQuoting() throws Exception {
+        assertEquals("plain", firstCell("plain"));
+        assertEquals("\"Smith, Jr.\"", firstCell("Smith, Jr."));
+        assertEquals("\"the \"\"boss\"\"\"", firstCell("the \"boss\""));
+        assertEquals("\"two\nlines\"", firstCell("two\nlines"));
+        assertEquals("\"cr\rhere\"", firstCell("cr\rhere"));
+    }
+
+    @Test
+    @DisplayName("Should neutralize cells a spreadsheet would evaluate as a formula")
+    void testCsvFormulaInjection() throws Exception {
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\")\"", firstCell("=HYPERLINK(\"http://x\")"));
+        assertEquals("'+1", firstCell("+1"));
+        assertEquals("'-2", firstCell("-2"));
+        assertEquals("'@SUM(A1)", firstCell("@SUM(A1)"));
+        assertEquals("'\tx", firstCell("\tx"));
+        assertEquals("\"'\rx\"", firstCell("\rx"));
+        // Only the first character matters
+        assertEquals("a=b", firstCell("a=b"));
+        assertEquals("", firstCell(""));
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line with nulls kept and text not neutralized")
+    void testNdjsonRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmployeeExportService.RowWriter writer = new EmployeeExportService.NdjsonRowWriter(new JsonFactory(), out);
+        writer.write(row(7, "=E-7", "Ada \"the first\"", "Love\nlace"));
+        writer.write(row(8));
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals(7, first.get("id").asLong());
+        assertEquals("=E-7", first.get("employee_id").asText());
+        assertEquals("Ada \"the first\"", first.get("first_name").asText());
+        assertEquals("Love\nlace", first.get("last_name").asText());
+        assertTrue(first.get("state").isNull());
+
+        JsonNode second = mapper.readTree(lines[1]);
+        assertEquals(8, second.get("id").asLong());
+        assertEquals(EmployeeExportService.COLUMNS.length, second.size());
+    }
+}
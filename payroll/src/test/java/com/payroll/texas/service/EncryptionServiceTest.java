@@ -0,0 +1,115 @@
+package com.payroll.texas.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for EncryptionService AES-GCM round trips, batch methods and per-company keys.
+ */
+class EncryptionServiceTest {
+
+    private EncryptionService encryptionService;
+
+    @BeforeEach
+    void setUp() {
+        encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "encryptionKey",
+                Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+        ReflectionTestUtils.setField(encryptionService, "algorithm", "AES/GCM/NoPadding");
+        ReflectionTestUtils.invokeMethod(encryptionService, "init");
+
+        DataKeyService dataKeyService = mock(DataKeyService.class);
+        DataKeyService.DataKey company7 = new DataKeyService.DataKey(1L, 7L,
+                new SecretKeySpec("company-seven-data-key-32-bytes!".getBytes(), "AES"));
+        DataKeyService.DataKey company8 = new DataKeyService.DataKey(2L, 8L,
+                new SecretKeySpec("company-eight-data-key-32-bytes!".getBytes(), "AES"));
+        when(dataKeyService.activeKey(7L)).thenReturn(company7);
+        when(dataKeyService.activeKey(8L)).thenReturn(company8);
+        when(dataKeyService.key(1L)).thenReturn(company7);
+        when(dataKeyService.key(2L)).thenReturn(company8);
+        ReflectionTestUtils.setField(encryptionService, "dataKeyService", dataKeyService);
+    }
+
+    @Test
+    @DisplayName("Should round trip values and use a fresh IV each time")
+    void testRoundTrip() {
+        String first = encryptionService.encryptSSN("123-45-6789");
+        String second = encryptionService.encryptSSN("123456789");
+
+        assertNotEquals(first, second);
+        assertEquals("123456789", encryptionService.decryptSSN(first));
+        assertEquals("123456789", encryptionService.decryptSSN(second));
+        assertEquals("Zoë Müller", encryptionService.decrypt(encryptionService.encrypt("Zoë Müller")));
+    }
+
+    @Test
+    @DisplayName("Should encrypt and decrypt batches in order, keeping nulls")
+    void testBatch() {
+        List<String> values = Arrays.asList("111223333", null, "", "444556666");
+
+        List<String> encrypted = encryptionService.encryptAll(values);
+        assertEquals(4, encrypted.size());
+        assertNull(encrypted.get(1));
+        assertNull(encrypted.get(2));
+
+        assertEquals(Arrays.asList("111223333", null, null, "444556666"), encryptionService.decryptAll(encrypted));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered ciphertext")
+    void testTamperedCiphertext() {
+        byte[] encrypted = Base64.getDecoder().decode(encryptionService.encrypt("123456789"));
+        encrypted[encrypted.length - 1] ^= 1;
+
+        assertThrows(RuntimeException.class,
+                () -> encryptionService.decrypt(Base64.getEncoder().encodeToString(encrypted)));
+    }
+
+    @Test
+    @DisplayName("Should prefix company ciphertext with its key id and still read legacy values")
+    void testCompanyKeys() {
+        String keyed = encryptionService.encryptSSN(7L, "123-45-6789");
+        String legacy = encryptionService.encryptSSN("987654321");
+
+        assertTrue(keyed.startsWith("k1:"));
+        assertEquals(1L, EncryptionService.keyIdOf(keyed));
+        assertNull(EncryptionService.keyIdOf(legacy));
+        assertEquals("123456789", encryptionService.decrypt(7L, keyed));
+        assertEquals("987654321", encryptionService.decrypt(7L, legacy));
+        assertEquals(Arrays.asList("123456789", null, "987654321"),
+                encryptionService.decryptAll(Arrays.asList(keyed, null, legacy)));
+
+        List<String> batch = encryptionService.encryptAll(8L, Arrays.asList("111223333", null));
+        assertTrue(batch.get(0).startsWith("k2:"));
+        assertNull(batch.get(1));
+    }
+
+    @Test
+    @DisplayName("Should refuse to decrypt another company's value")
+    void testCrossCompanyDecrypt() {
+        String keyed = encryptionService.encrypt(7L, "123456789");
+
+        assertThrows(IllegalArgumentException.class, () -> encryptionService.decrypt(8L, keyed));
+    }
+
+    @Test
+    @DisplayName("Should tell ciphertext apart from plaintext digits")
+    void testIsEncrypted() {
+        assertFalse(EncryptionService.isEncrypted("123-45-6789"));
+        assertFalse(EncryptionService.isEncrypted("0001234 5678"));
+        assertFalse(EncryptionService.isEncrypted(null));
+        assertTrue(EncryptionService.isEncrypted(encryptionService.encrypt("123456789")));
+        assertTrue(EncryptionService.isEncrypted(encryptionService.encrypt(7L, "123456789")));
+    }
+}
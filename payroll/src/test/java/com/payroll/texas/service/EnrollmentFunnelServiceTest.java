@@ -0,0 +1,114 @@
+package com.payroll.texas.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for EnrollmentFunnelService step-to-step conversion and the tally of step transitions.
+ */
+class EnrollmentFunnelServiceTest {
+
+    // The bucket lower bounds seeded by V21
+    private static final long[] BUCKETS = {0, 60, 300, 900, 3600, 21600, 86400, 259200, 604800, 2592000};
+
+    @Test
+    @DisplayName("Should report the share of the previous step's entries, or null when it had none")
+    void testConversionRate() {
+        assertEquals(0.5, EnrollmentFunnelService.conversionRate(50, 100));
+        assertEquals(0.3333, EnrollmentFunnelService.conversionRate(1, 3));
+        assertEquals(1.2, EnrollmentFunnelService.conversionRate(12, 10));
+        assertNull(EnrollmentFunnelService.conversionRate(5, 0));
+    }
+
+    @Test
+    @DisplayName("Should count a new enrollment as entering and currently at its first step")
+    void testCreatedEnrollment() {
+        EnrollmentFunnelService.Tally tally = new EnrollmentFunnelService.Tally(BUCKETS);
+        tally.record(null, "INITIAL", null);
+        tally.record(null, "INITIAL", null);
+
+        assertEquals(2, tally.steps.get("INITIAL").current);
+        assertEquals(2, tally.steps.get("INITIAL").entered);
+        assertTrue(tally.durations.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should move an enrollment between steps and time the step it left")
+    void testStepTransition() {
+        EnrollmentFunnelService.Tally tally = new EnrollmentFunnelService.Tally(BUCKETS);
+        tally.record(null, "INITIAL", null);
+        tally.record("INITIAL", "COMPANY_INFO", 45L);
+        tally.record("COMPANY_INFO", "PLAN_SELECTION", 400L);
+
+        assertEquals(0, tally.steps.get("INITIAL").current);
+        assertEquals(1, tally.steps.get("INITIAL").entered);
+        assertEquals(0, tally.steps.get("COMPANY_INFO").current);
+        assertEquals(1, tally.steps.get("COMPANY_INFO").entered);
+        assertEquals(1, tally.steps.get("PLAN_SELECTION").current);
+        assertEquals(1, tally.steps.get("PLAN_SELECTION").entered);
+
+        assertEquals(1, tally.durations.get("INITIAL").get(0).exits);
+        assertEquals(45, tally.durations.get("INITIAL").get(0).seconds);
+        assertEquals(1, tally.durations.get("COMPANY_INFO").get(2).exits);
+        assertEquals(400, tally.durations.get("COMPANY_INFO").get(2).seconds);
+    }
+
+    @Test
+    @DisplayName("Should count each re-entry into a step, and each exit from it")
+    void testReentry() {
+        EnrollmentFunnelService.Tally tally = new EnrollmentFunnelService.Tally(BUCKETS);
+        tally.record("COMPANY_INFO", "PLAN_SELECTION", 120L);
+        tally.record("PLAN_SELECTION", "COMPANY_INFO", 30L);
+        tally.record("COMPANY_INFO", "PLAN_SELECTION", 10L);
+
+        assertEquals(-1, tally.steps.get("COMPANY_INFO").current);
+        assertEquals(1, tally.steps.get("COMPANY_INFO").entered);
+        assertEquals(1, tally.steps.get("PLAN_SELECTION").current);
+        assertEquals(2, tally.steps.get("PLAN_SELECTION").entered);
+
+        // Both stays in COMPANY_INFO are timed, in their own buckets
+        assertEquals(1, tally.durations.get("COMPANY_INFO").get(1).exits);
+        assertEquals(1, tally.durations.get("COMPANY_INFO").get(0).exits);
+        assertEquals(10, tally.durations.get("COMPANY_INFO").get(0).seconds);
+    }
+
+    @Test
+    @DisplayName("Should only decrement the current step of a deleted enrollment")
+    void testDeletedEnrollment() {
+        EnrollmentFunnelService.Tally tally = new EnrollmentFunnelService.Tally(BUCKETS);
+        tally.record("ACCOUNT_CREATION", null, null);
+
+        assertEquals(-1, tally.steps.get("ACCOUNT_CREATION").current);
+        assertEquals(0, tally.steps.get("ACCOUNT_CREATION").entered);
+        assertTrue(tally.durations.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should bucket durations by lower bound inclusive and upper bound exclusive")
+    void testHistogramBucketing() {
+        EnrollmentFunnelService.Tally tally = new EnrollmentFunnelService.Tally(BUCKETS);
+
+        assertEquals(0, tally.bucketOf(0L));
+        assertEquals(0, tally.bucketOf(59L));
+        assertEquals(1, tally.bucketOf(60L));
+        assertEquals(3, tally.bucketOf(3599L));
+        assertEquals(4, tally.bucketOf(3600L));
+        assertEquals(8, tally.bucketOf(2591999L));
+        assertEquals(9, tally.bucketOf(2592000L));
+        assertEquals(9, tally.bucketOf(Long.MAX_VALUE));
+        assertEquals(-1, tally.bucketOf(null));
+    }
+
+    @Test
+    @DisplayName("Should move an untimed exit between steps without adding it to the histogram")
+    void testUntimedExit() {
+        EnrollmentFunnelService.Tally tally = new EnrollmentFunnelService.Tally(BUCKETS);
+        tally.record("INITIAL", "COMPANY_INFO", null);
+
+        assertEquals(-1, tally.steps.get("INITIAL").current);
+        assertEquals(1, tally.steps.get("COMPANY_INFO").entered);
+        assertTrue(tally.durations.isEmpty());
+    }
+}
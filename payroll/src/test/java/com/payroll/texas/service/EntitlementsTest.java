@@ -0,0 +1,102 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.model.BillingCycle;
+import com.payroll.texas.model.Company;
+import com.payroll.texas.model.CompanySubscription;
+import com.payroll.texas.model.Plan;
+import com.payroll.texas.model.SubscriptionStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Entitlements resolution of a company's plan, status and features.
+ */
+class EntitlementsTest {
+
+    @Test
+    @DisplayName("Should resolve plan limits and features from the subscription record")
+    void testSubscription() {
+        Company company = company(SubscriptionStatus.TRIAL);
+        LocalDateTime trialEnd = LocalDateTime.of(2025, 2, 1, 0, 0);
+        CompanySubscription subscription = subscription(company, "Standard", SubscriptionStatus.ACTIVE);
+        subscription.setTrialEndsAt(trialEnd);
+
+        Entitlements entitlements = Entitlements.resolve(company, subscription);
+
+        assertEquals(7L, entitlements.getCompanyId());
+        assertEquals("STANDARD", entitlements.getPlanName());
+        assertEquals(SubscriptionStatus.ACTIVE, entitlements.getStatus());
+        assertEquals(trialEnd, entitlements.getTrialEndsAt());
+        assertEquals(50, entitlements.getMaxEmployees());
+        assertTrue(entitlements.hasFeature("Benefits administration"));
+        assertFalse(entitlements.hasFeature("24/7 phone support"));
+        assertTrue(entitlements.hasSelectedPlan());
+        assertTrue(entitlements.isActive());
+        assertThrows(UnsupportedOperationException.class, () -> entitlements.getFeatures().add("Anything"));
+    }
+
+    @Test
+    @DisplayName("Should count the plan selected at signup when there is no subscription record")
+    void testSelectedPlanOnly() {
+        Company company = company(SubscriptionStatus.TRIAL);
+        company.getCustomFields().set(Company.SELECTED_PLAN, "basic");
+
+        Entitlements entitlements = Entitlements.resolve(company, null);
+
+        assertEquals("BASIC", entitlements.getPlanName());
+        assertTrue(entitlements.hasSelectedPlan());
+        assertTrue(entitlements.isActive());
+        assertNull(entitlements.getMaxEmployees());
+        assertTrue(entitlements.getFeatures().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not be active for expired or cancelled subscriptions or unknown plans")
+    void testInactive() {
+        Company company = company(SubscriptionStatus.EXPIRED);
+        company.getCustomFields().set(Company.SELECTED_PLAN, "PREMIUM");
+        Entitlements expired = Entitlements.resolve(company, subscription(company, "Premium", SubscriptionStatus.CANCELLED));
+        assertTrue(expired.hasSelectedPlan());
+        assertFalse(expired.isActive());
+
+        Company other = company(SubscriptionStatus.ACTIVE);
+        other.getCustomFields().set(Company.SELECTED_PLAN, "ENTERPRISE");
+        Entitlements unknown = Entitlements.resolve(other, null);
+        assertNull(unknown.getPlanName());
+        assertFalse(unknown.hasSelectedPlan());
+        assertFalse(unknown.isActive());
+
+        assertFalse(Entitlements.NONE.isActive());
+        assertFalse(Entitlements.NONE.hasSelectedPlan());
+    }
+
+    @Test
+    @DisplayName("Should grant no features when the plan's feature list is malformed")
+    void testMalformedFeatures() {
+        Company company = company(SubscriptionStatus.ACTIVE);
+        CompanySubscription subscription = subscription(company, "Basic", SubscriptionStatus.ACTIVE);
+        subscription.getPlan().setFeatures("not json");
+
+        assertTrue(Entitlements.resolve(company, subscription).getFeatures().isEmpty());
+    }
+
+    private static Company company(SubscriptionStatus status) {
+        Company company = new Company("Lone Star Welding", "owner@lonestar.example");
+        company.setId(7L);
+        company.setSubscriptionStatus(status);
+        return company;
+    }
+
+    private static CompanySubscription subscription(Company company, String planName, SubscriptionStatus status) {
+        Plan plan = new Plan(planName, planName + " Plan", new BigDecimal("99.00"), 50,
+                "[\"Full payroll processing\",\"Benefits administration\"]");
+        CompanySubscription subscription = new CompanySubscription(company, plan, BillingCycle.MONTHLY, plan.getMonthlyPrice());
+        subscription.setStatus(status);
+        return subscription;
+    }
+}
@@ -0,0 +1,97 @@
+package com.payroll.texas.service;
+
+import com.payroll.texas.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for LoginAttemptTracker lockout and write-behind behaviour.
+ */
+class LoginAttemptTrackerTest {
+
+    private LoginAttemptTracker tracker;
+    private JdbcTemplate jdbcTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new LoginAttemptTracker();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(tracker, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(tracker, "securityAuditService", new SecurityAuditService());
+        ReflectionTestUtils.setField(tracker, "maxFailedAttempts", 3);
+        ReflectionTestUtils.setField(tracker, "lockoutMinutes", 30);
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("owner@example.com");
+    }
+
+    @Test
+    @DisplayName("Should lock the account after max failed attempts")
+    void testLockout() {
+        assertFalse(tracker.recordFailure(user));
+        assertFalse(tracker.recordFailure(user));
+        assertNull(tracker.lockedUntil(user));
+
+        assertTrue(tracker.recordFailure(user));
+        assertNotNull(tracker.lockedUntil(user));
+    }
+
+    @Test
+    @DisplayName("Should honour a lockout stored on the user row")
+    void testSeedFromUser() {
+        user.setAccountLockedUntil(LocalDateTime.now().plusMinutes(5));
+        assertNotNull(tracker.lockedUntil(user));
+
+        user.setId(2L);
+        user.setAccountLockedUntil(LocalDateTime.now().minusMinutes(5));
+        assertNull(tracker.lockedUntil(user));
+    }
+
+    @Test
+    @DisplayName("Should reset failures on success and write each user once per flush")
+    @SuppressWarnings("unchecked")
+    void testSuccessAndBatchedFlush() {
+        tracker.recordFailure(user);
+        tracker.recordFailure(user);
+        tracker.recordSuccess(user, true);
+        assertFalse(tracker.recordFailure(user)); // count restarted
+
+        tracker.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(),
+                argThat((Collection<Object> batch) -> batch.size() == 1), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+
+        tracker.flush(); // nothing pending
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should follow the user row when no attempt is pending, including an unlock made on the row")
+    void testRowAuthoritativeOnceFlushed() {
+        user.setAccountLockedUntil(LocalDateTime.now().plusMinutes(5));
+        assertNotNull(tracker.lockedUntil(user));
+        user.setAccountLockedUntil(null); // checking did not keep the lockout in memory
+        assertNull(tracker.lockedUntil(user));
+
+        tracker.recordFailure(user);
+        tracker.recordFailure(user);
+        tracker.recordFailure(user);
+        assertNotNull(tracker.lockedUntil(user)); // held in memory until flushed
+
+        tracker.flush();
+        assertNull(tracker.lockedUntil(user)); // e.g. an admin reset on the row
+    }
+}
@@ -131,4 +131,17 @@ class PasswordServiceTest {
         assertTrue(passwordService.validatePassword(plainPassword, hash1));
         assertTrue(passwordService.validatePassword(plainPassword, hash2));
     }
-} 
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Should flag hashes whose cost differs from the configured strength")
+    void testNeedsRehash() {
+        String currentHash = passwordService.encryptPassword("TestPassword123!");
+        String weakerHash = new PasswordService(10).encryptPassword("TestPassword123!");
+        
+        assertFalse(passwordService.needsRehash(currentHash));
+        assertTrue(passwordService.needsRehash(weakerHash));
+        assertTrue(new PasswordService(10).needsRehash(currentHash));
+        assertFalse(passwordService.needsRehash("not-a-bcrypt-hash"));
+        assertFalse(passwordService.needsRehash(null));
+    }
+}
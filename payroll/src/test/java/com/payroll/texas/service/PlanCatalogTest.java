@@ -0,0 +1,112 @@
+package com.payroll.texas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payroll.texas.dto.plan.PlanResponse;
+import com.payroll.texas.model.Plan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PlanCatalog indexes and precomputed plan responses.
+ */
+class PlanCatalogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PlanCatalog catalog = PlanCatalog.build(1, List.of(
+            plan(3L, "PREMIUM", "199.00", 999999, 3, false, true),
+            plan(1L, "BASIC", "39.00", 5, 1, false, true),
+            plan(2L, "STANDARD", "99.00", 50, 2, true, true),
+            plan(4L, "LEGACY", "19.00", 3, 0, false, false)), objectMapper);
+
+    @Test
+    @DisplayName("Should list active plans in sort order and serialize them up front")
+    void testActive() throws Exception {
+        assertEquals(List.of("BASIC", "STANDARD", "PREMIUM"), names(catalog.active()));
+        assertEquals(List.of("STANDARD"), names(catalog.featured()));
+        assertEquals(objectMapper.writeValueAsString(catalog.active().getBody()),
+                new String(catalog.active().getJson()));
+        assertEquals(List.of("Full payroll processing"), catalog.getActivePlans().get(0).getFeatures());
+    }
+
+    @Test
+    @DisplayName("Should find plans by id and exact name including inactive ones")
+    void testLookup() {
+        assertEquals("LEGACY", ((PlanResponse) catalog.byId(4L).orElseThrow().getBody()).getName());
+        assertTrue(catalog.byName("STANDARD").isPresent());
+        assertTrue(catalog.byName("standard").isEmpty());
+        assertTrue(catalog.byId(99L).isEmpty());
+        assertEquals(2L, catalog.planByName("STANDARD").orElseThrow().getId());
+        assertEquals("LEGACY", catalog.planById(4L).orElseThrow().getName());
+        assertTrue(catalog.planByName(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return active plans allowing at least the requested employees")
+    void testForEmployees() {
+        assertEquals(List.of("BASIC", "STANDARD", "PREMIUM"), names(catalog.forEmployees(1)));
+        assertEquals(List.of("STANDARD", "PREMIUM"), names(catalog.forEmployees(6)));
+        assertEquals(List.of("STANDARD", "PREMIUM"), names(catalog.forEmployees(50)));
+        assertEquals(List.of(), names(catalog.forEmployees(1_000_000)));
+    }
+
+    @Test
+    @DisplayName("Should return active plans within an inclusive price range, cheapest first")
+    void testPriceRange() {
+        assertEquals(List.of("BASIC", "STANDARD"), names(catalog.priceRange(new BigDecimal("39"), new BigDecimal("99"))));
+        assertEquals(List.of("BASIC", "STANDARD", "PREMIUM"), names(catalog.priceRange(BigDecimal.ZERO, new BigDecimal("500"))));
+        assertEquals(List.of(), names(catalog.priceRange(new BigDecimal("40"), new BigDecimal("98.99"))));
+        assertEquals(List.of(), names(catalog.priceRange(new BigDecimal("100"), new BigDecimal("50"))));
+    }
+
+    @Test
+    @DisplayName("Should compare plans in request order and mark unknown names")
+    void testCompare() {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> comparison = (Map<String, Object>) catalog.compare(List.of("PREMIUM", "GOLD")).getBody();
+
+        assertEquals(List.of("PREMIUM", "GOLD"), List.copyOf(comparison.keySet()));
+        assertEquals(Map.of("error", "Plan not found"), comparison.get("GOLD"));
+    }
+
+    @Test
+    @DisplayName("Should derive strong ETags and a fingerprint from the serialized content")
+    void testEtags() {
+        PlanCatalog same = PlanCatalog.build(2, List.of(
+                plan(1L, "BASIC", "39.00", 5, 1, false, true),
+                plan(2L, "STANDARD", "99.00", 50, 2, true, true),
+                plan(3L, "PREMIUM", "199.00", 999999, 3, false, true),
+                plan(4L, "LEGACY", "19.00", 3, 0, false, false)), objectMapper);
+        PlanCatalog repriced = PlanCatalog.build(3, List.of(
+                plan(1L, "BASIC", "49.00", 5, 1, false, true)), objectMapper);
+
+        assertTrue(catalog.active().getEtag().matches("\"[0-9a-f]{32}\""));
+        assertEquals(catalog.getFingerprint(), same.getFingerprint());
+        assertEquals(catalog.active().getEtag(), same.active().getEtag());
+        assertNotEquals(catalog.getFingerprint(), repriced.getFingerprint());
+        assertNotEquals(catalog.byName("BASIC").orElseThrow().getEtag(), repriced.byName("BASIC").orElseThrow().getEtag());
+        assertNotEquals(catalog.active().getEtag(), catalog.featured().getEtag());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(PlanCatalog.View view) {
+        return ((List<PlanResponse>) view.getBody()).stream().map(PlanResponse::getName).toList();
+    }
+
+    private static Plan plan(Long id, String name, String price, int maxEmployees, int sortOrder,
+                             boolean featured, boolean active) {
+        Plan plan = new Plan(name, name.charAt(0) + name.substring(1).toLowerCase(), new BigDecimal(price),
+                maxEmployees, "[\"Full payroll processing\"]");
+        plan.setId(id);
+        plan.setSortOrder(sortOrder);
+        plan.setIsFeatured(featured);
+        plan.setIsActive(active);
+        return plan;
+    }
+}
@@ -0,0 +1,52 @@
+package com.payroll.texas.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RevokedTokenBloomFilter membership and false positive rate.
+ */
+class RevokedTokenBloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added key as absent")
+    void testNoFalseNegatives() {
+        RevokedTokenBloomFilter filter = new RevokedTokenBloomFilter(1000, 0.01);
+        String[] keys = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.add(keys[i]);
+        }
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep false positives near the configured rate")
+    void testFalsePositiveRate() {
+        RevokedTokenBloomFilter filter = new RevokedTokenBloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Should report nothing for an empty filter")
+    void testEmptyFilter() {
+        RevokedTokenBloomFilter filter = new RevokedTokenBloomFilter(10, 0.01);
+        assertFalse(filter.mightContain("anything"));
+        assertTrue(filter.hashCount() > 0);
+    }
+}